@@ -0,0 +1,98 @@
+package SteveJobs.encuestas.dao;
+
+import SteveJobs.encuestas.conexion.ConexionDB;
+import SteveJobs.encuestas.modelo.AtributoUsuario;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AtributoUsuarioDAO {
+
+    // Inserta o reemplaza los atributos en un solo lote y una transacción.
+    public boolean guardarAtributos(List<AtributoUsuario> atributos) {
+        if (atributos == null || atributos.isEmpty()) {
+            return true;
+        }
+        String sql = "INSERT INTO atributos_usuario (id_usuario, id_pregunta_registro, valor_texto, valor_numero, valor_fecha) VALUES (?, ?, ?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE valor_texto = VALUES(valor_texto), valor_numero = VALUES(valor_numero), valor_fecha = VALUES(valor_fecha)";
+        Connection con = null;
+        PreparedStatement ps = null;
+        boolean exito = false;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            con.setAutoCommit(false);
+            ps = con.prepareStatement(sql);
+            for (AtributoUsuario atributo : atributos) {
+                ps.setInt(1, atributo.getIdUsuario());
+                ps.setInt(2, atributo.getIdPreguntaRegistro());
+                ps.setString(3, atributo.getValorTexto());
+                if (atributo.getValorNumero() != null) {
+                    ps.setDouble(4, atributo.getValorNumero());
+                } else {
+                    ps.setNull(4, Types.DECIMAL);
+                }
+                ps.setDate(5, atributo.getValorFecha());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            con.commit();
+            exito = true;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al guardar atributos de usuario: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("DAO Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("DAO Error al restaurar autocommit: " + e.getMessage());
+                }
+            }
+            ConexionDB.cerrar(ps, con);
+        }
+        return exito;
+    }
+
+    // Todos los valores de una pregunta ordenados por usuario, o null si hubo error.
+    public List<AtributoUsuario> obtenerAtributosPorPregunta(int idPreguntaRegistro) {
+        String sql = "SELECT id_usuario, valor_texto, valor_numero, valor_fecha FROM atributos_usuario WHERE id_pregunta_registro = ? ORDER BY id_usuario";
+        List<AtributoUsuario> atributos = new ArrayList<>();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return null;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idPreguntaRegistro);
+            ps.setFetchSize(10000);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                AtributoUsuario atributo = new AtributoUsuario(rs.getInt("id_usuario"), idPreguntaRegistro);
+                atributo.setValorTexto(rs.getString("valor_texto"));
+                double numero = rs.getDouble("valor_numero");
+                atributo.setValorNumero(rs.wasNull() ? null : numero);
+                atributo.setValorFecha(rs.getDate("valor_fecha"));
+                atributos.add(atributo);
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener atributos por pregunta: " + e.getMessage());
+            return null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return atributos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package SteveJobs.encuestas.dao;
+
+import SteveJobs.encuestas.conexion.ConexionDB;
+import SteveJobs.encuestas.modelo.BorradorRespuesta;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BorradorRespuestaDAO {
+
+    // Guarda en un solo lote los borradores de todas las sesiones; cada fila se inserta o,
+    // si ya existía para ese usuario y pregunta, se actualiza su valor.
+    public boolean guardarBorradores(List<BorradorRespuesta> borradores) {
+        if (borradores == null || borradores.isEmpty()) {
+            return true;
+        }
+        String sql = "INSERT INTO borradores_respuesta (id_usuario, id_encuesta, id_encuesta_detalle_pregunta, valor_respuesta) VALUES (?, ?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE valor_respuesta = VALUES(valor_respuesta), fecha_actualizacion = CURRENT_TIMESTAMP";
+        Connection con = null;
+        PreparedStatement ps = null;
+        boolean exito = false;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            ps = con.prepareStatement(sql);
+            for (BorradorRespuesta borrador : borradores) {
+                ps.setInt(1, borrador.getIdUsuario());
+                ps.setInt(2, borrador.getIdEncuesta());
+                ps.setInt(3, borrador.getIdEncuestaDetallePregunta());
+                ps.setString(4, borrador.getValorRespuesta());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            exito = true;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al guardar borradores de respuestas: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return exito;
+    }
+
+    // Valores guardados por pregunta (id_encuesta_detalle_pregunta), o null si hubo error.
+    public Map<Integer, String> obtenerBorrador(int idUsuario, int idEncuesta) {
+        String sql = "SELECT id_encuesta_detalle_pregunta, valor_respuesta FROM borradores_respuesta WHERE id_usuario = ? AND id_encuesta = ?";
+        Map<Integer, String> valores = new LinkedHashMap<>();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return null;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idUsuario);
+            ps.setInt(2, idEncuesta);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                valores.put(rs.getInt("id_encuesta_detalle_pregunta"), rs.getString("valor_respuesta"));
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener borrador de respuestas: " + e.getMessage());
+            return null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return valores;
+    }
+
+    public boolean eliminarBorrador(int idUsuario, int idEncuesta) {
+        String sql = "DELETE FROM borradores_respuesta WHERE id_usuario = ? AND id_encuesta = ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        boolean exito = false;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idUsuario);
+            ps.setInt(2, idEncuesta);
+            ps.executeUpdate();
+            exito = true;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar borrador de respuestas: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return exito;
+    }
+
+    // Borra los borradores completos (usuario y encuesta) sin cambios en los últimos dias días;
+    // uno con alguna respuesta reciente se conserva entero. Devuelve las filas borradas o -1.
+    public int eliminarBorradoresAnterioresA(int dias) {
+        String sql = "DELETE b FROM borradores_respuesta b JOIN (" +
+                     "SELECT id_usuario, id_encuesta FROM borradores_respuesta GROUP BY id_usuario, id_encuesta " +
+                     "HAVING MAX(fecha_actualizacion) < (NOW() - INTERVAL ? DAY)) v " +
+                     "ON b.id_usuario = v.id_usuario AND b.id_encuesta = v.id_encuesta";
+        Connection con = null;
+        PreparedStatement ps = null;
+        int eliminados = -1;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, dias);
+            eliminados = ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar borradores abandonados: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return eliminados;
+    }
+
+    // Para la purga de encuestas eliminadas. Devuelve las filas borradas, o -1 si hubo error.
+    public int eliminarBorradoresDeEncuestaPorLote(int idEncuesta, int tamanoLote) {
+        String sql = "DELETE FROM borradores_respuesta WHERE id_encuesta = ? LIMIT ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        int eliminados = -1;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idEncuesta);
+            ps.setInt(2, tamanoLote);
+            eliminados = ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar borradores de la encuesta ID " + idEncuesta + ": " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return eliminados;
+    }
+}
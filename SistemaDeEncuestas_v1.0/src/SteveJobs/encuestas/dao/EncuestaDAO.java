@@ -4,6 +4,8 @@ Autor: AlfredoSwidin
 package SteveJobs.encuestas.dao;
 
 import SteveJobs.encuestas.modelo.Encuesta;
+import SteveJobs.encuestas.modelo.Pagina;
+import SteveJobs.encuestas.modelo.ResultadoCambioEstado;
 import SteveJobs.encuestas.conexion.ConexionDB;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -12,10 +14,21 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class EncuestaDAO {
 
+    public static final int CONFLICTO_VERSION = 0;
+
+    private static final Set<String> COLUMNAS_EDITABLES = new HashSet<>(Arrays.asList(
+            "nombre_encuesta", "descripcion", "fecha_inicio_vigencia", "fecha_fin_vigencia",
+            "publico_objetivo_cantidad", "definicion_perfil"));
+
     public int crearEncuesta(Encuesta encuesta) {
         String sql = "INSERT INTO Encuestas (nombre_encuesta, descripcion, fecha_inicio_vigencia, fecha_fin_vigencia, publico_objetivo_cantidad, definicion_perfil, estado, id_admin_creador) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         Connection con = null;
@@ -67,7 +80,7 @@ public class EncuestaDAO {
     }
 
     public boolean actualizarEncuesta(Encuesta encuesta) {
-        String sql = "UPDATE Encuestas SET nombre_encuesta = ?, descripcion = ?, fecha_inicio_vigencia = ?, fecha_fin_vigencia = ?, publico_objetivo_cantidad = ?, definicion_perfil = ?, estado = ? WHERE id_encuesta = ?";
+        String sql = "UPDATE Encuestas SET nombre_encuesta = ?, descripcion = ?, fecha_inicio_vigencia = ?, fecha_fin_vigencia = ?, publico_objetivo_cantidad = ?, definicion_perfil = ?, estado = ?, version = version + 1 WHERE id_encuesta = ? AND fecha_eliminacion IS NULL";
         Connection con = null;
         PreparedStatement ps = null;
         boolean exito = false;
@@ -93,6 +106,89 @@ public class EncuestaDAO {
         return exito;
     }
 
+    // Actualiza solo las columnas indicadas si la versión en BD sigue siendo versionEsperada.
+    // Devuelve la nueva versión, CONFLICTO_VERSION si otra edición ganó (o la encuesta ya no
+    // existe) y -1 si hubo error.
+    public int actualizarCamposEncuesta(int idEncuesta, int versionEsperada, Map<String, Object> cambios) {
+        if (cambios == null || cambios.isEmpty()) {
+            return versionEsperada;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE Encuestas SET ");
+        for (String columna : cambios.keySet()) {
+            if (!COLUMNAS_EDITABLES.contains(columna)) {
+                System.err.println("DAO Error: La columna '" + columna + "' no se puede actualizar.");
+                return -1;
+            }
+            sql.append(columna).append(" = ?, ");
+        }
+        sql.append("version = version + 1 WHERE id_encuesta = ? AND version = ? AND fecha_eliminacion IS NULL");
+
+        Connection con = null;
+        PreparedStatement ps = null;
+        int resultado = -1;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            ps = con.prepareStatement(sql.toString());
+            int indice = 1;
+            for (Object valor : cambios.values()) {
+                ps.setObject(indice++, valor);
+            }
+            ps.setInt(indice++, idEncuesta);
+            ps.setInt(indice, versionEsperada);
+            resultado = ps.executeUpdate() > 0 ? versionEsperada + 1 : CONFLICTO_VERSION;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al actualizar campos de encuesta: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return resultado;
+    }
+
+    // Borrado lógico: la encuesta deja de aparecer en todas las consultas y queda
+    // pendiente de que PurgadorEncuestas elimine sus filas en segundo plano.
+    public boolean marcarEncuestaEliminada(int idEncuesta) {
+        String sql = "UPDATE Encuestas SET fecha_eliminacion = CURRENT_TIMESTAMP, version = version + 1 WHERE id_encuesta = ? AND fecha_eliminacion IS NULL";
+        Connection con = null;
+        PreparedStatement ps = null;
+        boolean exito = false;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idEncuesta);
+            exito = ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al marcar encuesta como eliminada: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return exito;
+    }
+
+    public List<Integer> obtenerIdsEncuestasPendientesDePurga(int limite) {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT id_encuesta FROM Encuestas WHERE fecha_eliminacion IS NOT NULL ORDER BY fecha_eliminacion ASC LIMIT ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return ids;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, limite);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener encuestas pendientes de purga: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return ids;
+    }
+
     public boolean eliminarEncuesta(int idEncuesta) {
         String sql = "DELETE FROM Encuestas WHERE id_encuesta = ?";
         Connection con = null;
@@ -114,7 +210,7 @@ public class EncuestaDAO {
     }
 
     public Encuesta obtenerEncuestaPorId(int idEncuesta) {
-        String sql = "SELECT * FROM Encuestas WHERE id_encuesta = ?";
+        String sql = "SELECT * FROM Encuestas WHERE id_encuesta = ? AND fecha_eliminacion IS NULL";
         Connection con = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
@@ -137,6 +233,7 @@ public class EncuestaDAO {
                 encuesta.setEstado(rs.getString("estado"));
                 encuesta.setFechaCreacionEncuesta(rs.getTimestamp("fecha_creacion_encuesta"));
                 encuesta.setIdAdminCreador(rs.getInt("id_admin_creador"));
+                encuesta.setVersion(rs.getInt("version"));
             }
         } catch (SQLException e) {
             System.err.println("DAO Error al obtener encuesta por ID: " + e.getMessage());
@@ -148,7 +245,7 @@ public class EncuestaDAO {
 
     public List<Encuesta> obtenerTodasLasEncuestas() {
         List<Encuesta> lista = new ArrayList<>();
-        String sql = "SELECT id_encuesta, nombre_encuesta, descripcion, estado, fecha_inicio_vigencia, fecha_fin_vigencia FROM Encuestas ORDER BY fecha_creacion_encuesta DESC";
+        String sql = "SELECT id_encuesta, nombre_encuesta, descripcion, estado, fecha_inicio_vigencia, fecha_fin_vigencia, version FROM Encuestas WHERE fecha_eliminacion IS NULL ORDER BY fecha_creacion_encuesta DESC";
         Connection con = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
@@ -165,6 +262,7 @@ public class EncuestaDAO {
                 encuesta.setEstado(rs.getString("estado"));
                 encuesta.setFechaInicioVigencia(rs.getTimestamp("fecha_inicio_vigencia"));
                 encuesta.setFechaFinVigencia(rs.getTimestamp("fecha_fin_vigencia"));
+                encuesta.setVersion(rs.getInt("version"));
                 lista.add(encuesta);
             }
         } catch (SQLException e) {
@@ -174,9 +272,96 @@ public class EncuestaDAO {
         }
         return lista;
     }
+
+    // Página de encuestas en el mismo orden que obtenerTodasLasEncuestas, paginada por clave:
+    // en vez de OFFSET se sigue desde (fecha_creacion_encuesta, id_encuesta) del cursor, así
+    // cada página cuesta lo mismo sin importar cuántas encuestas haya antes. estado y texto
+    // (contenido en el nombre) son filtros opcionales. Devuelve null si hubo error o el cursor
+    // no es válido.
+    public Pagina<Encuesta> obtenerPaginaEncuestas(String cursor, int tamano, String estado, String texto) {
+        long fechaCursor = 0;
+        int idCursor = 0;
+        if (cursor != null) {
+            String[] partes = cursor.split(":");
+            try {
+                fechaCursor = Long.parseLong(partes[0]);
+                idCursor = Integer.parseInt(partes[1]);
+            } catch (RuntimeException e) {
+                System.err.println("DAO Error: cursor de encuestas no válido: " + cursor);
+                return null;
+            }
+        }
+        StringBuilder sql = new StringBuilder("SELECT id_encuesta, nombre_encuesta, descripcion, estado, fecha_inicio_vigencia, fecha_fin_vigencia, fecha_creacion_encuesta, version FROM Encuestas WHERE fecha_eliminacion IS NULL");
+        if (estado != null) {
+            sql.append(" AND estado = ?");
+        }
+        if (texto != null) {
+            sql.append(" AND nombre_encuesta LIKE ?");
+        }
+        if (cursor != null) {
+            sql.append(" AND (fecha_creacion_encuesta < ? OR (fecha_creacion_encuesta = ? AND id_encuesta < ?))");
+        }
+        sql.append(" ORDER BY fecha_creacion_encuesta DESC, id_encuesta DESC LIMIT ?");
+
+        List<Encuesta> lista = new ArrayList<>();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return null;
+            ps = con.prepareStatement(sql.toString());
+            int indice = 1;
+            if (estado != null) {
+                ps.setString(indice++, estado);
+            }
+            if (texto != null) {
+                ps.setString(indice++, patronContiene(texto));
+            }
+            if (cursor != null) {
+                ps.setTimestamp(indice++, new Timestamp(fechaCursor));
+                ps.setTimestamp(indice++, new Timestamp(fechaCursor));
+                ps.setInt(indice++, idCursor);
+            }
+            // Se pide una fila de más solo para saber si existe una página siguiente.
+            ps.setInt(indice, tamano + 1);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Encuesta encuesta = new Encuesta();
+                encuesta.setIdEncuesta(rs.getInt("id_encuesta"));
+                encuesta.setNombreEncuesta(rs.getString("nombre_encuesta"));
+                encuesta.setDescripcion(rs.getString("descripcion"));
+                encuesta.setEstado(rs.getString("estado"));
+                encuesta.setFechaInicioVigencia(rs.getTimestamp("fecha_inicio_vigencia"));
+                encuesta.setFechaFinVigencia(rs.getTimestamp("fecha_fin_vigencia"));
+                encuesta.setFechaCreacionEncuesta(rs.getTimestamp("fecha_creacion_encuesta"));
+                encuesta.setVersion(rs.getInt("version"));
+                lista.add(encuesta);
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener página de encuestas: " + e.getMessage());
+            return null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+
+        String cursorSiguiente = null;
+        if (lista.size() > tamano) {
+            lista.remove(tamano);
+            Encuesta ultima = lista.get(tamano - 1);
+            long fecha = ultima.getFechaCreacionEncuesta() != null ? ultima.getFechaCreacionEncuesta().getTime() : 0;
+            cursorSiguiente = fecha + ":" + ultima.getIdEncuesta();
+        }
+        return new Pagina<>(lista, cursorSiguiente);
+    }
+
+    // Patrón LIKE que busca el texto tal cual, escapando sus comodines.
+    private static String patronContiene(String texto) {
+        return "%" + texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
     
     public boolean actualizarEstadoEncuesta(int idEncuesta, String nuevoEstado) {
-        String sql = "UPDATE Encuestas SET estado = ? WHERE id_encuesta = ?";
+        String sql = "UPDATE Encuestas SET estado = ?, version = version + 1 WHERE id_encuesta = ? AND fecha_eliminacion IS NULL";
         Connection con = null;
         PreparedStatement ps = null;
         boolean exito = false;
@@ -194,4 +379,108 @@ public class EncuestaDAO {
         }
         return exito;
     }
-}
\ No newline at end of file
+
+    // Valida y aplica el cambio de estado de varias encuestas en una sola transacción.
+    // Las filas se leen con FOR UPDATE (encabezado y preguntas) para que nadie modifique
+    // las condiciones de activación entre la validación y el UPDATE.
+    public Map<Integer, ResultadoCambioEstado> cambiarEstadoEncuestas(List<Integer> idsEncuesta, String nuevoEstado, int preguntasRequeridas) {
+        Map<Integer, ResultadoCambioEstado> resultados = new LinkedHashMap<>();
+        if (idsEncuesta == null || idsEncuesta.isEmpty()) {
+            return resultados;
+        }
+        boolean esActivacion = "Activa".equalsIgnoreCase(nuevoEstado);
+
+        StringBuilder marcadores = new StringBuilder();
+        for (int i = 0; i < idsEncuesta.size(); i++) {
+            marcadores.append(i == 0 ? "?" : ", ?");
+        }
+        String sqlBloqueo = "SELECT e.id_encuesta, e.definicion_perfil, e.fecha_fin_vigencia, COUNT(d.id_encuesta_detalle) AS total_preguntas " +
+                            "FROM Encuestas e LEFT JOIN Encuesta_Detalle_Preguntas d ON d.id_encuesta = e.id_encuesta " +
+                            "WHERE e.id_encuesta IN (" + marcadores + ") AND e.fecha_eliminacion IS NULL " +
+                            "GROUP BY e.id_encuesta, e.definicion_perfil, e.fecha_fin_vigencia FOR UPDATE";
+        String sqlActualizar = "UPDATE Encuestas SET estado = ?, version = version + 1 WHERE id_encuesta = ? AND fecha_eliminacion IS NULL";
+        Connection con = null;
+        PreparedStatement psBloqueo = null;
+        PreparedStatement psActualizar = null;
+        ResultSet rs = null;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) {
+                for (Integer id : idsEncuesta) {
+                    resultados.put(id, new ResultadoCambioEstado(id, nuevoEstado, ResultadoCambioEstado.Motivo.ERROR_BD));
+                }
+                return resultados;
+            }
+            con.setAutoCommit(false);
+
+            psBloqueo = con.prepareStatement(sqlBloqueo);
+            for (int i = 0; i < idsEncuesta.size(); i++) {
+                psBloqueo.setInt(i + 1, idsEncuesta.get(i));
+            }
+            rs = psBloqueo.executeQuery();
+            Timestamp ahora = new Timestamp(System.currentTimeMillis());
+            Map<Integer, ResultadoCambioEstado.Motivo> evaluados = new LinkedHashMap<>();
+            while (rs.next()) {
+                int id = rs.getInt("id_encuesta");
+                ResultadoCambioEstado.Motivo motivo = ResultadoCambioEstado.Motivo.APLICADO;
+                if (esActivacion) {
+                    String perfil = rs.getString("definicion_perfil");
+                    Timestamp fechaFin = rs.getTimestamp("fecha_fin_vigencia");
+                    if (rs.getInt("total_preguntas") != preguntasRequeridas) {
+                        motivo = ResultadoCambioEstado.Motivo.PREGUNTAS_INCOMPLETAS;
+                    } else if (perfil == null || perfil.trim().isEmpty()) {
+                        motivo = ResultadoCambioEstado.Motivo.SIN_PERFIL;
+                    } else if (fechaFin == null || fechaFin.before(ahora)) {
+                        motivo = ResultadoCambioEstado.Motivo.FECHA_FIN_VENCIDA;
+                    }
+                }
+                evaluados.put(id, motivo);
+            }
+
+            psActualizar = con.prepareStatement(sqlActualizar);
+            boolean hayCambios = false;
+            for (Map.Entry<Integer, ResultadoCambioEstado.Motivo> entrada : evaluados.entrySet()) {
+                if (entrada.getValue() == ResultadoCambioEstado.Motivo.APLICADO) {
+                    psActualizar.setString(1, nuevoEstado);
+                    psActualizar.setInt(2, entrada.getKey());
+                    psActualizar.addBatch();
+                    hayCambios = true;
+                }
+            }
+            if (hayCambios) {
+                psActualizar.executeBatch();
+            }
+            con.commit();
+
+            for (Integer id : idsEncuesta) {
+                ResultadoCambioEstado.Motivo motivo = evaluados.get(id);
+                resultados.put(id, new ResultadoCambioEstado(id, nuevoEstado, motivo != null ? motivo : ResultadoCambioEstado.Motivo.NO_ENCONTRADA, preguntasRequeridas));
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al cambiar estado de encuestas: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("DAO Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+            resultados.clear();
+            for (Integer id : idsEncuesta) {
+                resultados.put(id, new ResultadoCambioEstado(id, nuevoEstado, ResultadoCambioEstado.Motivo.ERROR_BD));
+            }
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException ex) {
+                }
+            }
+            ConexionDB.cerrar(rs);
+            ConexionDB.cerrar(psBloqueo);
+            ConexionDB.cerrar(psActualizar, con);
+        }
+        return resultados;
+    }
+}
@@ -16,8 +16,9 @@ import java.util.List;
 
 public class EncuestaDetallePreguntaDAO {
 
+    private static final String SQL_INSERTAR_DETALLE = "INSERT INTO Encuesta_Detalle_Preguntas (id_encuesta, id_pregunta_banco, texto_pregunta_unica, id_tipo_pregunta_unica, id_clasificacion_unica, orden_en_encuesta, es_pregunta_descarte, criterio_descarte_valor) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
     public boolean agregarPreguntaAEncuesta(EncuestaDetallePregunta detalle) {
-        String sql = "INSERT INTO Encuesta_Detalle_Preguntas (id_encuesta, id_pregunta_banco, texto_pregunta_unica, id_tipo_pregunta_unica, id_clasificacion_unica, orden_en_encuesta, es_pregunta_descarte, criterio_descarte_valor) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         Connection con = null;
         PreparedStatement ps = null;
         boolean exito = false;
@@ -25,39 +26,203 @@ public class EncuestaDetallePreguntaDAO {
         try {
             con = ConexionDB.conectar();
             if (con == null) return false;
+            ps = con.prepareStatement(SQL_INSERTAR_DETALLE);
+            asignarParametrosInsercion(ps, detalle);
+            exito = ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al agregar pregunta a encuesta: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            ConexionDB.cerrar(ps);
+            ConexionDB.cerrar(con);
+        }
+        return exito;
+    }
+
+    // Inserta la pregunta solo si la encuesta tiene menos de maxPreguntas, en una única sentencia.
+    // El subconteo es una lectura con bloqueo dentro del INSERT ... SELECT, por lo que dos
+    // administradores agregando a la vez no pueden superar el límite.
+    // Devuelve 1 si se insertó, 0 si la encuesta ya estaba completa y -1 si hubo error.
+    public int agregarPreguntaAEncuestaConLimite(EncuestaDetallePregunta detalle, int maxPreguntas) {
+        String sql = "INSERT INTO Encuesta_Detalle_Preguntas (id_encuesta, id_pregunta_banco, texto_pregunta_unica, id_tipo_pregunta_unica, id_clasificacion_unica, orden_en_encuesta, es_pregunta_descarte, criterio_descarte_valor) " +
+                     "SELECT ?, ?, ?, ?, ?, ?, ?, ? FROM DUAL " +
+                     "WHERE (SELECT COUNT(*) FROM Encuesta_Detalle_Preguntas WHERE id_encuesta = ?) < ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        int resultado = -1;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
             ps = con.prepareStatement(sql);
-            ps.setInt(1, detalle.getIdEncuesta());
+            asignarParametrosInsercion(ps, detalle);
+            ps.setInt(9, detalle.getIdEncuesta());
+            ps.setInt(10, maxPreguntas);
+            resultado = ps.executeUpdate() > 0 ? 1 : 0;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al agregar pregunta con límite a encuesta: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return resultado;
+    }
+
+    private void asignarParametrosInsercion(PreparedStatement ps, EncuestaDetallePregunta detalle) throws SQLException {
+        ps.setInt(1, detalle.getIdEncuesta());
 
-            if (detalle.getIdPreguntaBanco() != null && detalle.getIdPreguntaBanco() > 0) {
-                ps.setInt(2, detalle.getIdPreguntaBanco());
-                ps.setNull(3, java.sql.Types.VARCHAR);
+        if (detalle.getIdPreguntaBanco() != null && detalle.getIdPreguntaBanco() > 0) {
+            ps.setInt(2, detalle.getIdPreguntaBanco());
+            ps.setNull(3, java.sql.Types.VARCHAR);
+            ps.setNull(4, java.sql.Types.INTEGER);
+            ps.setNull(5, java.sql.Types.INTEGER);
+        } else {
+            ps.setNull(2, java.sql.Types.INTEGER);
+            ps.setString(3, detalle.getTextoPreguntaUnica());
+            if (detalle.getIdTipoPreguntaUnica() != null && detalle.getIdTipoPreguntaUnica() > 0) {
+                ps.setInt(4, detalle.getIdTipoPreguntaUnica());
+            } else {
                 ps.setNull(4, java.sql.Types.INTEGER);
-                ps.setNull(5, java.sql.Types.INTEGER);
+            }
+            if (detalle.getIdClasificacionUnica() != null && detalle.getIdClasificacionUnica() > 0) {
+                ps.setInt(5, detalle.getIdClasificacionUnica());
             } else {
-                ps.setNull(2, java.sql.Types.INTEGER);
-                ps.setString(3, detalle.getTextoPreguntaUnica());
-                if (detalle.getIdTipoPreguntaUnica() != null && detalle.getIdTipoPreguntaUnica() > 0) {
-                    ps.setInt(4, detalle.getIdTipoPreguntaUnica());
-                } else {
-                     ps.setNull(4, java.sql.Types.INTEGER);
+                ps.setNull(5, java.sql.Types.INTEGER);
+            }
+        }
+        ps.setInt(6, detalle.getOrdenEnEncuesta());
+        ps.setBoolean(7, detalle.isEsPreguntaDescarte());
+        ps.setString(8, detalle.getCriterioDescarteValor());
+    }
+
+    // Inserta todas las preguntas en una sola transacción. El COUNT se hace con bloqueo
+    // (FOR UPDATE) para que el límite se valide una vez para todo el lote.
+    public boolean agregarPreguntasAEncuesta(int idEncuesta, List<EncuestaDetallePregunta> detalles, int maxPreguntas) {
+        return insertarLote(idEncuesta, detalles, maxPreguntas, false);
+    }
+
+    // Igual que agregarPreguntasAEncuesta, pero el orden de cada pregunta se toma como relativo
+    // y se suma al mayor orden existente, leído bajo el mismo bloqueo que el conteo.
+    public boolean agregarPreguntasAlFinal(int idEncuesta, List<EncuestaDetallePregunta> detalles, int maxPreguntas) {
+        return insertarLote(idEncuesta, detalles, maxPreguntas, true);
+    }
+
+    private boolean insertarLote(int idEncuesta, List<EncuestaDetallePregunta> detalles, int maxPreguntas, boolean aContinuacion) {
+        if (detalles == null || detalles.isEmpty()) {
+            return true;
+        }
+        String sqlConteo = "SELECT COUNT(*), COALESCE(MAX(orden_en_encuesta), 0) FROM Encuesta_Detalle_Preguntas WHERE id_encuesta = ? FOR UPDATE";
+        Connection con = null;
+        PreparedStatement psConteo = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        boolean exito = false;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            con.setAutoCommit(false);
+
+            psConteo = con.prepareStatement(sqlConteo);
+            psConteo.setInt(1, idEncuesta);
+            rs = psConteo.executeQuery();
+            int actuales = 0;
+            int ordenBase = 0;
+            if (rs.next()) {
+                actuales = rs.getInt(1);
+                ordenBase = rs.getInt(2);
+            }
+            if (actuales + detalles.size() > maxPreguntas) {
+                System.err.println("DAO: La encuesta ID " + idEncuesta + " tiene " + actuales + " preguntas; agregar " + detalles.size() + " supera el máximo de " + maxPreguntas + ".");
+                con.rollback();
+                return false;
+            }
+
+            ps = con.prepareStatement(SQL_INSERTAR_DETALLE);
+            for (EncuestaDetallePregunta detalle : detalles) {
+                detalle.setIdEncuesta(idEncuesta);
+                if (aContinuacion) {
+                    detalle.setOrdenEnEncuesta(ordenBase + detalle.getOrdenEnEncuesta());
                 }
-                if (detalle.getIdClasificacionUnica() != null && detalle.getIdClasificacionUnica() > 0) {
-                    ps.setInt(5, detalle.getIdClasificacionUnica());
-                } else {
-                    ps.setNull(5, java.sql.Types.INTEGER);
+                asignarParametrosInsercion(ps, detalle);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            con.commit();
+            exito = true;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al agregar lote de preguntas a encuesta: " + e.getMessage());
+            e.printStackTrace();
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("DAO Error al hacer rollback: " + ex.getMessage());
                 }
             }
-            ps.setInt(6, detalle.getOrdenEnEncuesta());
-            ps.setBoolean(7, detalle.isEsPreguntaDescarte());
-            ps.setString(8, detalle.getCriterioDescarteValor());
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException ex) {
+                }
+            }
+            ConexionDB.cerrar(rs);
+            ConexionDB.cerrar(psConteo);
+            ConexionDB.cerrar(ps, con);
+        }
+        return exito;
+    }
 
-            exito = ps.executeUpdate() > 0;
+    // Reasigna orden_en_encuesta según la posición en la lista (1..N) en un único lote.
+    public boolean reordenarPreguntasEncuesta(int idEncuesta, List<Integer> idsDetalleEnOrden) {
+        if (idsDetalleEnOrden == null || idsDetalleEnOrden.isEmpty()) {
+            return true;
+        }
+        String sql = "UPDATE Encuesta_Detalle_Preguntas SET orden_en_encuesta = ? WHERE id_encuesta_detalle = ? AND id_encuesta = ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        boolean exito = false;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            con.setAutoCommit(false);
+            ps = con.prepareStatement(sql);
+            int orden = 1;
+            for (Integer idDetalle : idsDetalleEnOrden) {
+                ps.setInt(1, orden++);
+                ps.setInt(2, idDetalle);
+                ps.setInt(3, idEncuesta);
+                ps.addBatch();
+            }
+            int[] resultados = ps.executeBatch();
+            for (int resultado : resultados) {
+                if (resultado == 0 || resultado == PreparedStatement.EXECUTE_FAILED) {
+                    System.err.println("DAO: Alguna pregunta a reordenar no pertenece a la encuesta ID " + idEncuesta + ". Se revierte el reordenamiento.");
+                    con.rollback();
+                    return false;
+                }
+            }
+            con.commit();
+            exito = true;
         } catch (SQLException e) {
-            System.err.println("DAO Error al agregar pregunta a encuesta: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("DAO Error al reordenar preguntas de la encuesta: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("DAO Error al hacer rollback: " + ex.getMessage());
+                }
+            }
         } finally {
-            ConexionDB.cerrar(ps);
-            ConexionDB.cerrar(con);
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException ex) {
+                }
+            }
+            ConexionDB.cerrar(ps, con);
         }
         return exito;
     }
@@ -66,9 +231,12 @@ public class EncuestaDetallePreguntaDAO {
         List<EncuestaDetallePregunta> detalles = new ArrayList<>();
         String sql = "SELECT edp.*, " +
                      "pb.texto_pregunta AS texto_banco, pb.id_tipo_pregunta AS id_tipo_banco, pb.id_clasificacion AS id_clasif_banco, " +
+                     "tpb.nombre_tipo AS nombre_tipo_banco, cpb.nombre_clasificacion AS nombre_clasif_banco, " +
                      "tpu.nombre_tipo AS nombre_tipo_unica, cpu.nombre_clasificacion AS nombre_clasif_unica " +
                      "FROM Encuesta_Detalle_Preguntas edp " +
                      "LEFT JOIN Preguntas_Banco pb ON edp.id_pregunta_banco = pb.id_pregunta_banco " +
+                     "LEFT JOIN TiposPregunta tpb ON pb.id_tipo_pregunta = tpb.id_tipo_pregunta " +
+                     "LEFT JOIN ClasificacionesPregunta cpb ON pb.id_clasificacion = cpb.id_clasificacion " +
                      "LEFT JOIN TiposPregunta tpu ON edp.id_tipo_pregunta_unica = tpu.id_tipo_pregunta " +
                      "LEFT JOIN ClasificacionesPregunta cpu ON edp.id_clasificacion_unica = cpu.id_clasificacion " +
                      "WHERE edp.id_encuesta = ? ORDER BY edp.orden_en_encuesta ASC";
@@ -96,6 +264,11 @@ public class EncuestaDetallePreguntaDAO {
                     PreguntaBanco preguntaDelBanco = new PreguntaBanco();
                     preguntaDelBanco.setIdPreguntaBanco(idPreguntaBanco);
                     preguntaDelBanco.setTextoPregunta(rs.getString("texto_banco"));
+                    preguntaDelBanco.setIdTipoPregunta(rs.getInt("id_tipo_banco"));
+                    Integer idClasifBanco = rs.getInt("id_clasif_banco");
+                    preguntaDelBanco.setIdClasificacion(rs.wasNull() ? null : idClasifBanco);
+                    preguntaDelBanco.setNombreTipoPregunta(rs.getString("nombre_tipo_banco"));
+                    preguntaDelBanco.setNombreClasificacion(rs.getString("nombre_clasif_banco"));
                     detalle.setPreguntaDelBanco(preguntaDelBanco);
                 } else {
                     detalle.setTextoPreguntaUnica(rs.getString("texto_pregunta_unica"));
@@ -103,6 +276,8 @@ public class EncuestaDetallePreguntaDAO {
                     detalle.setIdTipoPreguntaUnica(rs.wasNull() ? null : idTipoUnica);
                     Integer idClasifUnica = rs.getInt("id_clasificacion_unica");
                     detalle.setIdClasificacionUnica(rs.wasNull() ? null : idClasifUnica);
+                    detalle.setNombreTipoPreguntaUnica(rs.getString("nombre_tipo_unica"));
+                    detalle.setNombreClasificacionUnica(rs.getString("nombre_clasif_unica"));
                 }
                 detalles.add(detalle);
             }
@@ -227,6 +402,27 @@ public class EncuestaDetallePreguntaDAO {
         return count;
     }
 
+    // Devuelve la cantidad de filas borradas en este lote, o -1 si hubo error.
+    public int eliminarPreguntasDeEncuestaPorLote(int idEncuesta, int tamanoLote) {
+        String sql = "DELETE FROM Encuesta_Detalle_Preguntas WHERE id_encuesta = ? LIMIT ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        int eliminadas = -1;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idEncuesta);
+            ps.setInt(2, tamanoLote);
+            eliminadas = ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar lote de preguntas de la encuesta ID " + idEncuesta + ": " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return eliminadas;
+    }
+
     public boolean eliminarTodasPreguntasDeEncuesta(int idEncuesta) {
         String sql = "DELETE FROM Encuesta_Detalle_Preguntas WHERE id_encuesta = ?";
         Connection con = null;
@@ -1,6 +1,180 @@
 package SteveJobs.encuestas.dao;
 
+import SteveJobs.encuestas.conexion.ConexionDB;
+import SteveJobs.encuestas.modelo.EncuestaDetallePregunta;
+import SteveJobs.encuestas.modelo.PlantillaPregunta;
+import SteveJobs.encuestas.modelo.PreguntaBanco;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class PlantillaPreguntaDAO {
-    
+
+    // Crea la cabecera y sus preguntas en una sola transacción; devuelve el ID o -1.
+    public int crearPlantilla(PlantillaPregunta plantilla) {
+        String sqlCabecera = "INSERT INTO Plantillas_Pregunta (nombre_plantilla, descripcion, id_admin_creador) VALUES (?, ?, ?)";
+        String sqlDetalle = "INSERT INTO Plantilla_Detalle_Preguntas (id_plantilla, id_pregunta_banco, orden_en_plantilla, es_pregunta_descarte, criterio_descarte_valor) VALUES (?, ?, ?, ?, ?)";
+        Connection con = null;
+        PreparedStatement psCabecera = null;
+        PreparedStatement psDetalle = null;
+        ResultSet generatedKeys = null;
+        int idGenerado = -1;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            con.setAutoCommit(false);
+
+            psCabecera = con.prepareStatement(sqlCabecera, Statement.RETURN_GENERATED_KEYS);
+            psCabecera.setString(1, plantilla.getNombrePlantilla());
+            psCabecera.setString(2, plantilla.getDescripcion());
+            psCabecera.setInt(3, plantilla.getIdAdminCreador());
+            psCabecera.executeUpdate();
+            generatedKeys = psCabecera.getGeneratedKeys();
+            if (!generatedKeys.next()) {
+                con.rollback();
+                return -1;
+            }
+            int idPlantilla = generatedKeys.getInt(1);
+
+            psDetalle = con.prepareStatement(sqlDetalle);
+            for (EncuestaDetallePregunta detalle : plantilla.getPreguntas()) {
+                psDetalle.setInt(1, idPlantilla);
+                psDetalle.setInt(2, detalle.getIdPreguntaBanco());
+                psDetalle.setInt(3, detalle.getOrdenEnEncuesta());
+                psDetalle.setBoolean(4, detalle.isEsPreguntaDescarte());
+                psDetalle.setString(5, detalle.getCriterioDescarteValor());
+                psDetalle.addBatch();
+            }
+            psDetalle.executeBatch();
+            con.commit();
+            idGenerado = idPlantilla;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al crear plantilla de preguntas: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("DAO Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException ex) {
+                }
+            }
+            ConexionDB.cerrar(generatedKeys);
+            ConexionDB.cerrar(psDetalle);
+            ConexionDB.cerrar(psCabecera, con);
+        }
+        return idGenerado;
+    }
+
+    // Todas las plantillas con sus preguntas en una sola consulta, para poblar la caché.
+    public List<PlantillaPregunta> obtenerTodasLasPlantillas() {
+        String sql = "SELECT p.id_plantilla, p.nombre_plantilla, p.descripcion, p.id_admin_creador, p.fecha_creacion, " +
+                     "d.id_pregunta_banco, d.orden_en_plantilla, d.es_pregunta_descarte, d.criterio_descarte_valor, pb.texto_pregunta " +
+                     "FROM Plantillas_Pregunta p " +
+                     "LEFT JOIN Plantilla_Detalle_Preguntas d ON p.id_plantilla = d.id_plantilla " +
+                     "LEFT JOIN Preguntas_Banco pb ON d.id_pregunta_banco = pb.id_pregunta_banco " +
+                     "ORDER BY p.id_plantilla ASC, d.orden_en_plantilla ASC";
+        Map<Integer, PlantillaPregunta> plantillas = new LinkedHashMap<>();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return new ArrayList<>();
+            ps = con.prepareStatement(sql);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                int idPlantilla = rs.getInt("id_plantilla");
+                PlantillaPregunta plantilla = plantillas.get(idPlantilla);
+                if (plantilla == null) {
+                    plantilla = new PlantillaPregunta();
+                    plantilla.setIdPlantilla(idPlantilla);
+                    plantilla.setNombrePlantilla(rs.getString("nombre_plantilla"));
+                    plantilla.setDescripcion(rs.getString("descripcion"));
+                    plantilla.setIdAdminCreador(rs.getInt("id_admin_creador"));
+                    plantilla.setFechaCreacion(rs.getTimestamp("fecha_creacion"));
+                    plantillas.put(idPlantilla, plantilla);
+                }
+                int idPreguntaBanco = rs.getInt("id_pregunta_banco");
+                if (rs.wasNull()) {
+                    continue;
+                }
+                EncuestaDetallePregunta detalle = new EncuestaDetallePregunta();
+                detalle.setIdPreguntaBanco(idPreguntaBanco);
+                detalle.setOrdenEnEncuesta(rs.getInt("orden_en_plantilla"));
+                detalle.setEsPreguntaDescarte(rs.getBoolean("es_pregunta_descarte"));
+                detalle.setCriterioDescarteValor(rs.getString("criterio_descarte_valor"));
+                PreguntaBanco preguntaDelBanco = new PreguntaBanco();
+                preguntaDelBanco.setIdPreguntaBanco(idPreguntaBanco);
+                preguntaDelBanco.setTextoPregunta(rs.getString("texto_pregunta"));
+                detalle.setPreguntaDelBanco(preguntaDelBanco);
+                plantilla.agregarPregunta(detalle);
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener plantillas de preguntas: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return new ArrayList<>(plantillas.values());
+    }
+
+    public boolean eliminarPlantilla(int idPlantilla) {
+        String sqlDetalle = "DELETE FROM Plantilla_Detalle_Preguntas WHERE id_plantilla = ?";
+        String sqlCabecera = "DELETE FROM Plantillas_Pregunta WHERE id_plantilla = ?";
+        Connection con = null;
+        PreparedStatement psDetalle = null;
+        PreparedStatement psCabecera = null;
+        boolean exito = false;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            con.setAutoCommit(false);
+            psDetalle = con.prepareStatement(sqlDetalle);
+            psDetalle.setInt(1, idPlantilla);
+            psDetalle.executeUpdate();
+            psCabecera = con.prepareStatement(sqlCabecera);
+            psCabecera.setInt(1, idPlantilla);
+            exito = psCabecera.executeUpdate() > 0;
+            if (exito) {
+                con.commit();
+            } else {
+                con.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar plantilla de preguntas: " + e.getMessage());
+            exito = false;
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("DAO Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException ex) {
+                }
+            }
+            ConexionDB.cerrar(psDetalle);
+            ConexionDB.cerrar(psCabecera, con);
+        }
+        return exito;
+    }
 }
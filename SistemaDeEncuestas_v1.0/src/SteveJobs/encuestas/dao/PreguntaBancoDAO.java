@@ -4,22 +4,193 @@ Pendiente..
 package SteveJobs.encuestas.dao;
 
 import SteveJobs.encuestas.modelo.PreguntaBanco;
+import SteveJobs.encuestas.conexion.ConexionDB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.ArrayList;
 
 
 public class PreguntaBancoDAO {
-    
+
+    private static final String SQL_SELECT_BASE = "SELECT pb.id_pregunta_banco, pb.texto_pregunta, pb.id_tipo_pregunta, pb.id_clasificacion, " +
+                                                  "tp.nombre_tipo, cp.nombre_clasificacion " +
+                                                  "FROM Preguntas_Banco pb " +
+                                                  "LEFT JOIN TiposPregunta tp ON pb.id_tipo_pregunta = tp.id_tipo_pregunta " +
+                                                  "LEFT JOIN ClasificacionesPregunta cp ON pb.id_clasificacion = cp.id_clasificacion ";
+
+    public int crearPregunta(PreguntaBanco pregunta) {
+        String sql = "INSERT INTO Preguntas_Banco (texto_pregunta, id_tipo_pregunta, id_clasificacion) VALUES (?, ?, ?)";
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet generatedKeys = null;
+        int idGenerado = -1;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, pregunta.getTextoPregunta());
+            ps.setInt(2, pregunta.getIdTipoPregunta());
+            if (pregunta.getIdClasificacion() != null && pregunta.getIdClasificacion() > 0) {
+                ps.setInt(3, pregunta.getIdClasificacion());
+            } else {
+                ps.setNull(3, java.sql.Types.INTEGER);
+            }
+            if (ps.executeUpdate() > 0) {
+                generatedKeys = ps.getGeneratedKeys();
+                if (generatedKeys.next()) {
+                    idGenerado = generatedKeys.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al crear pregunta del banco: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(generatedKeys, ps, con);
+        }
+        return idGenerado;
+    }
+
+    public boolean actualizarPregunta(PreguntaBanco pregunta) {
+        String sql = "UPDATE Preguntas_Banco SET texto_pregunta = ?, id_tipo_pregunta = ?, id_clasificacion = ? WHERE id_pregunta_banco = ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        boolean exito = false;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            ps = con.prepareStatement(sql);
+            ps.setString(1, pregunta.getTextoPregunta());
+            ps.setInt(2, pregunta.getIdTipoPregunta());
+            if (pregunta.getIdClasificacion() != null && pregunta.getIdClasificacion() > 0) {
+                ps.setInt(3, pregunta.getIdClasificacion());
+            } else {
+                ps.setNull(3, java.sql.Types.INTEGER);
+            }
+            ps.setInt(4, pregunta.getIdPreguntaBanco());
+            exito = ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al actualizar pregunta del banco: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return exito;
+    }
+
+    public boolean eliminarPregunta(int idPreguntaBanco) {
+        String sql = "DELETE FROM Preguntas_Banco WHERE id_pregunta_banco = ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        boolean exito = false;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idPreguntaBanco);
+            exito = ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar pregunta del banco (puede estar usada en encuestas): " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(ps, con);
+        }
+        return exito;
+    }
+
     public PreguntaBanco obtenerPreguntaPorId(int id) {
-         System.out.println("DEBUG: PreguntaBancoDAO.obtenerPreguntaPorId(int) NO IMPLEMENTADO, devolviendo null para ID " + id);
-        return null;
+        String sql = SQL_SELECT_BASE + "WHERE pb.id_pregunta_banco = ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        PreguntaBanco pregunta = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return null;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, id);
+            rs = ps.executeQuery();
+            if (rs.next()) {
+                pregunta = mapearPregunta(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener pregunta del banco por ID: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return pregunta;
     }
+
      public PreguntaBanco obtenerPreguntaPorId(Integer id) {
+        if (id == null) return null;
         return obtenerPreguntaPorId(id.intValue());
     }
+
+    public List<PreguntaBanco> obtenerTodasLasPreguntas() {
+        List<PreguntaBanco> preguntas = new ArrayList<>();
+        String sql = SQL_SELECT_BASE + "ORDER BY pb.id_pregunta_banco ASC";
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return preguntas;
+            ps = con.prepareStatement(sql);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                preguntas.add(mapearPregunta(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener preguntas del banco: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return preguntas;
+    }
+
+    // Búsqueda directa en BD. Para el buscador interactivo se usa el índice en memoria
+    // de ServicioPreguntas; esto queda para procesos que necesiten leer de la BD.
     public List<PreguntaBanco> listarPreguntasDelBancoConFiltro(String filtroTexto, String filtroTipo) {
-        System.out.println("DEBUG: PreguntaBancoDAO.listarPreguntasDelBancoConFiltro NO IMPLEMENTADO, devolviendo lista vacía.");
-        return new ArrayList<>();
+        List<PreguntaBanco> preguntas = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SQL_SELECT_BASE).append("WHERE 1 = 1 ");
+        boolean conTexto = filtroTexto != null && !filtroTexto.trim().isEmpty();
+        boolean conTipo = filtroTipo != null && !filtroTipo.trim().isEmpty();
+        if (conTexto) sql.append("AND pb.texto_pregunta LIKE ? ");
+        if (conTipo) sql.append("AND tp.nombre_tipo = ? ");
+        sql.append("ORDER BY pb.id_pregunta_banco ASC");
+
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return preguntas;
+            ps = con.prepareStatement(sql.toString());
+            int indice = 1;
+            if (conTexto) ps.setString(indice++, "%" + filtroTexto.trim() + "%");
+            if (conTipo) ps.setString(indice, filtroTipo.trim());
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                preguntas.add(mapearPregunta(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al filtrar preguntas del banco: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return preguntas;
+    }
+
+    private PreguntaBanco mapearPregunta(ResultSet rs) throws SQLException {
+        PreguntaBanco pregunta = new PreguntaBanco();
+        pregunta.setIdPreguntaBanco(rs.getInt("id_pregunta_banco"));
+        pregunta.setTextoPregunta(rs.getString("texto_pregunta"));
+        pregunta.setIdTipoPregunta(rs.getInt("id_tipo_pregunta"));
+        Integer idClasificacion = rs.getInt("id_clasificacion");
+        pregunta.setIdClasificacion(rs.wasNull() ? null : idClasificacion);
+        pregunta.setNombreTipoPregunta(rs.getString("nombre_tipo"));
+        pregunta.setNombreClasificacion(rs.getString("nombre_clasificacion"));
+        return pregunta;
     }
-    
 }
@@ -82,6 +82,43 @@ public class PreguntaRegistroDAO {
         return preguntas;
     }
 
+    // Preguntas activas en orden de visualización; a diferencia de la anterior devuelve null si
+    // hubo error, para no confundir una falla con un formulario sin preguntas.
+    public List<PreguntaRegistro> obtenerPreguntasRegistroActivas() {
+        List<PreguntaRegistro> preguntas = new ArrayList<>();
+        String sql = "SELECT id_pregunta_registro, texto_pregunta, tipo_respuesta, opciones_posibles, es_obligatoria, orden_visualizacion, estado " +
+                     "FROM preguntas_registro WHERE estado = 'ACTIVA' ORDER BY orden_visualizacion ASC, id_pregunta_registro ASC";
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) {
+                return null;
+            }
+            ps = con.prepareStatement(sql);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                PreguntaRegistro pr = new PreguntaRegistro();
+                pr.setIdPreguntaRegistro(rs.getInt("id_pregunta_registro"));
+                pr.setTextoPregunta(rs.getString("texto_pregunta"));
+                pr.setTipoRespuesta(rs.getString("tipo_respuesta"));
+                pr.setOpcionesPosibles(rs.getString("opciones_posibles"));
+                pr.setEsObligatoria(rs.getBoolean("es_obligatoria"));
+                pr.setOrdenVisualizacion(rs.getInt("orden_visualizacion"));
+                pr.setEstado(rs.getString("estado"));
+                preguntas.add(pr);
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener preguntas de registro activas: " + e.getMessage());
+            return null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return preguntas;
+    }
+
     public boolean actualizarPreguntaRegistro(PreguntaRegistro pregunta) {
         String sql = "UPDATE preguntas_registro SET texto_pregunta = ?, tipo_respuesta = ?, opciones_posibles = ?, es_obligatoria = ?, orden_visualizacion = ?, estado = ? WHERE id_pregunta_registro = ?";
         Connection con = null;
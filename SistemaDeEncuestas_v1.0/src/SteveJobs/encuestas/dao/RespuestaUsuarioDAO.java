@@ -9,17 +9,29 @@ import SteveJobs.encuestas.conexion.ConexionDB;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RespuestaUsuarioDAO {
 
+    public static final int ENVIO_GUARDADO = 1;
+    public static final int ENVIO_DUPLICADO = 0;
+    // El token ya lo usó un envío de otro usuario o de otra encuesta.
+    public static final int TOKEN_AJENO = -2;
+
+    private static final String SQL_INSERTAR_RESPUESTA = "INSERT INTO respuestas_usuarios (id_encuesta_detalle_pregunta, id_usuario, valor_respuesta, fecha_hora_respuesta, ts_inicio_participacion, ts_fin_participacion, retroalimentacion_usr) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
     public boolean guardarListaRespuestas(List<RespuestaUsuario> listaRespuestas) {
         if (listaRespuestas == null || listaRespuestas.isEmpty()) {
             return true;
         }
-        String sql = "INSERT INTO respuestas_usuarios (id_encuesta_detalle_pregunta, id_usuario, valor_respuesta, fecha_hora_respuesta, ts_inicio_participacion, ts_fin_participacion, retroalimentacion_usr) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = SQL_INSERTAR_RESPUESTA;
         Connection con = null;
         PreparedStatement ps = null;
         boolean exitoTotal = true;
@@ -29,28 +41,16 @@ public class RespuestaUsuarioDAO {
             if (con != null) {
                 con.setAutoCommit(false);
                 ps = con.prepareStatement(sql);
-
-                for (RespuestaUsuario respuesta : listaRespuestas) {
-                    ps.setInt(1, respuesta.getIdEncuestaDetallePregunta());
-                    ps.setInt(2, respuesta.getIdUsuario());
-                    ps.setString(3, respuesta.getValorRespuesta());
-                    ps.setTimestamp(4, respuesta.getFechaHoraRespuesta() != null ? respuesta.getFechaHoraRespuesta() : new Timestamp(System.currentTimeMillis()));
-                    ps.setTimestamp(5, respuesta.getTsInicioParticipacion());
-                    ps.setTimestamp(6, respuesta.getTsFinParticipacion());
-                    ps.setString(7, respuesta.getRetroalimentacionUsuario());
-                    ps.addBatch();
-                }
+                agregarLoteRespuestas(ps, listaRespuestas);
                 int[] resultados = ps.executeBatch();
-                con.commit();
-
-                for (int resultado : resultados) {
-                    if (resultado == PreparedStatement.EXECUTE_FAILED) {
-                        exitoTotal = false;
-                        System.err.println("DAO: Falló una inserción en el lote de respuestas.");
-                        break;
-                    }
+                if (loteCompleto(resultados, listaRespuestas.size())) {
+                    con.commit();
+                    System.out.println("DAO: Lote de respuestas guardado exitosamente.");
+                } else {
+                    con.rollback();
+                    exitoTotal = false;
+                    System.err.println("DAO: Falló una inserción en el lote de respuestas.");
                 }
-                if(exitoTotal) System.out.println("DAO: Lote de respuestas guardado exitosamente.");
 
             } else {
                 exitoTotal = false;
@@ -78,4 +78,272 @@ public class RespuestaUsuarioDAO {
         return exitoTotal;
     }
 
-}
+    // Registra el token de idempotencia y las respuestas en la misma transacción. El token se
+    // inserta primero: si ya existe (PK), el envío es un reintento y se revierte sin tocar
+    // respuestas_usuarios. En la misma transacción se borra el borrador de la participación.
+    // Solo es un reintento si el token existente es del mismo usuario y encuesta.
+    // Devuelve ENVIO_GUARDADO, ENVIO_DUPLICADO, TOKEN_AJENO o -1 si hubo error.
+    public int guardarListaRespuestasConToken(List<RespuestaUsuario> listaRespuestas, String token, int idEncuesta) {
+        String sqlToken = "INSERT INTO tokens_envio (token, id_usuario, id_encuesta) VALUES (?, ?, ?)";
+        String sqlBorrador = "DELETE FROM borradores_respuesta WHERE id_usuario = ? AND id_encuesta = ?";
+        Connection con = null;
+        PreparedStatement psToken = null;
+        PreparedStatement psBorrador = null;
+        PreparedStatement ps = null;
+        int resultado = -1;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            con.setAutoCommit(false);
+
+            psToken = con.prepareStatement(sqlToken);
+            psToken.setString(1, token);
+            psToken.setInt(2, listaRespuestas.get(0).getIdUsuario());
+            psToken.setInt(3, idEncuesta);
+            try {
+                psToken.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException e) {
+                con.rollback();
+                return esTokenDe(con, token, listaRespuestas.get(0).getIdUsuario(), idEncuesta) ? ENVIO_DUPLICADO : TOKEN_AJENO;
+            }
+
+            ps = con.prepareStatement(SQL_INSERTAR_RESPUESTA);
+            agregarLoteRespuestas(ps, listaRespuestas);
+            if (!loteCompleto(ps.executeBatch(), listaRespuestas.size())) {
+                System.err.println("DAO: Falló una inserción en el lote de respuestas con token de envío.");
+                con.rollback();
+                return -1;
+            }
+
+            psBorrador = con.prepareStatement(sqlBorrador);
+            psBorrador.setInt(1, listaRespuestas.get(0).getIdUsuario());
+            psBorrador.setInt(2, idEncuesta);
+            psBorrador.executeUpdate();
+            con.commit();
+            resultado = ENVIO_GUARDADO;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al guardar respuestas con token de envío: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("DAO Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException ex) {
+                }
+            }
+            ConexionDB.cerrar(psToken);
+            ConexionDB.cerrar(psBorrador);
+            ConexionDB.cerrar(null, ps, con);
+        }
+        return resultado;
+    }
+
+    // true solo si el token existe y lo registró ese usuario para esa encuesta.
+    public boolean existeTokenEnvio(String token, int idUsuario, int idEncuesta) {
+        Connection con = null;
+        boolean existe = false;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return false;
+            existe = esTokenDe(con, token, idUsuario, idEncuesta);
+        } catch (SQLException e) {
+            System.err.println("DAO Error al consultar token de envío: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(null, null, con);
+        }
+        return existe;
+    }
+
+    private boolean esTokenDe(Connection con, String token, int idUsuario, int idEncuesta) throws SQLException {
+        String sql = "SELECT 1 FROM tokens_envio WHERE token = ? AND id_usuario = ? AND id_encuesta = ?";
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = con.prepareStatement(sql);
+            ps.setString(1, token);
+            ps.setInt(2, idUsuario);
+            ps.setInt(3, idEncuesta);
+            rs = ps.executeQuery();
+            return rs.next();
+        } finally {
+            ConexionDB.cerrar(rs, ps, null);
+        }
+    }
+
+    // Cada sentencia del lote debe haber insertado su fila (o el driver no informa cuántas).
+    private static boolean loteCompleto(int[] conteos, int esperados) {
+        if (conteos.length != esperados) {
+            return false;
+        }
+        for (int conteo : conteos) {
+            if (conteo != PreparedStatement.SUCCESS_NO_INFO && conteo < 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Los reintentos llegan en minutos; los tokens viejos ya no protegen nada.
+    public int eliminarTokensEnvioAnterioresA(int dias) {
+        String sql = "DELETE FROM tokens_envio WHERE fecha_registro < (NOW() - INTERVAL ? DAY)";
+        Connection con = null;
+        PreparedStatement ps = null;
+        int eliminados = -1;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, dias);
+            eliminados = ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar tokens de envío vencidos: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(null, ps, con);
+        }
+        return eliminados;
+    }
+
+    public int eliminarTokensEnvioDeEncuestaPorLote(int idEncuesta, int tamanoLote) {
+        String sql = "DELETE FROM tokens_envio WHERE id_encuesta = ? LIMIT ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        int eliminados = -1;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idEncuesta);
+            ps.setInt(2, tamanoLote);
+            eliminados = ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar tokens de envío de la encuesta ID " + idEncuesta + ": " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(null, ps, con);
+        }
+        return eliminados;
+    }
+
+    private void agregarLoteRespuestas(PreparedStatement ps, List<RespuestaUsuario> listaRespuestas) throws SQLException {
+        for (RespuestaUsuario respuesta : listaRespuestas) {
+            ps.setInt(1, respuesta.getIdEncuestaDetallePregunta());
+            ps.setInt(2, respuesta.getIdUsuario());
+            ps.setString(3, respuesta.getValorRespuesta());
+            ps.setTimestamp(4, respuesta.getFechaHoraRespuesta() != null ? respuesta.getFechaHoraRespuesta() : new Timestamp(System.currentTimeMillis()));
+            ps.setTimestamp(5, respuesta.getTsInicioParticipacion());
+            ps.setTimestamp(6, respuesta.getTsFinParticipacion());
+            ps.setString(7, respuesta.getRetroalimentacionUsuario());
+            ps.addBatch();
+        }
+    }
+
+    // Borra como máximo tamanoLote respuestas de la encuesta en su propia transacción
+    // (autocommit), para no mantener bloqueos largos sobre respuestas_usuarios.
+    // Devuelve la cantidad de filas borradas, o -1 si hubo error.
+    public int eliminarRespuestasDeEncuestaPorLote(int idEncuesta, int tamanoLote) {
+        String sql = "DELETE FROM respuestas_usuarios WHERE id_encuesta_detalle_pregunta IN " +
+                     "(SELECT id_encuesta_detalle FROM Encuesta_Detalle_Preguntas WHERE id_encuesta = ?) LIMIT ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        int eliminadas = -1;
+        try {
+            con = ConexionDB.conectar();
+            if (con != null) {
+                ps = con.prepareStatement(sql);
+                ps.setInt(1, idEncuesta);
+                ps.setInt(2, tamanoLote);
+                eliminadas = ps.executeUpdate();
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al eliminar lote de respuestas de la encuesta ID " + idEncuesta + ": " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(null, ps, con);
+        }
+        return eliminadas;
+    }
+
+    // Devuelve null si hubo error, para distinguirlo de una encuesta sin participantes.
+    public List<Integer> obtenerIdsParticipantes(int idEncuesta) {
+        String sql = "SELECT DISTINCT ru.id_usuario FROM respuestas_usuarios ru " +
+                     "JOIN Encuesta_Detalle_Preguntas edp ON ru.id_encuesta_detalle_pregunta = edp.id_encuesta_detalle " +
+                     "WHERE edp.id_encuesta = ?";
+        List<Integer> ids = new ArrayList<>();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return null;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idEncuesta);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al obtener participantes de la encuesta ID " + idEncuesta + ": " + e.getMessage());
+            return null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return ids;
+    }
+
+    // Participantes distintos de una encuesta, o -1 si hubo error.
+    public int contarParticipantes(int idEncuesta) {
+        String sql = "SELECT COUNT(DISTINCT ru.id_usuario) FROM respuestas_usuarios ru " +
+                     "JOIN Encuesta_Detalle_Preguntas edp ON ru.id_encuesta_detalle_pregunta = edp.id_encuesta_detalle " +
+                     "WHERE edp.id_encuesta = ?";
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return -1;
+            ps = con.prepareStatement(sql);
+            ps.setInt(1, idEncuesta);
+            rs = ps.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("DAO Error al contar participantes de la encuesta ID " + idEncuesta + ": " + e.getMessage());
+            return -1;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+    }
+
+    // Participantes distintos por encuesta activa, en una sola consulta agrupada.
+    public Map<Integer, Integer> contarParticipantesPorEncuestaActiva() {
+        String sql = "SELECT edp.id_encuesta, COUNT(DISTINCT ru.id_usuario) AS participantes " +
+                     "FROM respuestas_usuarios ru " +
+                     "JOIN Encuesta_Detalle_Preguntas edp ON ru.id_encuesta_detalle_pregunta = edp.id_encuesta_detalle " +
+                     "JOIN Encuestas e ON edp.id_encuesta = e.id_encuesta " +
+                     "WHERE e.estado = 'Activa' AND e.fecha_eliminacion IS NULL " +
+                     "GROUP BY edp.id_encuesta";
+        Map<Integer, Integer> conteos = new HashMap<>();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) return null;
+            ps = con.prepareStatement(sql);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                conteos.put(rs.getInt("id_encuesta"), rs.getInt("participantes"));
+            }
+        } catch (SQLException e) {
+            System.err.println("DAO Error al contar participantes por encuesta: " + e.getMessage());
+            return null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return conteos;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package SteveJobs.encuestas.dao;
 
+import SteveJobs.encuestas.modelo.Pagina;
 import SteveJobs.encuestas.modelo.Usuario;
 import SteveJobs.encuestas.conexion.ConexionDB;
 
@@ -7,7 +8,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp; 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 public class UsuarioDAO {
 
@@ -20,7 +27,7 @@ public class UsuarioDAO {
         try {
             con = ConexionDB.conectar();
             if (con != null) {
-                ps = con.prepareStatement(sql);
+                ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
                 ps.setString(1, usuario.getDocumentoIdentidad());
                 ps.setString(2, usuario.getNombresApellidos());
                 ps.setString(3, usuario.getEmail());
@@ -30,6 +37,11 @@ public class UsuarioDAO {
                 int filasAfectadas = ps.executeUpdate();
                 if (filasAfectadas > 0) {
                     registrado = true;
+                    try (ResultSet claves = ps.getGeneratedKeys()) {
+                        if (claves.next()) {
+                            usuario.setIdUsuario(claves.getInt(1));
+                        }
+                    }
                     System.out.println("Usuario registrado exitosamente.");
                 } else {
                     System.out.println("No se pudo registrar el usuario.");
@@ -45,40 +57,35 @@ public class UsuarioDAO {
         return registrado;
     }
 
-    public Usuario validarUsuario(String email, String password) {
+    // Trae el usuario con el hash de su contraseña para que el servicio lo verifique; la
+    // contraseña ya no se compara en el WHERE.
+    public Usuario obtenerCredencialesPorEmail(String email) {
         Connection con = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
         Usuario usuario = null;
-        String sql = "SELECT id_usuario, documento_identidad, nombres_apellidos, email, password, tipo_nivel, fecha_registro_sistema, estado_cuenta FROM usuarios WHERE email = ? AND password = ?";
+        String sql = "SELECT id_usuario, documento_identidad, nombres_apellidos, email, password, tipo_nivel, fecha_registro_sistema, estado_cuenta FROM usuarios WHERE email = ?";
 
         try {
             con = ConexionDB.conectar();
             if (con != null) {
                 ps = con.prepareStatement(sql);
                 ps.setString(1, email);
-                ps.setString(2, password);
 
                 rs = ps.executeQuery();
 
                 if (rs.next()) {
-                    String estadoCuenta = rs.getString("estado_cuenta");
-                    if ("Activo".equalsIgnoreCase(estadoCuenta)) {
-                        usuario = new Usuario();
-                        usuario.setIdUsuario(rs.getInt("id_usuario"));
-                        usuario.setDocumentoIdentidad(rs.getString("documento_identidad"));
-                        usuario.setNombresApellidos(rs.getString("nombres_apellidos"));
-                        usuario.setEmail(rs.getString("email"));
-
-                        usuario.setTipoNivel(rs.getString("tipo_nivel"));
-                        usuario.setFechaRegistroSistema(rs.getTimestamp("fecha_registro_sistema"));
-                        usuario.setEstadoCuenta(estadoCuenta);
-                        System.out.println("Usuario validado exitosamente: " + usuario.getEmail());
-                    } else {
-                        System.out.println("Intento de login para usuario inactivo: " + email);
-                    }
+                    usuario = new Usuario();
+                    usuario.setIdUsuario(rs.getInt("id_usuario"));
+                    usuario.setDocumentoIdentidad(rs.getString("documento_identidad"));
+                    usuario.setNombresApellidos(rs.getString("nombres_apellidos"));
+                    usuario.setEmail(rs.getString("email"));
+                    usuario.setPassword(rs.getString("password"));
+                    usuario.setTipoNivel(rs.getString("tipo_nivel"));
+                    usuario.setFechaRegistroSistema(rs.getTimestamp("fecha_registro_sistema"));
+                    usuario.setEstadoCuenta(rs.getString("estado_cuenta"));
                 } else {
-                    System.out.println("Credenciales incorrectas o usuario no encontrado para: " + email);
+                    System.out.println("Usuario no encontrado para: " + email);
                 }
             } else {
                 System.err.println("No se pudo establecer la conexión con la base de datos para validación.");
@@ -91,6 +98,31 @@ public class UsuarioDAO {
         return usuario;
     }
 
+    // Reemplaza el valor guardado solo si sigue siendo el que se verificó, para no pisar un
+    // cambio de contraseña hecho entre la verificación y la migración.
+    public boolean actualizarPassword(int idUsuario, String passwordAnterior, String passwordNuevo) {
+        Connection con = null;
+        PreparedStatement ps = null;
+        String sql = "UPDATE usuarios SET password = ? WHERE id_usuario = ? AND password = ?";
+        boolean actualizado = false;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con != null) {
+                ps = con.prepareStatement(sql);
+                ps.setString(1, passwordNuevo);
+                ps.setInt(2, idUsuario);
+                ps.setString(3, passwordAnterior);
+                actualizado = ps.executeUpdate() > 0;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al actualizar contraseña: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(null, ps, con);
+        }
+        return actualizado;
+    }
+
     public Usuario obtenerUsuarioPorEmail(String email) {
         System.out.println("Método obtenerUsuarioPorEmail no implementado aún.");
         Connection con = null;
@@ -125,23 +157,63 @@ public class UsuarioDAO {
         return usuario;
     }
     
-    public boolean actualizarPerfilUsuario(Usuario usuario) {
+    // Sin la contraseña. null si no existe o hubo error.
+    public Usuario obtenerUsuarioPorId(int idUsuario) {
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Usuario usuario = null;
+        String sql = "SELECT id_usuario, documento_identidad, nombres_apellidos, email, tipo_nivel, fecha_registro_sistema, estado_cuenta FROM usuarios WHERE id_usuario = ?";
+
+        try {
+            con = ConexionDB.conectar();
+            if (con != null) {
+                ps = con.prepareStatement(sql);
+                ps.setInt(1, idUsuario);
+                rs = ps.executeQuery();
+
+                if (rs.next()) {
+                    usuario = new Usuario();
+                    usuario.setIdUsuario(rs.getInt("id_usuario"));
+                    usuario.setDocumentoIdentidad(rs.getString("documento_identidad"));
+                    usuario.setNombresApellidos(rs.getString("nombres_apellidos"));
+                    usuario.setEmail(rs.getString("email"));
+                    usuario.setTipoNivel(rs.getString("tipo_nivel"));
+                    usuario.setFechaRegistroSistema(rs.getTimestamp("fecha_registro_sistema"));
+                    usuario.setEstadoCuenta(rs.getString("estado_cuenta"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener usuario por ID: " + e.getMessage());
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return usuario;
+    }
+
+    // nuevoHashPassword null deja la contraseña guardada como está.
+    public boolean actualizarPerfilUsuario(Usuario usuario, String nuevoHashPassword) {
         System.out.println("Método actualizarPerfilUsuario no implementado aún.");
         Connection con = null;
         PreparedStatement ps = null;
-        String sql = "UPDATE usuarios SET documento_identidad = ?, nombres_apellidos = ?, email = ?, password = ?, tipo_nivel = ? WHERE id_usuario = ?";
+        String sql = nuevoHashPassword != null
+                ? "UPDATE usuarios SET documento_identidad = ?, nombres_apellidos = ?, email = ?, tipo_nivel = ?, password = ? WHERE id_usuario = ?"
+                : "UPDATE usuarios SET documento_identidad = ?, nombres_apellidos = ?, email = ?, tipo_nivel = ? WHERE id_usuario = ?";
         boolean actualizado = false;
 
         try {
             con = ConexionDB.conectar();
             if (con != null) {
                 ps = con.prepareStatement(sql);
-                ps.setString(1, usuario.getDocumentoIdentidad());
-                ps.setString(2, usuario.getNombresApellidos());
-                ps.setString(3, usuario.getEmail());
-                ps.setString(4, usuario.getPassword());
-                ps.setString(5, usuario.getTipoNivel());
-                ps.setInt(6, usuario.getIdUsuario());
+                int i = 1;
+                ps.setString(i++, usuario.getDocumentoIdentidad());
+                ps.setString(i++, usuario.getNombresApellidos());
+                ps.setString(i++, usuario.getEmail());
+                ps.setString(i++, usuario.getTipoNivel());
+                if (nuevoHashPassword != null) {
+                    ps.setString(i++, nuevoHashPassword);
+                }
+                ps.setInt(i, usuario.getIdUsuario());
 
                 int filasAfectadas = ps.executeUpdate();
                 if (filasAfectadas > 0) {
@@ -182,4 +254,246 @@ public class UsuarioDAO {
         }
         return actualizado;
     }
+
+    // Emails (en minúsculas) de la lista que ya existen en usuarios, con una sola consulta IN.
+    // Devuelve null si hubo error.
+    public Set<String> obtenerEmailsExistentes(List<String> emails) {
+        Set<String> existentes = new HashSet<>();
+        if (emails == null || emails.isEmpty()) {
+            return existentes;
+        }
+        StringBuilder sql = new StringBuilder("SELECT email FROM usuarios WHERE email IN (");
+        for (int i = 0; i < emails.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) {
+                System.err.println("No se pudo establecer la conexión con la base de datos.");
+                return null;
+            }
+            ps = con.prepareStatement(sql.toString());
+            for (int i = 0; i < emails.size(); i++) {
+                ps.setString(i + 1, emails.get(i));
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                existentes.add(rs.getString("email").toLowerCase(Locale.ROOT));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al buscar emails existentes: " + e.getMessage());
+            existentes = null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return existentes;
+    }
+
+    // Inserta todos los usuarios con un único INSERT de varias filas dentro de una transacción:
+    // o entran todos o ninguno. Devuelve la cantidad insertada o -1 si hubo error.
+    public int registrarUsuariosEnLote(List<Usuario> usuarios) {
+        if (usuarios == null || usuarios.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO usuarios (documento_identidad, nombres_apellidos, email, password, tipo_nivel) VALUES ");
+        for (int i = 0; i < usuarios.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+        }
+        Connection con = null;
+        PreparedStatement ps = null;
+        int insertados = -1;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) {
+                System.err.println("No se pudo establecer la conexión con la base de datos.");
+                return -1;
+            }
+            con.setAutoCommit(false);
+            ps = con.prepareStatement(sql.toString());
+            int indice = 1;
+            for (Usuario usuario : usuarios) {
+                ps.setString(indice++, usuario.getDocumentoIdentidad());
+                ps.setString(indice++, usuario.getNombresApellidos());
+                ps.setString(indice++, usuario.getEmail());
+                ps.setString(indice++, usuario.getPassword());
+                ps.setString(indice++, usuario.getTipoNivel());
+            }
+            insertados = ps.executeUpdate();
+            con.commit();
+        } catch (SQLException e) {
+            System.err.println("Error al registrar usuarios en lote: " + e.getMessage());
+            insertados = -1;
+            if (con != null) {
+                try {
+                    con.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Error al restaurar autocommit: " + e.getMessage());
+                }
+            }
+            ConexionDB.cerrar(null, ps, con);
+        }
+        return insertados;
+    }
+
+    // Inserta los usuarios de a uno (cada fila se confirma por separado) para poder informar
+    // cuáles fallan. La lista devuelta tiene, en el mismo orden, null para cada fila guardada o
+    // el mensaje del error; es null si no hubo conexión.
+    public List<String> registrarUsuariosUnoAUno(List<Usuario> usuarios) {
+        String sql = "INSERT INTO usuarios (documento_identidad, nombres_apellidos, email, password, tipo_nivel) VALUES (?, ?, ?, ?, ?)";
+        Connection con = null;
+        PreparedStatement ps = null;
+        List<String> errores = new ArrayList<>(usuarios.size());
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) {
+                System.err.println("No se pudo establecer la conexión con la base de datos.");
+                return null;
+            }
+            ps = con.prepareStatement(sql);
+            for (Usuario usuario : usuarios) {
+                ps.setString(1, usuario.getDocumentoIdentidad());
+                ps.setString(2, usuario.getNombresApellidos());
+                ps.setString(3, usuario.getEmail());
+                ps.setString(4, usuario.getPassword());
+                ps.setString(5, usuario.getTipoNivel());
+                try {
+                    ps.executeUpdate();
+                    errores.add(null);
+                } catch (SQLException e) {
+                    errores.add(e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al registrar usuarios uno a uno: " + e.getMessage());
+            while (errores.size() < usuarios.size()) {
+                errores.add(e.getMessage());
+            }
+        } finally {
+            ConexionDB.cerrar(null, ps, con);
+        }
+        return errores;
+    }
+
+    // Página de usuarios ordenados por id_usuario, paginada por clave: el cursor es el último id
+    // de la página anterior y la consulta sigue por la clave primaria, así el costo no crece
+    // con la tabla. estado y texto (contenido en el email o en los nombres) son opcionales.
+    // Devuelve null si hubo error o el cursor no es válido.
+    public Pagina<Usuario> obtenerPaginaUsuarios(String cursor, int tamano, String estado, String texto) {
+        int idCursor = 0;
+        if (cursor != null) {
+            try {
+                idCursor = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                System.err.println("Error: cursor de usuarios no válido: " + cursor);
+                return null;
+            }
+        }
+        StringBuilder sql = new StringBuilder("SELECT id_usuario, documento_identidad, nombres_apellidos, email, tipo_nivel, fecha_registro_sistema, estado_cuenta FROM usuarios WHERE id_usuario > ?");
+        if (estado != null) {
+            sql.append(" AND estado_cuenta = ?");
+        }
+        if (texto != null) {
+            sql.append(" AND (email LIKE ? OR nombres_apellidos LIKE ?)");
+        }
+        sql.append(" ORDER BY id_usuario ASC LIMIT ?");
+
+        List<Usuario> lista = new ArrayList<>();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) {
+                System.err.println("No se pudo establecer la conexión con la base de datos.");
+                return null;
+            }
+            ps = con.prepareStatement(sql.toString());
+            int indice = 1;
+            ps.setInt(indice++, idCursor);
+            if (estado != null) {
+                ps.setString(indice++, estado);
+            }
+            if (texto != null) {
+                String patron = patronContiene(texto);
+                ps.setString(indice++, patron);
+                ps.setString(indice++, patron);
+            }
+            // Una fila de más indica si hay página siguiente.
+            ps.setInt(indice, tamano + 1);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Usuario usuario = new Usuario();
+                usuario.setIdUsuario(rs.getInt("id_usuario"));
+                usuario.setDocumentoIdentidad(rs.getString("documento_identidad"));
+                usuario.setNombresApellidos(rs.getString("nombres_apellidos"));
+                usuario.setEmail(rs.getString("email"));
+                usuario.setTipoNivel(rs.getString("tipo_nivel"));
+                usuario.setFechaRegistroSistema(rs.getTimestamp("fecha_registro_sistema"));
+                usuario.setEstadoCuenta(rs.getString("estado_cuenta"));
+                lista.add(usuario);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener página de usuarios: " + e.getMessage());
+            return null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+
+        String cursorSiguiente = null;
+        if (lista.size() > tamano) {
+            lista.remove(tamano);
+            cursorSiguiente = String.valueOf(lista.get(tamano - 1).getIdUsuario());
+        }
+        return new Pagina<>(lista, cursorSiguiente);
+    }
+
+    // Patrón LIKE que busca el texto tal cual, escapando sus comodines.
+    private static String patronContiene(String texto) {
+        return "%" + texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    // Todos los emails registrados; null si hubo error.
+    public List<String> obtenerTodosLosEmails() {
+        String sql = "SELECT email FROM usuarios";
+        List<String> emails = new ArrayList<>();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            con = ConexionDB.conectar();
+            if (con == null) {
+                System.err.println("No se pudo establecer la conexión con la base de datos.");
+                return null;
+            }
+            ps = con.prepareStatement(sql);
+            ps.setFetchSize(10000);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                emails.add(rs.getString("email"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar emails de usuarios: " + e.getMessage());
+            emails = null;
+        } finally {
+            ConexionDB.cerrar(rs, ps, con);
+        }
+        return emails;
+    }
 }
\ No newline at end of file
@@ -5,6 +5,11 @@ Autor: José Flores
 package SteveJobs.encuestas.main;
 
 import SteveJobs.encuestas.modelo.Usuario;
+import SteveJobs.encuestas.servicio.AlmacenBorradores;
+import SteveJobs.encuestas.servicio.ContadorCuotasEncuestas;
+import SteveJobs.encuestas.servicio.PurgadorEncuestas;
+import SteveJobs.encuestas.servicio.RegistroEmails;
+import SteveJobs.encuestas.servicio.ServicioSesiones;
 import SteveJobs.encuestas.ui.UIAutenticacion;
 import SteveJobs.encuestas.ui.UIMenuAdministrador;
 import SteveJobs.encuestas.ui.UIMenuEncuestado;
@@ -14,9 +19,15 @@ import javax.swing.JOptionPane;
 public class SistemaEncuestasApp {
 
     public static void main(String[] args) {
-
+        PurgadorEncuestas.iniciar();
+        ContadorCuotasEncuestas.iniciar();
+        AlmacenBorradores.iniciar();
+        RegistroEmails.iniciar();
 
         mostrarMenuPrincipal();
+        AlmacenBorradores.detener();
+        ContadorCuotasEncuestas.detener();
+        PurgadorEncuestas.detener();
     }
 
     public static void mostrarMenuPrincipal() {
@@ -38,6 +49,7 @@ public class SistemaEncuestasApp {
                 case 0:
                     Usuario usuarioAutenticado = UIAutenticacion.mostrarLogin();
                     if (usuarioAutenticado != null) {
+                        String tokenSesion = ServicioSesiones.emitirToken(usuarioAutenticado);
                         if ("Administrador".equalsIgnoreCase(usuarioAutenticado.getTipoNivel())) {
                             UIMenuAdministrador.mostrarMenu(usuarioAutenticado);
                         } else if ("Encuestado".equalsIgnoreCase(usuarioAutenticado.getTipoNivel())) { 
@@ -45,6 +57,7 @@ public class SistemaEncuestasApp {
                         } else {
                              JOptionPane.showMessageDialog(null, "Tipo de usuario desconocido: " + usuarioAutenticado.getTipoNivel());
                         }
+                        ServicioSesiones.cerrarSesion(tokenSesion);
                     }
                     break;
                 case 1:
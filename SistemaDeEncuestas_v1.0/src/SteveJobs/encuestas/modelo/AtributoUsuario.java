@@ -0,0 +1,89 @@
+package SteveJobs.encuestas.modelo;
+
+import java.sql.Date;
+import java.util.Locale;
+
+// Respuesta de un usuario a una pregunta de registro, guardada en la columna que corresponde
+// al tipo de la pregunta: NUMERO en valorNumero, FECHA en valorFecha y el resto en valorTexto.
+public class AtributoUsuario {
+
+    public enum TipoAtributo {
+        TEXTO, NUMERO, FECHA;
+
+        public static TipoAtributo desdeTipoRespuesta(String tipoRespuesta) {
+            String nombre = tipoRespuesta == null ? "" : tipoRespuesta.trim().toUpperCase(Locale.ROOT);
+            if (nombre.equals("NUMERO")) {
+                return NUMERO;
+            }
+            if (nombre.equals("FECHA")) {
+                return FECHA;
+            }
+            return TEXTO;
+        }
+    }
+
+    private int idUsuario;
+    private int idPreguntaRegistro;
+    private String valorTexto;
+    private Double valorNumero;
+    private Date valorFecha;
+
+    public AtributoUsuario() {
+    }
+
+    public AtributoUsuario(int idUsuario, int idPreguntaRegistro) {
+        this.idUsuario = idUsuario;
+        this.idPreguntaRegistro = idPreguntaRegistro;
+    }
+
+    public int getIdUsuario() {
+        return idUsuario;
+    }
+
+    public void setIdUsuario(int idUsuario) {
+        this.idUsuario = idUsuario;
+    }
+
+    public int getIdPreguntaRegistro() {
+        return idPreguntaRegistro;
+    }
+
+    public void setIdPreguntaRegistro(int idPreguntaRegistro) {
+        this.idPreguntaRegistro = idPreguntaRegistro;
+    }
+
+    public String getValorTexto() {
+        return valorTexto;
+    }
+
+    public void setValorTexto(String valorTexto) {
+        this.valorTexto = valorTexto;
+    }
+
+    public Double getValorNumero() {
+        return valorNumero;
+    }
+
+    public void setValorNumero(Double valorNumero) {
+        this.valorNumero = valorNumero;
+    }
+
+    public Date getValorFecha() {
+        return valorFecha;
+    }
+
+    public void setValorFecha(Date valorFecha) {
+        this.valorFecha = valorFecha;
+    }
+
+    @Override
+    public String toString() {
+        return "AtributoUsuario{" +
+               "idUsuario=" + idUsuario +
+               ", idPreguntaRegistro=" + idPreguntaRegistro +
+               ", valorTexto='" + valorTexto + '\'' +
+               ", valorNumero=" + valorNumero +
+               ", valorFecha=" + valorFecha +
+               '}';
+    }
+}
\ No newline at end of file
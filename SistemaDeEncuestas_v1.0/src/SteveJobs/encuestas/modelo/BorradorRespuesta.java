@@ -0,0 +1,52 @@
+package SteveJobs.encuestas.modelo;
+
+// Respuesta todavía no enviada de una participación en curso.
+public class BorradorRespuesta {
+
+    private int idUsuario;
+    private int idEncuesta;
+    private int idEncuestaDetallePregunta;
+    private String valorRespuesta;
+
+    public BorradorRespuesta() {
+    }
+
+    public BorradorRespuesta(int idUsuario, int idEncuesta, int idEncuestaDetallePregunta, String valorRespuesta) {
+        this.idUsuario = idUsuario;
+        this.idEncuesta = idEncuesta;
+        this.idEncuestaDetallePregunta = idEncuestaDetallePregunta;
+        this.valorRespuesta = valorRespuesta;
+    }
+
+    public int getIdUsuario() {
+        return idUsuario;
+    }
+
+    public void setIdUsuario(int idUsuario) {
+        this.idUsuario = idUsuario;
+    }
+
+    public int getIdEncuesta() {
+        return idEncuesta;
+    }
+
+    public void setIdEncuesta(int idEncuesta) {
+        this.idEncuesta = idEncuesta;
+    }
+
+    public int getIdEncuestaDetallePregunta() {
+        return idEncuestaDetallePregunta;
+    }
+
+    public void setIdEncuestaDetallePregunta(int idEncuestaDetallePregunta) {
+        this.idEncuestaDetallePregunta = idEncuestaDetallePregunta;
+    }
+
+    public String getValorRespuesta() {
+        return valorRespuesta;
+    }
+
+    public void setValorRespuesta(String valorRespuesta) {
+        this.valorRespuesta = valorRespuesta;
+    }
+}
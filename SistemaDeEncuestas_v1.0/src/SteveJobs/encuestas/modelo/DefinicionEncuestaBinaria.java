@@ -0,0 +1,48 @@
+package SteveJobs.encuestas.modelo;
+
+// Definición publicada ya codificada para enviarla al cliente del encuestado, junto con su
+// etiqueta de contenido (hash). Si el cliente ya tiene esa etiqueta, se responde sinCambios
+// y sin contenido.
+public final class DefinicionEncuestaBinaria {
+
+    private final int idEncuesta;
+    private final int version;
+    private final String etag;
+    private final byte[] contenido;
+
+    public DefinicionEncuestaBinaria(int idEncuesta, int version, String etag, byte[] contenido) {
+        this.idEncuesta = idEncuesta;
+        this.version = version;
+        this.etag = etag;
+        this.contenido = contenido;
+    }
+
+    public static DefinicionEncuestaBinaria sinCambios(int idEncuesta, int version, String etag) {
+        return new DefinicionEncuestaBinaria(idEncuesta, version, etag, null);
+    }
+
+    public int getIdEncuesta() {
+        return idEncuesta;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public boolean isSinCambios() {
+        return contenido == null;
+    }
+
+    // Copia defensiva: la instancia en caché se comparte entre todos los encuestados.
+    public byte[] getContenido() {
+        return contenido != null ? contenido.clone() : null;
+    }
+
+    public int getTamanoBytes() {
+        return contenido != null ? contenido.length : 0;
+    }
+}
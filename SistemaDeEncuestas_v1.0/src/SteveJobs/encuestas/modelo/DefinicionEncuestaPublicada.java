@@ -0,0 +1,232 @@
+package SteveJobs.encuestas.modelo;
+
+import SteveJobs.encuestas.util.CriterioDescarte;
+import SteveJobs.encuestas.util.ValidadorRespuesta;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Copia inmutable de una encuesta publicada, tal como la ven los encuestados: encabezado,
+// preguntas en orden con su texto, tipo y clasificación ya resueltos, y las reglas de descarte.
+// Se arma una vez al activar la encuesta y la comparten todos los que la responden; los
+// cambios posteriores del administrador no la afectan hasta que se vuelva a publicar.
+public final class DefinicionEncuestaPublicada {
+
+    public static final class PreguntaPublicada {
+        private final int idEncuestaDetalle;
+        private final int orden;
+        private final Integer idPreguntaBanco;
+        private final String texto;
+        private final Integer idTipoPregunta;
+        private final String nombreTipoPregunta;
+        private final Integer idClasificacion;
+        private final String nombreClasificacion;
+        private final boolean esPreguntaDescarte;
+        private final String criterioDescarteValor;
+        private final CriterioDescarte criterioDescarte;
+        private final ValidadorRespuesta validador;
+
+        public PreguntaPublicada(EncuestaDetallePregunta detalle) {
+            this.idEncuestaDetalle = detalle.getIdEncuestaDetalle();
+            this.orden = detalle.getOrdenEnEncuesta();
+            this.idPreguntaBanco = detalle.getIdPreguntaBanco();
+            PreguntaBanco delBanco = detalle.getPreguntaDelBanco();
+            if (delBanco != null) {
+                this.texto = delBanco.getTextoPregunta();
+                this.idTipoPregunta = delBanco.getIdTipoPregunta();
+                this.nombreTipoPregunta = delBanco.getNombreTipoPregunta();
+                this.idClasificacion = delBanco.getIdClasificacion();
+                this.nombreClasificacion = delBanco.getNombreClasificacion();
+            } else {
+                this.texto = detalle.getTextoPreguntaUnica();
+                this.idTipoPregunta = detalle.getIdTipoPreguntaUnica();
+                this.nombreTipoPregunta = detalle.getNombreTipoPreguntaUnica();
+                this.idClasificacion = detalle.getIdClasificacionUnica();
+                this.nombreClasificacion = detalle.getNombreClasificacionUnica();
+            }
+            this.esPreguntaDescarte = detalle.isEsPreguntaDescarte();
+            this.criterioDescarteValor = detalle.getCriterioDescarteValor();
+            this.criterioDescarte = esPreguntaDescarte ? CriterioDescarte.compilar(criterioDescarteValor) : CriterioDescarte.NUNCA;
+            // Las preguntas de encuesta no tienen opciones guardadas; todas son obligatorias.
+            this.validador = ValidadorRespuesta.compilar(nombreTipoPregunta, null, true);
+        }
+
+        public int getIdEncuestaDetalle() {
+            return idEncuestaDetalle;
+        }
+
+        public int getOrden() {
+            return orden;
+        }
+
+        public Integer getIdPreguntaBanco() {
+            return idPreguntaBanco;
+        }
+
+        public String getTexto() {
+            return texto;
+        }
+
+        public Integer getIdTipoPregunta() {
+            return idTipoPregunta;
+        }
+
+        public String getNombreTipoPregunta() {
+            return nombreTipoPregunta;
+        }
+
+        public Integer getIdClasificacion() {
+            return idClasificacion;
+        }
+
+        public String getNombreClasificacion() {
+            return nombreClasificacion;
+        }
+
+        public boolean isEsPreguntaDescarte() {
+            return esPreguntaDescarte;
+        }
+
+        public String getCriterioDescarteValor() {
+            return criterioDescarteValor;
+        }
+
+        public boolean descarta(String respuesta) {
+            return criterioDescarte.descarta(respuesta);
+        }
+
+        public boolean esRespuestaValida(String respuesta) {
+            return validador.validar(respuesta);
+        }
+    }
+
+    private final int idEncuesta;
+    private final int version;
+    private final String nombreEncuesta;
+    private final String descripcion;
+    private final long fechaInicioVigencia;
+    private final long fechaFinVigencia;
+    private final String definicionPerfil;
+    private final int publicoObjetivoCantidad;
+    private final long fechaPublicacion;
+    private final List<PreguntaPublicada> preguntas;
+    // ID de detalle ordenados y sus preguntas en la misma posición, para buscar sin crear objetos.
+    private final int[] idsDetalleOrdenados;
+    private final PreguntaPublicada[] preguntasPorIdDetalle;
+
+    public DefinicionEncuestaPublicada(Encuesta encuesta, List<EncuestaDetallePregunta> detalles) {
+        this.idEncuesta = encuesta.getIdEncuesta();
+        this.version = encuesta.getVersion();
+        this.nombreEncuesta = encuesta.getNombreEncuesta();
+        this.descripcion = encuesta.getDescripcion();
+        this.fechaInicioVigencia = encuesta.getFechaInicioVigencia() != null ? encuesta.getFechaInicioVigencia().getTime() : 0L;
+        this.fechaFinVigencia = encuesta.getFechaFinVigencia() != null ? encuesta.getFechaFinVigencia().getTime() : 0L;
+        this.definicionPerfil = encuesta.getDefinicionPerfil();
+        this.publicoObjetivoCantidad = encuesta.getPublicoObjetivoCantidad();
+        this.fechaPublicacion = System.currentTimeMillis();
+        List<PreguntaPublicada> copia = new ArrayList<>();
+        for (EncuestaDetallePregunta detalle : detalles) {
+            copia.add(new PreguntaPublicada(detalle));
+        }
+        copia.sort((a, b) -> Integer.compare(a.getOrden(), b.getOrden()));
+        this.preguntas = Collections.unmodifiableList(copia);
+        PreguntaPublicada[] porId = copia.toArray(new PreguntaPublicada[0]);
+        Arrays.sort(porId, (a, b) -> Integer.compare(a.getIdEncuestaDetalle(), b.getIdEncuestaDetalle()));
+        this.preguntasPorIdDetalle = porId;
+        this.idsDetalleOrdenados = new int[porId.length];
+        for (int i = 0; i < porId.length; i++) {
+            idsDetalleOrdenados[i] = porId[i].getIdEncuestaDetalle();
+        }
+    }
+
+    public int getIdEncuesta() {
+        return idEncuesta;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getNombreEncuesta() {
+        return nombreEncuesta;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    // Timestamp es mutable, así que se entrega una instancia nueva en cada llamada.
+    public Timestamp getFechaInicioVigencia() {
+        return fechaInicioVigencia != 0L ? new Timestamp(fechaInicioVigencia) : null;
+    }
+
+    public Timestamp getFechaFinVigencia() {
+        return fechaFinVigencia != 0L ? new Timestamp(fechaFinVigencia) : null;
+    }
+
+    public String getDefinicionPerfil() {
+        return definicionPerfil;
+    }
+
+    public int getPublicoObjetivoCantidad() {
+        return publicoObjetivoCantidad;
+    }
+
+    public Timestamp getFechaPublicacion() {
+        return new Timestamp(fechaPublicacion);
+    }
+
+    public List<PreguntaPublicada> getPreguntas() {
+        return preguntas;
+    }
+
+    public PreguntaPublicada obtenerPregunta(int idEncuestaDetalle) {
+        int posicion = Arrays.binarySearch(idsDetalleOrdenados, idEncuestaDetalle);
+        return posicion >= 0 ? preguntasPorIdDetalle[posicion] : null;
+    }
+
+    // Revisa que cada respuesta sea de una pregunta de esta encuesta, que ninguna pregunta se
+    // responda dos veces y que el valor sea válido para su tipo. Devuelve la posición de la
+    // primera respuesta inválida o -1 si todas son válidas. No revisa que estén todas.
+    public int buscarRespuestaInvalida(List<RespuestaUsuario> respuestas) {
+        long vistas = 0L;
+        boolean[] vistasExtra = idsDetalleOrdenados.length > 64 ? new boolean[idsDetalleOrdenados.length] : null;
+        for (int i = 0; i < respuestas.size(); i++) {
+            RespuestaUsuario respuesta = respuestas.get(i);
+            int posicion = Arrays.binarySearch(idsDetalleOrdenados, respuesta.getIdEncuestaDetallePregunta());
+            if (posicion < 0) {
+                return i;
+            }
+            if (vistasExtra != null) {
+                if (vistasExtra[posicion]) return i;
+                vistasExtra[posicion] = true;
+            } else {
+                long bit = 1L << posicion;
+                if ((vistas & bit) != 0) return i;
+                vistas |= bit;
+            }
+            if (!preguntasPorIdDetalle[posicion].esRespuestaValida(respuesta.getValorRespuesta())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean estaVigente(long ahora) {
+        return (fechaInicioVigencia == 0L || ahora >= fechaInicioVigencia)
+                && (fechaFinVigencia == 0L || ahora <= fechaFinVigencia);
+    }
+
+    @Override
+    public String toString() {
+        return "DefinicionEncuestaPublicada{" +
+               "idEncuesta=" + idEncuesta +
+               ", version=" + version +
+               ", nombreEncuesta='" + nombreEncuesta + '\'' +
+               ", preguntas=" + preguntas.size() +
+               '}';
+    }
+}
@@ -19,6 +19,7 @@ public class Encuesta {
     private String estado;
     private Timestamp fechaCreacionEncuesta;
     private int idAdminCreador;
+    private int version;
     private List<EncuestaDetallePregunta> preguntasAsociadas;
 
     public Encuesta() {
@@ -117,6 +118,14 @@ public class Encuesta {
         this.idAdminCreador = idAdminCreador;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public List<EncuestaDetallePregunta> getPreguntasAsociadas() {
         return preguntasAsociadas;
     }
@@ -138,7 +147,8 @@ public class Encuesta {
                 ", estado='" + estado + '\'' +
                 ", fechaCreacionEncuesta=" + fechaCreacionEncuesta +
                 ", idAdminCreador=" + idAdminCreador +
+                ", version=" + version +
                 ", preguntasAsociadas=" + (preguntasAsociadas != null ? preguntasAsociadas.size() : "0") + " preguntas" +
                 '}';
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -14,6 +14,8 @@ public class EncuestaDetallePregunta {
     private boolean esPreguntaDescarte;
     private String criterioDescarteValor;
     private PreguntaBanco preguntaDelBanco;
+    private String nombreTipoPreguntaUnica;
+    private String nombreClasificacionUnica;
 
 
     public EncuestaDetallePregunta() {
@@ -118,6 +120,22 @@ public class EncuestaDetallePregunta {
         this.preguntaDelBanco = preguntaDelBanco;
     }
 
+    public String getNombreTipoPreguntaUnica() {
+        return nombreTipoPreguntaUnica;
+    }
+
+    public void setNombreTipoPreguntaUnica(String nombreTipoPreguntaUnica) {
+        this.nombreTipoPreguntaUnica = nombreTipoPreguntaUnica;
+    }
+
+    public String getNombreClasificacionUnica() {
+        return nombreClasificacionUnica;
+    }
+
+    public void setNombreClasificacionUnica(String nombreClasificacionUnica) {
+        this.nombreClasificacionUnica = nombreClasificacionUnica;
+    }
+
     public String getTextoPreguntaMostrable() {
         if (preguntaDelBanco != null) {
             return preguntaDelBanco.getTextoPregunta();
@@ -0,0 +1,94 @@
+package SteveJobs.encuestas.modelo;
+
+import SteveJobs.encuestas.util.ValidadorRespuesta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Formulario de registro ya armado: las preguntas activas en orden de visualización, con sus
+// opciones separadas y su validador compilado. Es inmutable; cuando un administrador cambia
+// las preguntas se arma uno nuevo en lugar de modificar este.
+public final class FormularioRegistro {
+
+    public static final class CampoRegistro {
+        private final int idPreguntaRegistro;
+        private final String textoPregunta;
+        private final String tipoRespuesta;
+        private final boolean obligatoria;
+        private final List<String> opciones;
+        private final ValidadorRespuesta validador;
+
+        public CampoRegistro(PreguntaRegistro pregunta) {
+            this.idPreguntaRegistro = pregunta.getIdPreguntaRegistro();
+            this.textoPregunta = pregunta.getTextoPregunta();
+            this.tipoRespuesta = pregunta.getTipoRespuesta();
+            this.obligatoria = pregunta.isEsObligatoria();
+            List<String> separadas = new ArrayList<>();
+            if (pregunta.getOpcionesPosibles() != null) {
+                for (String opcion : pregunta.getOpcionesPosibles().split(";")) {
+                    if (!opcion.trim().isEmpty()) {
+                        separadas.add(opcion.trim());
+                    }
+                }
+            }
+            this.opciones = Collections.unmodifiableList(separadas);
+            this.validador = ValidadorRespuesta.compilar(tipoRespuesta, pregunta.getOpcionesPosibles(), obligatoria);
+        }
+
+        public int getIdPreguntaRegistro() {
+            return idPreguntaRegistro;
+        }
+
+        public String getTextoPregunta() {
+            return textoPregunta;
+        }
+
+        public String getTipoRespuesta() {
+            return tipoRespuesta;
+        }
+
+        public boolean isObligatoria() {
+            return obligatoria;
+        }
+
+        public List<String> getOpciones() {
+            return opciones;
+        }
+
+        public String[] getOpcionesComoArreglo() {
+            return opciones.toArray(new String[0]);
+        }
+
+        public boolean esValida(String valor) {
+            return validador.validar(valor);
+        }
+    }
+
+    private final List<CampoRegistro> campos;
+
+    public FormularioRegistro(List<PreguntaRegistro> preguntasActivas) {
+        CampoRegistro[] arreglo = new CampoRegistro[preguntasActivas.size()];
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = new CampoRegistro(preguntasActivas.get(i));
+        }
+        this.campos = Collections.unmodifiableList(Arrays.asList(arreglo));
+    }
+
+    public List<CampoRegistro> getCampos() {
+        return campos;
+    }
+
+    // Primer campo cuya respuesta (id_pregunta_registro -> valor) no es válida, o null si todas
+    // lo son. Un campo sin respuesta cuenta como vacío.
+    public CampoRegistro buscarCampoInvalido(Map<Integer, String> respuestas) {
+        for (CampoRegistro campo : campos) {
+            if (!campo.esValida(respuestas.get(campo.getIdPreguntaRegistro()))) {
+                return campo;
+            }
+        }
+        return null;
+    }
+}
\ No newline at end of file
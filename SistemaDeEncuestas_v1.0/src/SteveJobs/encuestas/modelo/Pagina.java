@@ -0,0 +1,33 @@
+package SteveJobs.encuestas.modelo;
+
+import java.util.Collections;
+import java.util.List;
+
+// Una página de un listado paginado por clave (keyset). cursorSiguiente identifica el último
+// elemento de la página y se pasa tal cual para pedir la siguiente; es null en la última.
+public class Pagina<T> {
+
+    private final List<T> elementos;
+    private final String cursorSiguiente;
+
+    public Pagina(List<T> elementos, String cursorSiguiente) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.cursorSiguiente = cursorSiguiente;
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    public String getCursorSiguiente() {
+        return cursorSiguiente;
+    }
+
+    public boolean hayMas() {
+        return cursorSiguiente != null;
+    }
+
+    public boolean isVacia() {
+        return elementos.isEmpty();
+    }
+}
\ No newline at end of file
@@ -1,7 +1,89 @@
-
 package SteveJobs.encuestas.modelo;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+// Conjunto ordenado de preguntas del banco (con su criterio de descarte) que se puede
+// aplicar a una encuesta de una sola vez. Los detalles reutilizan EncuestaDetallePregunta
+// sin encuesta asignada; ordenEnEncuesta es la posición dentro de la plantilla.
 public class PlantillaPregunta {
-    
+
+    private int idPlantilla;
+    private String nombrePlantilla;
+    private String descripcion;
+    private int idAdminCreador;
+    private Timestamp fechaCreacion;
+    private List<EncuestaDetallePregunta> preguntas = new ArrayList<>();
+
+    public PlantillaPregunta() {
+    }
+
+    public PlantillaPregunta(String nombrePlantilla, String descripcion, int idAdminCreador) {
+        this.nombrePlantilla = nombrePlantilla;
+        this.descripcion = descripcion;
+        this.idAdminCreador = idAdminCreador;
+    }
+
+    public int getIdPlantilla() {
+        return idPlantilla;
+    }
+
+    public void setIdPlantilla(int idPlantilla) {
+        this.idPlantilla = idPlantilla;
+    }
+
+    public String getNombrePlantilla() {
+        return nombrePlantilla;
+    }
+
+    public void setNombrePlantilla(String nombrePlantilla) {
+        this.nombrePlantilla = nombrePlantilla;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public void setDescripcion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public int getIdAdminCreador() {
+        return idAdminCreador;
+    }
+
+    public void setIdAdminCreador(int idAdminCreador) {
+        this.idAdminCreador = idAdminCreador;
+    }
+
+    public Timestamp getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(Timestamp fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    public List<EncuestaDetallePregunta> getPreguntas() {
+        return Collections.unmodifiableList(preguntas);
+    }
+
+    public void setPreguntas(List<EncuestaDetallePregunta> preguntas) {
+        this.preguntas = preguntas != null ? new ArrayList<>(preguntas) : new ArrayList<>();
+    }
+
+    public void agregarPregunta(EncuestaDetallePregunta pregunta) {
+        this.preguntas.add(pregunta);
+    }
+
+    @Override
+    public String toString() {
+        return "PlantillaPregunta{" +
+               "idPlantilla=" + idPlantilla +
+               ", nombrePlantilla='" + nombrePlantilla + '\'' +
+               ", preguntas=" + preguntas.size() +
+               '}';
+    }
 }
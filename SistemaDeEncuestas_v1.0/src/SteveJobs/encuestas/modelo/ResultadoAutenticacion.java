@@ -0,0 +1,57 @@
+package SteveJobs.encuestas.modelo;
+
+public class ResultadoAutenticacion {
+
+    public enum Estado {
+        EXITOSA("Autenticación exitosa."),
+        CREDENCIALES_INVALIDAS("Email o contraseña incorrectos, o la cuenta podría estar inactiva."),
+        BLOQUEADA("Demasiados intentos fallidos."),
+        // El servidor no pudo verificar la contraseña a tiempo: no dice nada sobre las credenciales.
+        SERVICIO_OCUPADO("El servicio está ocupado; intente nuevamente en unos segundos.");
+
+        private final String descripcion;
+
+        Estado(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+    }
+
+    private final Estado estado;
+    private final Usuario usuario;
+    private final long segundosDeBloqueo;
+
+    public ResultadoAutenticacion(Estado estado, Usuario usuario, long segundosDeBloqueo) {
+        this.estado = estado;
+        this.usuario = usuario;
+        this.segundosDeBloqueo = segundosDeBloqueo;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    // Solo distinto de null cuando el estado es EXITOSA.
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public long getSegundosDeBloqueo() {
+        return segundosDeBloqueo;
+    }
+
+    public boolean isExitosa() {
+        return estado == Estado.EXITOSA;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoAutenticacion{" +
+               "estado=" + estado +
+               ", segundosDeBloqueo=" + segundosDeBloqueo +
+               '}';
+    }
+}
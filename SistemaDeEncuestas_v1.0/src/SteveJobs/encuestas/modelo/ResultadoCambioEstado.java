@@ -0,0 +1,78 @@
+package SteveJobs.encuestas.modelo;
+
+public class ResultadoCambioEstado {
+
+    public enum Motivo {
+        APLICADO("Estado actualizado."),
+        NO_ENCONTRADA("La encuesta no existe."),
+        ESTADO_INVALIDO("El estado solicitado no es válido."),
+        PREGUNTAS_INCOMPLETAS("La encuesta no tiene la cantidad de preguntas requerida."),
+        SIN_PERFIL("La encuesta debe tener un perfil definido."),
+        FECHA_FIN_VENCIDA("La fecha de fin de la encuesta ya pasó."),
+        ERROR_BD("Error de base de datos al cambiar el estado.");
+
+        private final String descripcion;
+
+        Motivo(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+    }
+
+    private final int idEncuesta;
+    private final String estadoSolicitado;
+    private final Motivo motivo;
+    // Cantidad exigida para activar; 0 si no se evaluó.
+    private final int preguntasRequeridas;
+
+    public ResultadoCambioEstado(int idEncuesta, String estadoSolicitado, Motivo motivo) {
+        this(idEncuesta, estadoSolicitado, motivo, 0);
+    }
+
+    public ResultadoCambioEstado(int idEncuesta, String estadoSolicitado, Motivo motivo, int preguntasRequeridas) {
+        this.idEncuesta = idEncuesta;
+        this.estadoSolicitado = estadoSolicitado;
+        this.motivo = motivo;
+        this.preguntasRequeridas = preguntasRequeridas;
+    }
+
+    public int getIdEncuesta() {
+        return idEncuesta;
+    }
+
+    public String getEstadoSolicitado() {
+        return estadoSolicitado;
+    }
+
+    public Motivo getMotivo() {
+        return motivo;
+    }
+
+    public int getPreguntasRequeridas() {
+        return preguntasRequeridas;
+    }
+
+    // Descripción del motivo con los datos de este resultado, para mostrar al usuario.
+    public String getMensaje() {
+        if (motivo == Motivo.PREGUNTAS_INCOMPLETAS && preguntasRequeridas > 0) {
+            return "La encuesta debe tener exactamente " + preguntasRequeridas + " preguntas asociadas.";
+        }
+        return motivo.getDescripcion();
+    }
+
+    public boolean isAplicado() {
+        return motivo == Motivo.APLICADO;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoCambioEstado{" +
+               "idEncuesta=" + idEncuesta +
+               ", estadoSolicitado='" + estadoSolicitado + '\'' +
+               ", motivo=" + motivo +
+               '}';
+    }
+}
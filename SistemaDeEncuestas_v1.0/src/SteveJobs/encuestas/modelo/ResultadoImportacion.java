@@ -0,0 +1,95 @@
+package SteveJobs.encuestas.modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ResultadoImportacion {
+
+    public static class ErrorFila {
+        private final int linea;
+        private final String email;
+        private final String mensaje;
+
+        public ErrorFila(int linea, String email, String mensaje) {
+            this.linea = linea;
+            this.email = email;
+            this.mensaje = mensaje;
+        }
+
+        public int getLinea() {
+            return linea;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getMensaje() {
+            return mensaje;
+        }
+
+        @Override
+        public String toString() {
+            return "Línea " + linea + (email != null && !email.isEmpty() ? " (" + email + ")" : "") + ": " + mensaje;
+        }
+    }
+
+    private int filasLeidas;
+    private int importados;
+    private long duracionMs;
+    private boolean cancelada;
+    private final List<ErrorFila> errores = new ArrayList<>();
+
+    public int getFilasLeidas() {
+        return filasLeidas;
+    }
+
+    public void setFilasLeidas(int filasLeidas) {
+        this.filasLeidas = filasLeidas;
+    }
+
+    public int getImportados() {
+        return importados;
+    }
+
+    public void sumarImportados(int cantidad) {
+        this.importados += cantidad;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+
+    // La importación se detuvo antes del final del archivo; los lotes anteriores quedaron guardados.
+    public boolean isCancelada() {
+        return cancelada;
+    }
+
+    public void setCancelada(boolean cancelada) {
+        this.cancelada = cancelada;
+    }
+
+    public List<ErrorFila> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+
+    public void agregarError(int linea, String email, String mensaje) {
+        errores.add(new ErrorFila(linea, email, mensaje));
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoImportacion{" +
+               "filasLeidas=" + filasLeidas +
+               ", importados=" + importados +
+               ", errores=" + errores.size() +
+               ", duracionMs=" + duracionMs +
+               ", cancelada=" + cancelada +
+               '}';
+    }
+}
\ No newline at end of file
@@ -7,7 +7,10 @@ public class Usuario {
     private String documentoIdentidad;
     private String nombresApellidos;
     private String email;
+    // Hash tal como está guardado en la BD. Una contraseña nueva en texto plano va en
+    // nuevaPassword y la hashea el servicio; nunca se guarda tal cual.
     private String password;
+    private String nuevaPassword;
     private String tipoNivel;
     private Timestamp fechaRegistroSistema;
     private String estadoCuenta;
@@ -64,6 +67,14 @@ public class Usuario {
         this.password = password;
     }
 
+    public String getNuevaPassword() {
+        return nuevaPassword;
+    }
+
+    public void setNuevaPassword(String nuevaPassword) {
+        this.nuevaPassword = nuevaPassword;
+    }
+
     public String getTipoNivel() {
         return tipoNivel;
     }
@@ -0,0 +1,382 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.AtributoUsuarioDAO;
+import SteveJobs.encuestas.dao.PreguntaRegistroDAO;
+import SteveJobs.encuestas.modelo.AtributoUsuario;
+import SteveJobs.encuestas.modelo.AtributoUsuario.TipoAtributo;
+import SteveJobs.encuestas.modelo.PreguntaRegistro;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Atributos de los encuestados (respuestas a las preguntas de registro) guardados con tipo en
+// atributos_usuario y cacheados en memoria por columnas: para cada pregunta, un arreglo
+// ordenado de id_usuario y otro paralelo con los valores (códigos de diccionario para texto,
+// double para números, días desde 1970 para fechas). Filtrar o segmentar millones de usuarios
+// es recorrer arreglos de primitivos. Las escrituras nuevas se acumulan aparte y se funden en
+// la columna cada UMBRAL_FUSION cambios; una consulta siempre ve columna y recientes juntas.
+public class AlmacenAtributosUsuario {
+
+    private static final int UMBRAL_FUSION = 2048;
+    private static final int SIN_VALOR = Integer.MIN_VALUE;
+
+    private static final class Columna {
+        private final TipoAtributo tipo;
+        private final int[] usuarios;
+        private final int[] codigos;
+        private final String[] diccionario;
+        private final double[] numeros;
+        private final int[] dias;
+
+        // atributos ordenados por id_usuario y sin repetidos.
+        Columna(TipoAtributo tipo, List<AtributoUsuario> atributos) {
+            int n = atributos.size();
+            this.tipo = tipo;
+            this.usuarios = new int[n];
+            int[] codigosTmp = null;
+            double[] numerosTmp = null;
+            int[] diasTmp = null;
+            String[] diccionarioTmp = new String[0];
+            if (tipo == TipoAtributo.NUMERO) {
+                numerosTmp = new double[n];
+            } else if (tipo == TipoAtributo.FECHA) {
+                diasTmp = new int[n];
+            } else {
+                codigosTmp = new int[n];
+            }
+            Map<String, Integer> codigoPorTexto = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) {
+                AtributoUsuario atributo = atributos.get(i);
+                usuarios[i] = atributo.getIdUsuario();
+                if (numerosTmp != null) {
+                    numerosTmp[i] = atributo.getValorNumero() != null ? atributo.getValorNumero() : Double.NaN;
+                } else if (diasTmp != null) {
+                    diasTmp[i] = atributo.getValorFecha() != null ? (int) atributo.getValorFecha().toLocalDate().toEpochDay() : SIN_VALOR;
+                } else if (atributo.getValorTexto() == null) {
+                    codigosTmp[i] = SIN_VALOR;
+                } else {
+                    Integer codigo = codigoPorTexto.get(atributo.getValorTexto());
+                    if (codigo == null) {
+                        codigo = codigoPorTexto.size();
+                        codigoPorTexto.put(atributo.getValorTexto(), codigo);
+                    }
+                    codigosTmp[i] = codigo;
+                }
+            }
+            if (codigosTmp != null) {
+                diccionarioTmp = codigoPorTexto.keySet().toArray(new String[0]);
+            }
+            this.codigos = codigosTmp;
+            this.numeros = numerosTmp;
+            this.dias = diasTmp;
+            this.diccionario = diccionarioTmp;
+        }
+
+        AtributoUsuario atributo(int i, int idPregunta) {
+            AtributoUsuario atributo = new AtributoUsuario(usuarios[i], idPregunta);
+            if (numeros != null) {
+                atributo.setValorNumero(Double.isNaN(numeros[i]) ? null : numeros[i]);
+            } else if (dias != null) {
+                atributo.setValorFecha(dias[i] == SIN_VALOR ? null : Date.valueOf(LocalDate.ofEpochDay(dias[i])));
+            } else {
+                atributo.setValorTexto(codigos[i] == SIN_VALOR ? null : diccionario[codigos[i]]);
+            }
+            return atributo;
+        }
+    }
+
+    // Columna más los cambios aún no fundidos; se reemplaza entero en cada escritura para que
+    // las consultas lean siempre un par coherente.
+    private static final class Estado {
+        private final Columna columna;
+        private final Map<Integer, AtributoUsuario> recientes;
+
+        Estado(Columna columna, Map<Integer, AtributoUsuario> recientes) {
+            this.columna = columna;
+            this.recientes = recientes;
+        }
+    }
+
+    private interface Condicion {
+        boolean cumple(Columna columna, int indice);
+
+        boolean cumple(AtributoUsuario atributo);
+    }
+
+    private static final ConcurrentHashMap<Integer, Estado> estados = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, TipoAtributo> tipos = new ConcurrentHashMap<>();
+    // Cambios por pregunta (escrituras e invalidaciones). Una columna leída de la BD solo se
+    // publica si no hubo cambios durante la lectura: la lectura pudo no verlos y, con la
+    // columna todavía ausente, aplicarEnCache no tuvo dónde anotarlos.
+    private static final ConcurrentHashMap<Integer, Long> generaciones = new ConcurrentHashMap<>();
+    private static final AtributoUsuarioDAO atributoDAO = new AtributoUsuarioDAO();
+    private static final PreguntaRegistroDAO preguntaRegistroDAO = new PreguntaRegistroDAO();
+
+    private AlmacenAtributosUsuario() {
+    }
+
+    // Guarda las respuestas de registro de un usuario (id_pregunta_registro -> valor) en un solo
+    // lote. Los valores vacíos o que no se pueden convertir al tipo de la pregunta se omiten.
+    public static boolean registrarAtributos(int idUsuario, Map<Integer, String> respuestas) {
+        List<AtributoUsuario> atributos = new ArrayList<>();
+        for (Map.Entry<Integer, String> respuesta : respuestas.entrySet()) {
+            TipoAtributo tipo = tipoDe(respuesta.getKey());
+            if (tipo == null) {
+                System.err.println("AlmacenAtributosUsuario: Pregunta de registro inexistente: " + respuesta.getKey());
+                continue;
+            }
+            AtributoUsuario atributo = convertir(idUsuario, respuesta.getKey(), tipo, respuesta.getValue());
+            if (atributo != null) {
+                atributos.add(atributo);
+            }
+        }
+        if (!atributoDAO.guardarAtributos(atributos)) {
+            return false;
+        }
+        for (AtributoUsuario atributo : atributos) {
+            aplicarEnCache(atributo);
+        }
+        return true;
+    }
+
+    public static int[] usuariosConValor(int idPreguntaRegistro, Collection<String> valores) {
+        Estado estado = obtenerEstado(idPreguntaRegistro);
+        if (estado == null || estado.columna.codigos == null) {
+            return new int[0];
+        }
+        boolean[] buscados = new boolean[estado.columna.diccionario.length];
+        for (int i = 0; i < buscados.length; i++) {
+            buscados[i] = valores.contains(estado.columna.diccionario[i]);
+        }
+        return filtrar(estado, new Condicion() {
+            @Override
+            public boolean cumple(Columna c, int i) {
+                return c.codigos[i] != SIN_VALOR && buscados[c.codigos[i]];
+            }
+
+            @Override
+            public boolean cumple(AtributoUsuario a) {
+                return a.getValorTexto() != null && valores.contains(a.getValorTexto());
+            }
+        });
+    }
+
+    // Rango cerrado [minimo, maximo].
+    public static int[] usuariosEnRango(int idPreguntaRegistro, double minimo, double maximo) {
+        Estado estado = obtenerEstado(idPreguntaRegistro);
+        if (estado == null || estado.columna.numeros == null) {
+            return new int[0];
+        }
+        return filtrar(estado, new Condicion() {
+            @Override
+            public boolean cumple(Columna c, int i) {
+                return c.numeros[i] >= minimo && c.numeros[i] <= maximo;
+            }
+
+            @Override
+            public boolean cumple(AtributoUsuario a) {
+                return a.getValorNumero() != null && a.getValorNumero() >= minimo && a.getValorNumero() <= maximo;
+            }
+        });
+    }
+
+    // Rango cerrado de fechas; un extremo null deja ese lado abierto.
+    public static int[] usuariosEnRangoFechas(int idPreguntaRegistro, LocalDate desde, LocalDate hasta) {
+        Estado estado = obtenerEstado(idPreguntaRegistro);
+        if (estado == null || estado.columna.dias == null) {
+            return new int[0];
+        }
+        int minimo = desde != null ? (int) desde.toEpochDay() : SIN_VALOR + 1;
+        int maximo = hasta != null ? (int) hasta.toEpochDay() : Integer.MAX_VALUE;
+        return filtrar(estado, new Condicion() {
+            @Override
+            public boolean cumple(Columna c, int i) {
+                return c.dias[i] >= minimo && c.dias[i] <= maximo;
+            }
+
+            @Override
+            public boolean cumple(AtributoUsuario a) {
+                if (a.getValorFecha() == null) {
+                    return false;
+                }
+                long dia = a.getValorFecha().toLocalDate().toEpochDay();
+                return dia >= minimo && dia <= maximo;
+            }
+        });
+    }
+
+    // Cantidad de usuarios por valor de una pregunta de texto o selección, para segmentar.
+    public static Map<String, Integer> contarPorValor(int idPreguntaRegistro) {
+        Map<String, Integer> conteo = new LinkedHashMap<>();
+        Estado estado = obtenerEstado(idPreguntaRegistro);
+        if (estado == null || estado.columna.codigos == null) {
+            return conteo;
+        }
+        Columna columna = estado.columna;
+        int[] porCodigo = new int[columna.diccionario.length];
+        for (int i = 0; i < columna.usuarios.length; i++) {
+            if (columna.codigos[i] != SIN_VALOR && !estado.recientes.containsKey(columna.usuarios[i])) {
+                porCodigo[columna.codigos[i]]++;
+            }
+        }
+        for (int i = 0; i < porCodigo.length; i++) {
+            if (porCodigo[i] > 0) {
+                conteo.put(columna.diccionario[i], porCodigo[i]);
+            }
+        }
+        for (AtributoUsuario atributo : estado.recientes.values()) {
+            if (atributo.getValorTexto() != null) {
+                conteo.merge(atributo.getValorTexto(), 1, Integer::sum);
+            }
+        }
+        return conteo;
+    }
+
+    // Usuarios presentes en ambos resultados (los dos vienen ordenados).
+    public static int[] interseccion(int[] a, int[] b) {
+        int[] resultado = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                resultado[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(resultado, k);
+    }
+
+    // La pregunta cambió de tipo o se eliminó: se descarta su columna y se relee al usarla.
+    public static void invalidar(int idPreguntaRegistro) {
+        generaciones.merge(idPreguntaRegistro, 1L, Long::sum);
+        estados.remove(idPreguntaRegistro);
+        tipos.remove(idPreguntaRegistro);
+    }
+
+    static AtributoUsuario convertir(int idUsuario, int idPregunta, TipoAtributo tipo, String valor) {
+        if (valor == null || valor.trim().isEmpty()) {
+            return null;
+        }
+        String limpio = valor.trim();
+        AtributoUsuario atributo = new AtributoUsuario(idUsuario, idPregunta);
+        try {
+            if (tipo == TipoAtributo.NUMERO) {
+                atributo.setValorNumero(Double.parseDouble(limpio.replace(',', '.')));
+            } else if (tipo == TipoAtributo.FECHA) {
+                atributo.setValorFecha(Date.valueOf(LocalDate.parse(limpio)));
+            } else {
+                atributo.setValorTexto(limpio);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("AlmacenAtributosUsuario: Valor '" + valor + "' no válido para la pregunta " + idPregunta + " (" + tipo + ").");
+            return null;
+        }
+        return atributo;
+    }
+
+    private static int[] filtrar(Estado estado, Condicion condicion) {
+        Columna columna = estado.columna;
+        int[] resultado = new int[columna.usuarios.length + estado.recientes.size()];
+        int k = 0;
+        for (int i = 0; i < columna.usuarios.length; i++) {
+            if (condicion.cumple(columna, i) && !estado.recientes.containsKey(columna.usuarios[i])) {
+                resultado[k++] = columna.usuarios[i];
+            }
+        }
+        int desdeRecientes = k;
+        for (AtributoUsuario atributo : estado.recientes.values()) {
+            if (condicion.cumple(atributo)) {
+                resultado[k++] = atributo.getIdUsuario();
+            }
+        }
+        if (k > desdeRecientes) {
+            Arrays.sort(resultado, 0, k);
+        }
+        return Arrays.copyOf(resultado, k);
+    }
+
+    private static Estado obtenerEstado(int idPreguntaRegistro) {
+        Estado estado = estados.get(idPreguntaRegistro);
+        if (estado != null) {
+            return estado;
+        }
+        long generacion = generaciones.getOrDefault(idPreguntaRegistro, 0L);
+        TipoAtributo tipo = tipoDe(idPreguntaRegistro);
+        if (tipo == null) {
+            return null;
+        }
+        List<AtributoUsuario> atributos = atributoDAO.obtenerAtributosPorPregunta(idPreguntaRegistro);
+        if (atributos == null) {
+            return null;
+        }
+        Estado nuevo = new Estado(new Columna(tipo, atributos), new HashMap<>());
+        // Si hubo cambios durante la lectura, esta consulta usa lo leído pero no se guarda: la
+        // próxima vuelve a leer la BD.
+        Estado publicado = estados.compute(idPreguntaRegistro, (id, actual) -> {
+            if (actual != null) {
+                return actual;
+            }
+            return generaciones.getOrDefault(id, 0L) == generacion ? nuevo : null;
+        });
+        return publicado != null ? publicado : nuevo;
+    }
+
+    private static void aplicarEnCache(AtributoUsuario atributo) {
+        // Se anota el cambio antes de mirar la columna: una carga en curso que no lo vio ya no
+        // se publicará. Si la columna no está cargada no hay nada más que hacer: se leerá de la BD.
+        generaciones.merge(atributo.getIdPreguntaRegistro(), 1L, Long::sum);
+        estados.computeIfPresent(atributo.getIdPreguntaRegistro(), (id, estado) -> {
+            Map<Integer, AtributoUsuario> recientes = new HashMap<>(estado.recientes);
+            recientes.put(atributo.getIdUsuario(), atributo);
+            if (recientes.size() < UMBRAL_FUSION) {
+                return new Estado(estado.columna, recientes);
+            }
+            return new Estado(fusionar(estado.columna, recientes, id), new HashMap<>());
+        });
+    }
+
+    private static Columna fusionar(Columna columna, Map<Integer, AtributoUsuario> recientes, int idPregunta) {
+        List<AtributoUsuario> nuevos = new ArrayList<>(recientes.values());
+        nuevos.sort((x, y) -> Integer.compare(x.getIdUsuario(), y.getIdUsuario()));
+        List<AtributoUsuario> todos = new ArrayList<>(columna.usuarios.length + nuevos.size());
+        int j = 0;
+        for (int i = 0; i < columna.usuarios.length; i++) {
+            while (j < nuevos.size() && nuevos.get(j).getIdUsuario() < columna.usuarios[i]) {
+                todos.add(nuevos.get(j++));
+            }
+            if (j < nuevos.size() && nuevos.get(j).getIdUsuario() == columna.usuarios[i]) {
+                todos.add(nuevos.get(j++));
+            } else {
+                todos.add(columna.atributo(i, idPregunta));
+            }
+        }
+        while (j < nuevos.size()) {
+            todos.add(nuevos.get(j++));
+        }
+        return new Columna(columna.tipo, todos);
+    }
+
+    private static TipoAtributo tipoDe(int idPreguntaRegistro) {
+        TipoAtributo tipo = tipos.get(idPreguntaRegistro);
+        if (tipo != null) {
+            return tipo;
+        }
+        List<PreguntaRegistro> preguntas = preguntaRegistroDAO.obtenerTodasLasPreguntasRegistro();
+        for (PreguntaRegistro pregunta : preguntas) {
+            tipos.put(pregunta.getIdPreguntaRegistro(), TipoAtributo.desdeTipoRespuesta(pregunta.getTipoRespuesta()));
+        }
+        return tipos.get(idPreguntaRegistro);
+    }
+}
\ No newline at end of file
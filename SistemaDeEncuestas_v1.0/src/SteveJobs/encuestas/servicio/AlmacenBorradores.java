@@ -0,0 +1,263 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.BorradorRespuestaDAO;
+import SteveJobs.encuestas.modelo.BorradorRespuesta;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Respuestas en curso por (usuario, encuesta). Cada respuesta se guarda en memoria y queda
+// marcada como pendiente; cada INTERVALO_VOLCADO_SEGUNDOS se escriben las pendientes de
+// todas las sesiones en un único lote. Así una caída pierde a lo sumo unos segundos de
+// respuestas sin escribir en la BD una vez por respuesta. Un borrador ya escrito se quita de
+// memoria tras INACTIVIDAD_MAXIMA_MS sin uso (o antes, si hay más de MAX_EN_MEMORIA) y se
+// vuelve a leer de la BD si el encuestado retoma la participación.
+public class AlmacenBorradores {
+
+    private static final long INTERVALO_VOLCADO_SEGUNDOS = 5;
+    private static final long INACTIVIDAD_MAXIMA_MS = 30L * 60 * 1000;
+    private static final int MAX_EN_MEMORIA = 50_000;
+
+    private static final class Borrador {
+        private final int idUsuario;
+        private final int idEncuesta;
+        private final Map<Integer, String> valores = new LinkedHashMap<>();
+        private final Set<Integer> pendientes = new HashSet<>();
+        private long ultimoUso = System.currentTimeMillis();
+        // Ya se quitó del mapa: quien lo tenga debe buscar (o crear) otro.
+        private boolean retirado;
+
+        Borrador(int idUsuario, int idEncuesta) {
+            this.idUsuario = idUsuario;
+            this.idEncuesta = idEncuesta;
+        }
+    }
+
+    private static final ConcurrentHashMap<Long, Borrador> borradores = new ConcurrentHashMap<>();
+    private static final Set<Long> pendientesDeBorrar = ConcurrentHashMap.newKeySet();
+    // Un volcado en curso podría reescribir filas que una promoción acaba de borrar; olvidar()
+    // espera a que termine antes de soltar el borrador.
+    private static final ReentrantLock volcado = new ReentrantLock();
+    private static final BorradorRespuestaDAO borradorDAO = new BorradorRespuestaDAO();
+    private static ScheduledExecutorService ejecutor;
+
+    private AlmacenBorradores() {
+    }
+
+    public static synchronized void iniciar() {
+        if (ejecutor != null) {
+            return;
+        }
+        ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "volcado-borradores");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        ejecutor.scheduleWithFixedDelay(AlmacenBorradores::volcar, INTERVALO_VOLCADO_SEGUNDOS, INTERVALO_VOLCADO_SEGUNDOS, TimeUnit.SECONDS);
+    }
+
+    // Hace un último volcado para no perder lo pendiente al cerrar la aplicación.
+    public static synchronized void detener() {
+        if (ejecutor != null) {
+            ejecutor.shutdown();
+            try {
+                ejecutor.awaitTermination(INTERVALO_VOLCADO_SEGUNDOS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ejecutor = null;
+        }
+        volcar();
+    }
+
+    public static void registrar(int idUsuario, int idEncuesta, int idEncuestaDetalle, String valor) {
+        long clave = clave(idUsuario, idEncuesta);
+        while (true) {
+            Borrador borrador = borradores.computeIfAbsent(clave, k -> new Borrador(idUsuario, idEncuesta));
+            synchronized (borrador) {
+                if (borrador.retirado) {
+                    continue;
+                }
+                borrador.valores.put(idEncuestaDetalle, valor);
+                borrador.pendientes.add(idEncuestaDetalle);
+                borrador.ultimoUso = System.currentTimeMillis();
+            }
+            break;
+        }
+        pendientesDeBorrar.remove(clave);
+    }
+
+    // Respuestas guardadas de una participación interrumpida: primero las de memoria y, si no
+    // hay, las de la BD. Devuelve un mapa vacío si no hay borrador. Lo leído de la BD queda en
+    // memoria como ya escrito, para que las respuestas nuevas se sumen a él.
+    public static Map<Integer, String> recuperar(int idUsuario, int idEncuesta) {
+        long clave = clave(idUsuario, idEncuesta);
+        Borrador borrador = borradores.get(clave);
+        if (borrador != null) {
+            synchronized (borrador) {
+                if (!borrador.retirado) {
+                    borrador.ultimoUso = System.currentTimeMillis();
+                    return new LinkedHashMap<>(borrador.valores);
+                }
+            }
+        }
+        if (pendientesDeBorrar.contains(clave)) {
+            return new LinkedHashMap<>();
+        }
+        Map<Integer, String> guardados = borradorDAO.obtenerBorrador(idUsuario, idEncuesta);
+        if (guardados == null) {
+            return new LinkedHashMap<>();
+        }
+        if (!guardados.isEmpty()) {
+            Borrador cargado = new Borrador(idUsuario, idEncuesta);
+            cargado.valores.putAll(guardados);
+            Borrador previo = borradores.putIfAbsent(clave, cargado);
+            if (previo != null) {
+                // Otra sesión se adelantó; las respuestas de memoria son más recientes.
+                synchronized (previo) {
+                    for (Map.Entry<Integer, String> entrada : guardados.entrySet()) {
+                        previo.valores.putIfAbsent(entrada.getKey(), entrada.getValue());
+                    }
+                    return new LinkedHashMap<>(previo.valores);
+                }
+            }
+        }
+        return guardados;
+    }
+
+    // La participación se descartó: se olvida en memoria y se borra en el próximo volcado.
+    public static void descartar(int idUsuario, int idEncuesta) {
+        long clave = clave(idUsuario, idEncuesta);
+        borradores.remove(clave);
+        pendientesDeBorrar.add(clave);
+    }
+
+    // La encuesta se eliminó: se olvidan sus borradores en memoria para que ningún volcado
+    // vuelva a escribirlos. Las filas de la BD las borra PurgadorEncuestas.
+    public static void olvidarEncuesta(int idEncuesta) {
+        volcado.lock();
+        try {
+            for (Map.Entry<Long, Borrador> entrada : borradores.entrySet()) {
+                Borrador borrador = entrada.getValue();
+                if (borrador.idEncuesta == idEncuesta) {
+                    retirar(entrada.getKey(), borrador);
+                }
+            }
+            pendientesDeBorrar.removeIf(clave -> (int) (long) clave == idEncuesta);
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    // Llamar justo antes de promover el borrador a respuestas finales; las filas de la BD se
+    // borran en la misma transacción que inserta las respuestas.
+    public static void olvidar(int idUsuario, int idEncuesta) {
+        volcado.lock();
+        try {
+            long clave = clave(idUsuario, idEncuesta);
+            Borrador borrador = borradores.get(clave);
+            if (borrador != null) {
+                retirar(clave, borrador);
+            }
+            pendientesDeBorrar.remove(clave);
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    static void volcar() {
+        volcado.lock();
+        try {
+            List<BorradorRespuesta> lote = new ArrayList<>();
+            Map<Borrador, Set<Integer>> tomados = new LinkedHashMap<>();
+            for (Borrador borrador : borradores.values()) {
+                synchronized (borrador) {
+                    if (borrador.pendientes.isEmpty()) continue;
+                    for (Integer idDetalle : borrador.pendientes) {
+                        lote.add(new BorradorRespuesta(borrador.idUsuario, borrador.idEncuesta, idDetalle, borrador.valores.get(idDetalle)));
+                    }
+                    tomados.put(borrador, new HashSet<>(borrador.pendientes));
+                    borrador.pendientes.clear();
+                }
+            }
+            if (!lote.isEmpty() && !borradorDAO.guardarBorradores(lote)) {
+                // Se vuelven a marcar para el próximo intento.
+                for (Map.Entry<Borrador, Set<Integer>> entrada : tomados.entrySet()) {
+                    synchronized (entrada.getKey()) {
+                        entrada.getKey().pendientes.addAll(entrada.getValue());
+                    }
+                }
+            }
+            for (Long clave : new ArrayList<>(pendientesDeBorrar)) {
+                if (borradorDAO.eliminarBorrador((int) (clave >>> 32), (int) (long) clave)) {
+                    pendientesDeBorrar.remove(clave);
+                }
+            }
+            liberarInactivos();
+        } catch (RuntimeException e) {
+            System.err.println("AlmacenBorradores: Error inesperado durante el volcado: " + e.getMessage());
+        } finally {
+            volcado.unlock();
+        }
+    }
+
+    // Quita de memoria los borradores ya escritos que no se usan hace INACTIVIDAD_MAXIMA_MS y,
+    // si aun así sobran, los escritos de uso más antiguo. Los pendientes nunca se quitan.
+    private static void liberarInactivos() {
+        long ahora = System.currentTimeMillis();
+        // clave -> último uso, tomado una vez para que el orden no cambie mientras se ordena.
+        List<Map.Entry<Long, Long>> escritos = new ArrayList<>();
+        for (Map.Entry<Long, Borrador> entrada : borradores.entrySet()) {
+            Borrador borrador = entrada.getValue();
+            synchronized (borrador) {
+                if (!borrador.pendientes.isEmpty()) {
+                    continue;
+                }
+                if (ahora - borrador.ultimoUso > INACTIVIDAD_MAXIMA_MS) {
+                    retirar(entrada.getKey(), borrador);
+                } else {
+                    escritos.add(new AbstractMap.SimpleEntry<>(entrada.getKey(), borrador.ultimoUso));
+                }
+            }
+        }
+        int sobrantes = borradores.size() - MAX_EN_MEMORIA;
+        if (sobrantes <= 0) {
+            return;
+        }
+        escritos.sort(Map.Entry.comparingByValue());
+        for (int i = 0; i < escritos.size() && sobrantes > 0; i++) {
+            long clave = escritos.get(i).getKey();
+            Borrador borrador = borradores.get(clave);
+            if (borrador == null) {
+                continue;
+            }
+            synchronized (borrador) {
+                if (borrador.pendientes.isEmpty() && !borrador.retirado) {
+                    retirar(clave, borrador);
+                    sobrantes--;
+                }
+            }
+        }
+    }
+
+    private static void retirar(long clave, Borrador borrador) {
+        synchronized (borrador) {
+            borrador.retirado = true;
+        }
+        borradores.remove(clave, borrador);
+    }
+
+    private static long clave(int idUsuario, int idEncuesta) {
+        return ((long) idUsuario << 32) | (idEncuesta & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,118 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.EncuestaDAO;
+import SteveJobs.encuestas.dao.EncuestaDetallePreguntaDAO;
+import SteveJobs.encuestas.modelo.DefinicionEncuestaBinaria;
+import SteveJobs.encuestas.modelo.DefinicionEncuestaPublicada;
+import SteveJobs.encuestas.modelo.Encuesta;
+import SteveJobs.encuestas.modelo.EncuestaDetallePregunta;
+import SteveJobs.encuestas.util.CacheExpirable;
+import SteveJobs.encuestas.util.CodificadorEncuestaBinaria;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Definiciones publicadas de las encuestas activas, compartidas por todos los encuestados.
+// Las lecturas no toman bloqueos: cada entrada es inmutable y publicar solo reemplaza la
+// referencia del mapa. Si dos publicaciones compiten, queda la de mayor versión; una
+// publicación que leyó la BD antes de un retiro no vuelve a poner la encuesta, y una lectura
+// que la vio inactiva antes de que otra la publicara no la quita ni la marca como no publicada.
+public class CatalogoEncuestasPublicadas {
+
+    private static final long VIGENCIA_NO_PUBLICADA_MS = 60 * 1000;
+
+    private static final ConcurrentHashMap<Integer, DefinicionEncuestaPublicada> publicadas = new ConcurrentHashMap<>();
+    // Forma codificada de cada definición; se arma la primera vez que se pide cada versión.
+    private static final ConcurrentHashMap<Integer, DefinicionEncuestaBinaria> codificadas = new ConcurrentHashMap<>();
+    // Contadores por encuesta que suben con cada retiro y con cada publicación; se modifican
+    // dentro de publicadas.compute para quedar ordenados con las demás operaciones sobre la
+    // misma encuesta.
+    private static final ConcurrentHashMap<Integer, Long> retiros = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, Long> publicaciones = new ConcurrentHashMap<>();
+    // Encuestas que se buscaron y no están activas, para no consultar la BD en cada pedido.
+    private static final CacheExpirable<Integer, Boolean> noPublicadas = new CacheExpirable<>(10000, VIGENCIA_NO_PUBLICADA_MS);
+    private static final EncuestaDAO encuestaDAO = new EncuestaDAO();
+    private static final EncuestaDetallePreguntaDAO encuestaDetalleDAO = new EncuestaDetallePreguntaDAO();
+
+    private CatalogoEncuestasPublicadas() {
+    }
+
+    // Si la encuesta no está en memoria (por ejemplo tras reiniciar la aplicación) y sigue
+    // activa en la BD, se publica en ese momento.
+    public static DefinicionEncuestaPublicada obtener(int idEncuesta) {
+        DefinicionEncuestaPublicada definicion = publicadas.get(idEncuesta);
+        if (definicion != null) {
+            return definicion;
+        }
+        if (noPublicadas.obtener(idEncuesta) != null) {
+            return null;
+        }
+        return publicar(idEncuesta);
+    }
+
+    // Relee la encuesta y reemplaza la definición publicada; la retira si ya no está activa.
+    public static DefinicionEncuestaPublicada publicar(int idEncuesta) {
+        long retiroLeido = retiros.getOrDefault(idEncuesta, 0L);
+        long publicacionLeida = publicaciones.getOrDefault(idEncuesta, 0L);
+        Encuesta encuesta = encuestaDAO.obtenerEncuestaPorId(idEncuesta);
+        if (encuesta == null || !"Activa".equalsIgnoreCase(encuesta.getEstado())) {
+            publicadas.compute(idEncuesta, (id, actual) -> {
+                if (retiros.getOrDefault(id, 0L) != retiroLeido || publicaciones.getOrDefault(id, 0L) != publicacionLeida) {
+                    // Otra publicación o retiro llegó mientras se leía la BD: lo leído ya no vale.
+                    return actual;
+                }
+                retiros.merge(id, 1L, Long::sum);
+                noPublicadas.guardar(id, Boolean.TRUE);
+                return null;
+            });
+            codificadas.remove(idEncuesta);
+            return null;
+        }
+        List<EncuestaDetallePregunta> detalles = encuestaDetalleDAO.obtenerPreguntasPorEncuesta(idEncuesta);
+        DefinicionEncuestaPublicada nueva = new DefinicionEncuestaPublicada(encuesta, detalles);
+        return publicadas.compute(idEncuesta, (id, actual) -> {
+            if (retiros.getOrDefault(id, 0L) != retiroLeido) {
+                // Un retiro llegó mientras se leía la BD: lo leído ya no vale.
+                return actual;
+            }
+            publicaciones.merge(id, 1L, Long::sum);
+            noPublicadas.quitar(id);
+            return actual == null || nueva.getVersion() >= actual.getVersion() ? nueva : actual;
+        });
+    }
+
+    // Revalidación condicional: si etagCliente coincide con el contenido actual se devuelve
+    // una respuesta sinCambios sin contenido. Devuelve null si la encuesta no está publicada.
+    public static DefinicionEncuestaBinaria obtenerCodificada(int idEncuesta, String etagCliente) {
+        DefinicionEncuestaPublicada definicion = obtener(idEncuesta);
+        if (definicion == null) {
+            codificadas.remove(idEncuesta);
+            return null;
+        }
+        DefinicionEncuestaBinaria codificada = codificadas.get(idEncuesta);
+        if (codificada == null || codificada.getVersion() != definicion.getVersion()) {
+            byte[] contenido = CodificadorEncuestaBinaria.codificar(definicion);
+            codificada = new DefinicionEncuestaBinaria(idEncuesta, definicion.getVersion(),
+                    CodificadorEncuestaBinaria.calcularEtag(contenido), contenido);
+            codificadas.put(idEncuesta, codificada);
+        }
+        if (etagCliente != null && etagCliente.equals(codificada.getEtag())) {
+            return DefinicionEncuestaBinaria.sinCambios(idEncuesta, codificada.getVersion(), codificada.getEtag());
+        }
+        return codificada;
+    }
+
+    // Retiro explícito (cambio de estado o borrado): se aplica siempre.
+    public static void retirar(int idEncuesta) {
+        publicadas.compute(idEncuesta, (id, actual) -> {
+            retiros.merge(id, 1L, Long::sum);
+            noPublicadas.guardar(id, Boolean.TRUE);
+            return null;
+        });
+        codificadas.remove(idEncuesta);
+    }
+
+    public static int cantidadPublicadas() {
+        return publicadas.size();
+    }
+}
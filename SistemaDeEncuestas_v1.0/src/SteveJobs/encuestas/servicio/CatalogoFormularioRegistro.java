@@ -0,0 +1,56 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.PreguntaRegistroDAO;
+import SteveJobs.encuestas.modelo.FormularioRegistro;
+import SteveJobs.encuestas.modelo.PreguntaRegistro;
+
+import java.util.List;
+
+// Formulario de registro compilado una vez y servido desde memoria. Cada cambio de preguntas
+// desde ServicioConfiguracionAdmin lo invalida y el siguiente pedido arma uno nuevo; los que
+// ya tenían la versión anterior la siguen usando sin riesgo porque es inmutable.
+public class CatalogoFormularioRegistro {
+
+    private static final PreguntaRegistroDAO preguntaRegistroDAO = new PreguntaRegistroDAO();
+
+    private static volatile FormularioRegistro formulario;
+    // Sube en cada invalidación; un formulario armado con una versión vieja no se publica.
+    private static long version;
+
+    private CatalogoFormularioRegistro() {
+    }
+
+    // null solo si no hay formulario en memoria y no se pudo leer de la BD.
+    public static FormularioRegistro obtener() {
+        FormularioRegistro actual = formulario;
+        if (actual != null) {
+            return actual;
+        }
+        long versionLeida;
+        synchronized (CatalogoFormularioRegistro.class) {
+            if (formulario != null) {
+                return formulario;
+            }
+            versionLeida = version;
+        }
+        List<PreguntaRegistro> activas = preguntaRegistroDAO.obtenerPreguntasRegistroActivas();
+        if (activas == null) {
+            System.err.println("CatalogoFormularioRegistro: No se pudieron leer las preguntas de registro.");
+            return null;
+        }
+        FormularioRegistro compilado = new FormularioRegistro(activas);
+        synchronized (CatalogoFormularioRegistro.class) {
+            if (version == versionLeida) {
+                formulario = compilado;
+            }
+        }
+        return compilado;
+    }
+
+    public static void invalidar() {
+        synchronized (CatalogoFormularioRegistro.class) {
+            version++;
+            formulario = null;
+        }
+    }
+}
\ No newline at end of file
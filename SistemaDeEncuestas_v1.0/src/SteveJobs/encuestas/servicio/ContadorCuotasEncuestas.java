@@ -0,0 +1,186 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.RespuestaUsuarioDAO;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Participantes por encuesta, en memoria, para hacer cumplir publicoObjetivoCantidad sin
+// contar en la BD al guardar cada participación. Cada encuesta tiene su propio cupo, así que
+// los envíos a encuestas distintas no compiten entre sí. Un cupo separa las participaciones
+// confirmadas de las reservadas que aún se están guardando: la reconciliación periódica con
+// la BD corrige solo las confirmadas y nunca pisa una reserva en curso.
+public class ContadorCuotasEncuestas {
+
+    private static final long INTERVALO_RECONCILIACION_MINUTOS = 5;
+
+    private static final class Cupo {
+        private int confirmados;
+        private int enCurso;
+        // Total histórico de confirmaciones; marca lo confirmado mientras corre una reconciliación.
+        private long confirmaciones;
+        private boolean retirado;
+
+        Cupo(int confirmados) {
+            this.confirmados = confirmados;
+        }
+
+        int ocupados() {
+            return confirmados + enCurso;
+        }
+    }
+
+    private static final Map<Integer, Cupo> cupos = new ConcurrentHashMap<>();
+    private static final RespuestaUsuarioDAO respuestaDAO = new RespuestaUsuarioDAO();
+    private static ScheduledExecutorService ejecutor;
+
+    private ContadorCuotasEncuestas() {
+    }
+
+    // Si la carga inicial falla no pasa nada grave: cada encuesta se cuenta en la BD la primera
+    // vez que se reserva un lugar en ella.
+    public static synchronized void iniciar() {
+        if (ejecutor != null) {
+            return;
+        }
+        reconciliar();
+        ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "reconciliador-cuotas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        ejecutor.scheduleWithFixedDelay(ContadorCuotasEncuestas::reconciliar,
+                INTERVALO_RECONCILIACION_MINUTOS, INTERVALO_RECONCILIACION_MINUTOS, TimeUnit.MINUTES);
+    }
+
+    public static synchronized void detener() {
+        if (ejecutor != null) {
+            ejecutor.shutdownNow();
+            ejecutor = null;
+        }
+    }
+
+    // Reserva un lugar antes de guardar la participación. Con objetivo <= 0 no hay límite.
+    // Devuelve false si la encuesta ya alcanzó su objetivo o no se pudo contar en la BD.
+    // Toda reserva termina en confirmarCupo o liberarCupo.
+    public static boolean reservarCupo(int idEncuesta, int objetivo) {
+        while (true) {
+            Cupo cupo = obtenerOCargar(idEncuesta);
+            if (cupo == null) {
+                System.err.println("ContadorCuotas: No se pudo contar los participantes de la encuesta ID " + idEncuesta + ".");
+                return false;
+            }
+            synchronized (cupo) {
+                if (cupo.retirado) {
+                    continue;
+                }
+                if (objetivo > 0 && cupo.ocupados() >= objetivo) {
+                    return false;
+                }
+                cupo.enCurso++;
+                return true;
+            }
+        }
+    }
+
+    // La participación reservada quedó guardada.
+    public static void confirmarCupo(int idEncuesta) {
+        Cupo cupo = cupos.get(idEncuesta);
+        if (cupo != null) {
+            synchronized (cupo) {
+                if (cupo.enCurso > 0) {
+                    cupo.enCurso--;
+                }
+                cupo.confirmados++;
+                cupo.confirmaciones++;
+            }
+        }
+    }
+
+    // Devuelve un lugar reservado cuando la participación no se pudo guardar.
+    public static void liberarCupo(int idEncuesta) {
+        Cupo cupo = cupos.get(idEncuesta);
+        if (cupo != null) {
+            synchronized (cupo) {
+                if (cupo.enCurso > 0) {
+                    cupo.enCurso--;
+                }
+            }
+        }
+    }
+
+    public static boolean estaCompleta(int idEncuesta, int objetivo) {
+        if (objetivo <= 0) {
+            return false;
+        }
+        return obtenerParticipantes(idEncuesta) >= objetivo;
+    }
+
+    // Confirmados más reservas en curso.
+    public static int obtenerParticipantes(int idEncuesta) {
+        Cupo cupo = cupos.get(idEncuesta);
+        if (cupo == null) {
+            return 0;
+        }
+        synchronized (cupo) {
+            return cupo.ocupados();
+        }
+    }
+
+    private static Cupo obtenerOCargar(int idEncuesta) {
+        Cupo cupo = cupos.get(idEncuesta);
+        if (cupo != null) {
+            return cupo;
+        }
+        int enBD = respuestaDAO.contarParticipantes(idEncuesta);
+        if (enBD < 0) {
+            return null;
+        }
+        Cupo nuevo = new Cupo(enBD);
+        Cupo existente = cupos.putIfAbsent(idEncuesta, nuevo);
+        return existente != null ? existente : nuevo;
+    }
+
+    // Reemplaza los confirmados por el conteo real de la BD más lo confirmado desde que empezó
+    // la consulta (que puede quedar contado dos veces hasta la siguiente pasada: el error es
+    // siempre hacia el lado estricto). Las reservas en curso no se tocan.
+    static void reconciliar() {
+        Map<Integer, Long> marcas = new HashMap<>();
+        for (Map.Entry<Integer, Cupo> entrada : cupos.entrySet()) {
+            synchronized (entrada.getValue()) {
+                marcas.put(entrada.getKey(), entrada.getValue().confirmaciones);
+            }
+        }
+        Map<Integer, Integer> conteos = respuestaDAO.contarParticipantesPorEncuestaActiva();
+        if (conteos == null) {
+            System.err.println("ContadorCuotas: No se pudo reconciliar con la BD; se mantienen los contadores actuales.");
+            return;
+        }
+        for (Map.Entry<Integer, Integer> entrada : conteos.entrySet()) {
+            if (!marcas.containsKey(entrada.getKey())) {
+                cupos.putIfAbsent(entrada.getKey(), new Cupo(entrada.getValue()));
+            }
+        }
+        for (Map.Entry<Integer, Long> marca : marcas.entrySet()) {
+            int idEncuesta = marca.getKey();
+            Cupo cupo = cupos.get(idEncuesta);
+            if (cupo == null) {
+                continue;
+            }
+            synchronized (cupo) {
+                Integer enBD = conteos.get(idEncuesta);
+                int recientes = (int) (cupo.confirmaciones - marca.getValue());
+                cupo.confirmados = (enBD != null ? enBD : 0) + recientes;
+                // Encuestas que dejaron de estar activas: se olvidan si nada está en curso.
+                if (enBD == null && cupo.ocupados() == 0) {
+                    cupo.retirado = true;
+                    cupos.remove(idEncuesta, cupo);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.util.NormalizadorTexto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Detección de preguntas casi idénticas con MinHash + LSH (locality-sensitive hashing).
+// Cada pregunta se reduce a una firma de NUM_HASHES mínimos sobre sus shingles de
+// caracteres; la firma se parte en BANDAS y dos preguntas son candidatas si coinciden en
+// al menos una banda completa. Solo los candidatos se comparan con Jaccard exacto.
+// Con 16 bandas de 8 filas el umbral efectivo de candidatos ronda una similitud de 0.7.
+public class DetectorDuplicadosPreguntas {
+
+    public static class Coincidencia {
+        private final int idPreguntaBanco;
+        private final double similitud;
+
+        public Coincidencia(int idPreguntaBanco, double similitud) {
+            this.idPreguntaBanco = idPreguntaBanco;
+            this.similitud = similitud;
+        }
+
+        public int getIdPreguntaBanco() {
+            return idPreguntaBanco;
+        }
+
+        public double getSimilitud() {
+            return similitud;
+        }
+    }
+
+    public static class ParSimilar {
+        private final int idPreguntaA;
+        private final int idPreguntaB;
+        private final double similitud;
+
+        public ParSimilar(int idPreguntaA, int idPreguntaB, double similitud) {
+            this.idPreguntaA = idPreguntaA;
+            this.idPreguntaB = idPreguntaB;
+            this.similitud = similitud;
+        }
+
+        public int getIdPreguntaA() {
+            return idPreguntaA;
+        }
+
+        public int getIdPreguntaB() {
+            return idPreguntaB;
+        }
+
+        public double getSimilitud() {
+            return similitud;
+        }
+
+        @Override
+        public String toString() {
+            return "ParSimilar{" + idPreguntaA + " ~ " + idPreguntaB + ", similitud=" + String.format("%.2f", similitud) + '}';
+        }
+    }
+
+    private static final int TAMANO_SHINGLE = 4;
+    private static final int BANDAS = 16;
+    private static final int FILAS_POR_BANDA = 8;
+    private static final int NUM_HASHES = BANDAS * FILAS_POR_BANDA;
+    private static final long[] SEMILLAS = new long[NUM_HASHES];
+
+    static {
+        long semilla = 0x5DEECE66DL;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            semilla = mezclar(semilla + 0x9E3779B97F4A7C15L);
+            SEMILLAS[i] = semilla;
+        }
+    }
+
+    private final Map<Integer, int[]> shinglesPorPregunta = new HashMap<>();
+    private final Map<Integer, long[]> clavesBandaPorPregunta = new HashMap<>();
+    private final List<Map<Long, Set<Integer>>> cubetas = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public DetectorDuplicadosPreguntas() {
+        for (int b = 0; b < BANDAS; b++) {
+            cubetas.add(new HashMap<>());
+        }
+    }
+
+    public void cargar(Map<Integer, String> textosPorPregunta) {
+        lock.writeLock().lock();
+        try {
+            shinglesPorPregunta.clear();
+            clavesBandaPorPregunta.clear();
+            for (Map<Long, Set<Integer>> cubeta : cubetas) {
+                cubeta.clear();
+            }
+            for (Map.Entry<Integer, String> entrada : textosPorPregunta.entrySet()) {
+                indexar(entrada.getKey(), entrada.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void agregarOActualizar(int idPreguntaBanco, String texto) {
+        lock.writeLock().lock();
+        try {
+            desindexar(idPreguntaBanco);
+            indexar(idPreguntaBanco, texto);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(int idPreguntaBanco) {
+        lock.writeLock().lock();
+        try {
+            desindexar(idPreguntaBanco);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Preguntas ya registradas cuya similitud con el texto es al menos umbral, de mayor a menor.
+    public List<Coincidencia> buscarSimilares(String texto, double umbral) {
+        int[] shingles = shingles(texto);
+        long[] claves = clavesBanda(firma(shingles));
+        List<Coincidencia> resultado = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Integer> candidatos = new HashSet<>();
+            for (int b = 0; b < BANDAS; b++) {
+                Set<Integer> enCubeta = cubetas.get(b).get(claves[b]);
+                if (enCubeta != null) {
+                    candidatos.addAll(enCubeta);
+                }
+            }
+            for (Integer candidato : candidatos) {
+                double similitud = jaccard(shingles, shinglesPorPregunta.get(candidato));
+                if (similitud >= umbral) {
+                    resultado.add(new Coincidencia(candidato, similitud));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        resultado.sort((a, b) -> Double.compare(b.getSimilitud(), a.getSimilitud()));
+        return resultado;
+    }
+
+    // Reporte de todo el banco: solo se comparan los pares que comparten alguna cubeta,
+    // así que el costo crece con el número de candidatos y no con n².
+    public List<ParSimilar> reporteDuplicados(double umbral) {
+        List<ParSimilar> pares = new ArrayList<>();
+        Set<Long> paresRevisados = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Map<Long, Set<Integer>> cubeta : cubetas) {
+                for (Set<Integer> miembros : cubeta.values()) {
+                    if (miembros.size() < 2) continue;
+                    Integer[] ids = miembros.toArray(new Integer[0]);
+                    Arrays.sort(ids);
+                    for (int i = 0; i < ids.length; i++) {
+                        for (int j = i + 1; j < ids.length; j++) {
+                            long clavePar = ((long) ids[i] << 32) | (ids[j] & 0xFFFFFFFFL);
+                            if (!paresRevisados.add(clavePar)) continue;
+                            double similitud = jaccard(shinglesPorPregunta.get(ids[i]), shinglesPorPregunta.get(ids[j]));
+                            if (similitud >= umbral) {
+                                pares.add(new ParSimilar(ids[i], ids[j], similitud));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        pares.sort((a, b) -> Double.compare(b.getSimilitud(), a.getSimilitud()));
+        return pares;
+    }
+
+    private void indexar(int idPreguntaBanco, String texto) {
+        int[] shingles = shingles(texto);
+        long[] claves = clavesBanda(firma(shingles));
+        shinglesPorPregunta.put(idPreguntaBanco, shingles);
+        clavesBandaPorPregunta.put(idPreguntaBanco, claves);
+        for (int b = 0; b < BANDAS; b++) {
+            cubetas.get(b).computeIfAbsent(claves[b], k -> new HashSet<>()).add(idPreguntaBanco);
+        }
+    }
+
+    private void desindexar(int idPreguntaBanco) {
+        shinglesPorPregunta.remove(idPreguntaBanco);
+        long[] claves = clavesBandaPorPregunta.remove(idPreguntaBanco);
+        if (claves == null) {
+            return;
+        }
+        for (int b = 0; b < BANDAS; b++) {
+            Set<Integer> enCubeta = cubetas.get(b).get(claves[b]);
+            if (enCubeta != null) {
+                enCubeta.remove(idPreguntaBanco);
+                if (enCubeta.isEmpty()) cubetas.get(b).remove(claves[b]);
+            }
+        }
+    }
+
+    // Shingles de caracteres sobre el texto normalizado, guardados como hashes ordenados y sin repetir.
+    private static int[] shingles(String texto) {
+        String normalizado = NormalizadorTexto.normalizar(texto);
+        if (normalizado.length() <= TAMANO_SHINGLE) {
+            return new int[]{normalizado.hashCode()};
+        }
+        int[] hashes = new int[normalizado.length() - TAMANO_SHINGLE + 1];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = normalizado.substring(i, i + TAMANO_SHINGLE).hashCode();
+        }
+        Arrays.sort(hashes);
+        int unicos = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (i == 0 || hashes[i] != hashes[i - 1]) {
+                hashes[unicos++] = hashes[i];
+            }
+        }
+        return Arrays.copyOf(hashes, unicos);
+    }
+
+    private static long[] firma(int[] shingles) {
+        long[] minimos = new long[NUM_HASHES];
+        Arrays.fill(minimos, Long.MAX_VALUE);
+        for (int shingle : shingles) {
+            for (int i = 0; i < NUM_HASHES; i++) {
+                long h = mezclar(shingle ^ SEMILLAS[i]);
+                if (h < minimos[i]) {
+                    minimos[i] = h;
+                }
+            }
+        }
+        return minimos;
+    }
+
+    private static long[] clavesBanda(long[] firma) {
+        long[] claves = new long[BANDAS];
+        for (int b = 0; b < BANDAS; b++) {
+            long clave = b;
+            for (int f = 0; f < FILAS_POR_BANDA; f++) {
+                clave = mezclar(clave * 31 + firma[b * FILAS_POR_BANDA + f]);
+            }
+            claves[b] = clave;
+        }
+        return claves;
+    }
+
+    private static double jaccard(int[] a, int[] b) {
+        if (a == null || b == null || a.length == 0 || b.length == 0) {
+            return 0.0;
+        }
+        int i = 0, j = 0, interseccion = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                interseccion++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return interseccion / (double) (a.length + b.length - interseccion);
+    }
+
+    // Finalizador de SplitMix64.
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,252 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.modelo.PreguntaBanco;
+import SteveJobs.encuestas.util.NormalizadorTexto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido en memoria sobre el texto de las preguntas del banco.
+// Cada término normalizado apunta a las preguntas que lo contienen; además se guarda
+// el diccionario de términos ordenado (para búsquedas por prefijo) y un índice de
+// trigramas de términos (para tolerar errores de tipeo).
+public class IndicePreguntasBanco {
+
+    private static final double PESO_EXACTO = 1.0;
+    private static final double PESO_PREFIJO = 0.6;
+    private static final double PESO_TRIGRAMA = 0.4;
+    private static final double SIMILITUD_MINIMA_TRIGRAMA = 0.4;
+    private static final int LONGITUD_MINIMA_PREFIJO = 2;
+    private static final int LONGITUD_MINIMA_TRIGRAMA = 4;
+
+    private final Map<Integer, PreguntaBanco> preguntas = new HashMap<>();
+    private final Map<Integer, List<String>> terminosPorPregunta = new HashMap<>();
+    private final TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> terminosPorTrigrama = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void cargar(List<PreguntaBanco> todas) {
+        lock.writeLock().lock();
+        try {
+            preguntas.clear();
+            terminosPorPregunta.clear();
+            postings.clear();
+            terminosPorTrigrama.clear();
+            for (PreguntaBanco pregunta : todas) {
+                indexar(pregunta);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void agregarOActualizar(PreguntaBanco pregunta) {
+        lock.writeLock().lock();
+        try {
+            desindexar(pregunta.getIdPreguntaBanco());
+            indexar(pregunta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(int idPreguntaBanco) {
+        lock.writeLock().lock();
+        try {
+            desindexar(idPreguntaBanco);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return preguntas.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // filtroTipo y filtroClasificacion aceptan el nombre (sin importar mayúsculas) o el ID.
+    // limite <= 0 devuelve todos los resultados.
+    public List<PreguntaBanco> buscar(String texto, String filtroTipo, String filtroClasificacion, int limite) {
+        List<String> terminosConsulta = NormalizadorTexto.tokenizar(texto);
+        lock.readLock().lock();
+        try {
+            List<PreguntaBanco> resultado = new ArrayList<>();
+            if (terminosConsulta.isEmpty()) {
+                List<Integer> ids = new ArrayList<>(preguntas.keySet());
+                ids.sort(null);
+                for (Integer id : ids) {
+                    PreguntaBanco pregunta = preguntas.get(id);
+                    if (cumpleFiltros(pregunta, filtroTipo, filtroClasificacion)) {
+                        resultado.add(pregunta);
+                        if (limite > 0 && resultado.size() >= limite) break;
+                    }
+                }
+                return resultado;
+            }
+
+            Map<Integer, Double> puntajes = null;
+            for (String termino : terminosConsulta) {
+                Map<Integer, Double> puntajesTermino = puntuarTermino(termino);
+                if (puntajes == null) {
+                    puntajes = puntajesTermino;
+                } else {
+                    // Todos los términos de la consulta deben coincidir (AND).
+                    Map<Integer, Double> combinados = new HashMap<>();
+                    for (Map.Entry<Integer, Double> entrada : puntajes.entrySet()) {
+                        Double otro = puntajesTermino.get(entrada.getKey());
+                        if (otro != null) {
+                            combinados.put(entrada.getKey(), entrada.getValue() + otro);
+                        }
+                    }
+                    puntajes = combinados;
+                }
+                if (puntajes.isEmpty()) {
+                    return resultado;
+                }
+            }
+
+            List<Map.Entry<Integer, Double>> ordenados = new ArrayList<>(puntajes.entrySet());
+            ordenados.sort((a, b) -> {
+                int comparacion = Double.compare(b.getValue(), a.getValue());
+                return comparacion != 0 ? comparacion : Integer.compare(a.getKey(), b.getKey());
+            });
+            for (Map.Entry<Integer, Double> entrada : ordenados) {
+                PreguntaBanco pregunta = preguntas.get(entrada.getKey());
+                if (cumpleFiltros(pregunta, filtroTipo, filtroClasificacion)) {
+                    resultado.add(pregunta);
+                    if (limite > 0 && resultado.size() >= limite) break;
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Puntaje de cada pregunta para un término de la consulta: coincidencia exacta, por prefijo
+    // o, si no hay ninguna de esas, por similitud de trigramas. Se pondera por idf.
+    private Map<Integer, Double> puntuarTermino(String termino) {
+        Map<Integer, Double> puntajes = new HashMap<>();
+        Map<Integer, Integer> exactos = postings.get(termino);
+        if (exactos != null) {
+            acumular(puntajes, exactos, PESO_EXACTO);
+        }
+        if (termino.length() >= LONGITUD_MINIMA_PREFIJO) {
+            SortedMap<String, Map<Integer, Integer>> conPrefijo = postings.subMap(termino, termino + Character.MAX_VALUE);
+            for (Map.Entry<String, Map<Integer, Integer>> entrada : conPrefijo.entrySet()) {
+                if (!entrada.getKey().equals(termino)) {
+                    acumular(puntajes, entrada.getValue(), PESO_PREFIJO);
+                }
+            }
+        }
+        if (puntajes.isEmpty() && termino.length() >= LONGITUD_MINIMA_TRIGRAMA) {
+            Set<String> trigramasConsulta = trigramas(termino);
+            Map<String, Integer> compartidos = new HashMap<>();
+            for (String trigrama : trigramasConsulta) {
+                Set<String> terminos = terminosPorTrigrama.get(trigrama);
+                if (terminos == null) continue;
+                for (String candidato : terminos) {
+                    compartidos.merge(candidato, 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> entrada : compartidos.entrySet()) {
+                int totalCandidato = Math.max(1, entrada.getKey().length() - 2);
+                double jaccard = entrada.getValue() / (double) (trigramasConsulta.size() + totalCandidato - entrada.getValue());
+                if (jaccard >= SIMILITUD_MINIMA_TRIGRAMA) {
+                    acumular(puntajes, postings.get(entrada.getKey()), PESO_TRIGRAMA * jaccard);
+                }
+            }
+        }
+        return puntajes;
+    }
+
+    private void acumular(Map<Integer, Double> puntajes, Map<Integer, Integer> posting, double peso) {
+        double idf = Math.log(1.0 + (double) preguntas.size() / posting.size());
+        for (Map.Entry<Integer, Integer> entrada : posting.entrySet()) {
+            double puntaje = peso * idf * (1.0 + Math.log(entrada.getValue()));
+            puntajes.merge(entrada.getKey(), puntaje, Math::max);
+        }
+    }
+
+    private boolean cumpleFiltros(PreguntaBanco pregunta, String filtroTipo, String filtroClasificacion) {
+        if (filtroTipo != null && !filtroTipo.trim().isEmpty()) {
+            String filtro = filtroTipo.trim();
+            if (!filtro.equalsIgnoreCase(pregunta.getNombreTipoPregunta())
+                    && !filtro.equals(String.valueOf(pregunta.getIdTipoPregunta()))) {
+                return false;
+            }
+        }
+        if (filtroClasificacion != null && !filtroClasificacion.trim().isEmpty()) {
+            String filtro = filtroClasificacion.trim();
+            if (!filtro.equalsIgnoreCase(pregunta.getNombreClasificacion())
+                    && (pregunta.getIdClasificacion() == null || !filtro.equals(String.valueOf(pregunta.getIdClasificacion())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void indexar(PreguntaBanco pregunta) {
+        int id = pregunta.getIdPreguntaBanco();
+        List<String> terminos = NormalizadorTexto.tokenizar(pregunta.getTextoPregunta());
+        preguntas.put(id, pregunta);
+        terminosPorPregunta.put(id, terminos);
+        for (String termino : terminos) {
+            Map<Integer, Integer> posting = postings.get(termino);
+            if (posting == null) {
+                posting = new HashMap<>();
+                postings.put(termino, posting);
+                for (String trigrama : trigramas(termino)) {
+                    terminosPorTrigrama.computeIfAbsent(trigrama, k -> new HashSet<>()).add(termino);
+                }
+            }
+            posting.merge(id, 1, Integer::sum);
+        }
+    }
+
+    private void desindexar(int idPreguntaBanco) {
+        List<String> terminos = terminosPorPregunta.remove(idPreguntaBanco);
+        preguntas.remove(idPreguntaBanco);
+        if (terminos == null) {
+            return;
+        }
+        for (String termino : terminos) {
+            Map<Integer, Integer> posting = postings.get(termino);
+            if (posting == null) continue;
+            posting.remove(idPreguntaBanco);
+            if (posting.isEmpty()) {
+                postings.remove(termino);
+                for (String trigrama : trigramas(termino)) {
+                    Set<String> conTrigrama = terminosPorTrigrama.get(trigrama);
+                    if (conTrigrama != null) {
+                        conTrigrama.remove(termino);
+                        if (conTrigrama.isEmpty()) terminosPorTrigrama.remove(trigrama);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigramas(String termino) {
+        Set<String> resultado = new HashSet<>();
+        if (termino.length() < 3) {
+            resultado.add(termino);
+            return resultado;
+        }
+        for (int i = 0; i + 3 <= termino.length(); i++) {
+            resultado.add(termino.substring(i, i + 3));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,159 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.BorradorRespuestaDAO;
+import SteveJobs.encuestas.dao.EncuestaDAO;
+import SteveJobs.encuestas.dao.EncuestaDetallePreguntaDAO;
+import SteveJobs.encuestas.dao.RespuestaUsuarioDAO;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+// Elimina en segundo plano las encuestas marcadas con borrado lógico: primero sus
+// respuestas, borradores y tokens de envío, luego sus preguntas y al final el encabezado,
+// en lotes pequeños con pausas entre ellos para no competir con las respuestas que se están
+// guardando. Una encuesta que no se puede depurar se salta y se reintenta con esperas cada
+// vez más largas, para que no frene a las que vienen después.
+public class PurgadorEncuestas {
+
+    private static final int TAMANO_LOTE = 1000;
+    private static final long PAUSA_ENTRE_LOTES_MS = 200;
+    private static final long INTERVALO_BARRIDO_MINUTOS = 10;
+    private static final int ENCUESTAS_POR_BARRIDO = 20;
+    private static final int DIAS_RETENCION_TOKENS_ENVIO = 7;
+    private static final int DIAS_RETENCION_BORRADORES = 30;
+    private static final int MAX_DUPLICACIONES_ESPERA = 6;
+
+    private static final EncuestaDAO encuestaDAO = new EncuestaDAO();
+    private static final EncuestaDetallePreguntaDAO encuestaDetalleDAO = new EncuestaDetallePreguntaDAO();
+    private static final RespuestaUsuarioDAO respuestaDAO = new RespuestaUsuarioDAO();
+    private static final BorradorRespuestaDAO borradorDAO = new BorradorRespuestaDAO();
+
+    private static final class Fallo {
+        private int intentos;
+        private long reintentarDesde;
+    }
+
+    // Encuestas cuya purga falló, con el momento a partir del cual se vuelven a intentar.
+    private static final Map<Integer, Fallo> fallidas = new ConcurrentHashMap<>();
+
+    private static final AtomicBoolean barridoEnCurso = new AtomicBoolean(false);
+    private static ScheduledExecutorService ejecutor;
+
+    public static synchronized void iniciar() {
+        if (ejecutor != null) {
+            return;
+        }
+        ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "purgador-encuestas");
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            return hilo;
+        });
+        ejecutor.scheduleWithFixedDelay(PurgadorEncuestas::barrer, 0, INTERVALO_BARRIDO_MINUTOS, TimeUnit.MINUTES);
+    }
+
+    public static synchronized void detener() {
+        if (ejecutor != null) {
+            ejecutor.shutdownNow();
+            ejecutor = null;
+        }
+    }
+
+    public static synchronized void solicitarPurga() {
+        iniciar();
+        ejecutor.execute(PurgadorEncuestas::barrer);
+    }
+
+    static void barrer() {
+        if (!barridoEnCurso.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            respuestaDAO.eliminarTokensEnvioAnterioresA(DIAS_RETENCION_TOKENS_ENVIO);
+            borradorDAO.eliminarBorradoresAnterioresA(DIAS_RETENCION_BORRADORES);
+            // Se piden también tantas como haya en espera, para que estas no ocupen el barrido.
+            int limite = ENCUESTAS_POR_BARRIDO + fallidas.size();
+            List<Integer> pendientes = encuestaDAO.obtenerIdsEncuestasPendientesDePurga(limite);
+            if (pendientes.size() < limite) {
+                // La lista está completa: las que ya no figuran se depuraron por otra vía.
+                fallidas.keySet().retainAll(new HashSet<>(pendientes));
+            }
+            long ahora = System.currentTimeMillis();
+            int intentadas = 0;
+            for (Integer idEncuesta : pendientes) {
+                if (Thread.currentThread().isInterrupted() || intentadas == ENCUESTAS_POR_BARRIDO) {
+                    break;
+                }
+                Fallo fallo = fallidas.get(idEncuesta);
+                if (fallo != null && ahora < fallo.reintentarDesde) {
+                    continue;
+                }
+                intentadas++;
+                if (purgarEncuesta(idEncuesta)) {
+                    fallidas.remove(idEncuesta);
+                } else if (!Thread.currentThread().isInterrupted()) {
+                    registrarFallo(idEncuesta);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Purgador: Error inesperado durante el barrido: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            barridoEnCurso.set(false);
+        }
+    }
+
+    private static void registrarFallo(int idEncuesta) {
+        Fallo fallo = fallidas.computeIfAbsent(idEncuesta, id -> new Fallo());
+        fallo.intentos++;
+        long esperaMinutos = INTERVALO_BARRIDO_MINUTOS << Math.min(fallo.intentos - 1, MAX_DUPLICACIONES_ESPERA);
+        fallo.reintentarDesde = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(esperaMinutos);
+        System.err.println("Purgador: No se pudo depurar la encuesta ID " + idEncuesta + " (intento " + fallo.intentos
+                + "); se reintentará en " + esperaMinutos + " minutos.");
+    }
+
+    private static boolean purgarEncuesta(int idEncuesta) {
+        System.out.println("Purgador: Depurando encuesta eliminada ID " + idEncuesta);
+        // Por si una sesión abierta siguió anotando respuestas tras el borrado lógico.
+        AlmacenBorradores.olvidarEncuesta(idEncuesta);
+        long respuestasEliminadas = vaciarPorLotes(() -> respuestaDAO.eliminarRespuestasDeEncuestaPorLote(idEncuesta, TAMANO_LOTE));
+        if (respuestasEliminadas < 0
+                || vaciarPorLotes(() -> borradorDAO.eliminarBorradoresDeEncuestaPorLote(idEncuesta, TAMANO_LOTE)) < 0
+                || vaciarPorLotes(() -> respuestaDAO.eliminarTokensEnvioDeEncuestaPorLote(idEncuesta, TAMANO_LOTE)) < 0
+                || vaciarPorLotes(() -> encuestaDetalleDAO.eliminarPreguntasDeEncuestaPorLote(idEncuesta, TAMANO_LOTE)) < 0) {
+            return false;
+        }
+        boolean exito = encuestaDAO.eliminarEncuesta(idEncuesta);
+        System.out.println("Purgador: Encuesta ID " + idEncuesta + (exito ? " depurada" : " no se pudo depurar") + " (" + respuestasEliminadas + " respuestas eliminadas).");
+        return exito;
+    }
+
+    // Repite el borrado de un lote hasta que no quede nada. Devuelve el total borrado, o -1 si
+    // un lote falló o el hilo fue interrumpido.
+    private static long vaciarPorLotes(IntSupplier lote) {
+        long total = 0;
+        int eliminadas;
+        while ((eliminadas = lote.getAsInt()) > 0) {
+            total += eliminadas;
+            if (!pausar()) return -1;
+        }
+        return eliminadas < 0 ? -1 : total;
+    }
+
+    private static boolean pausar() {
+        try {
+            Thread.sleep(PAUSA_ENTRE_LOTES_MS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.UsuarioDAO;
+import SteveJobs.encuestas.util.FiltroBloom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Filtro de Bloom con los emails registrados. Si dice que un email no está, seguro que no
+// está y el registro no necesita consultar la BD; si dice que quizás está (coincidencia real o
+// ~1% de falsos positivos) se hace la búsqueda exacta. Se carga en segundo plano al iniciar;
+// hasta entonces todo email se trata como "quizás" y se consulta en la BD como antes.
+public class RegistroEmails {
+
+    private static final int CAPACIDAD_MINIMA = 100000;
+    private static final double PROBABILIDAD_FALSO_POSITIVO = 0.01;
+
+    private static final UsuarioDAO usuarioDAO = new UsuarioDAO();
+    private static final Object candado = new Object();
+
+    private static volatile FiltroBloom filtro;
+    private static int capacidad;
+    private static int agregados;
+    // Emails registrados mientras se arma un filtro nuevo; se le agregan antes de publicarlo.
+    private static List<String> agregadosDuranteCarga;
+
+    private RegistroEmails() {
+    }
+
+    public static void iniciar() {
+        reconstruirEnSegundoPlano();
+    }
+
+    public static boolean puedeExistir(String email) {
+        FiltroBloom actual = filtro;
+        return actual == null || actual.contieneQuizas(normalizar(email));
+    }
+
+    public static void agregar(String email) {
+        String clave = normalizar(email);
+        boolean reconstruir = false;
+        synchronized (candado) {
+            if (agregadosDuranteCarga != null) {
+                agregadosDuranteCarga.add(clave);
+            }
+            if (filtro != null) {
+                filtro.agregar(clave);
+                // Pasada la capacidad prevista los falsos positivos crecen rápido.
+                reconstruir = ++agregados > capacidad && agregadosDuranteCarga == null;
+            }
+        }
+        if (reconstruir) {
+            reconstruirEnSegundoPlano();
+        }
+    }
+
+    static void reconstruir() {
+        synchronized (candado) {
+            if (agregadosDuranteCarga != null) {
+                return;
+            }
+            agregadosDuranteCarga = new ArrayList<>();
+        }
+        List<String> emails = usuarioDAO.obtenerTodosLosEmails();
+        synchronized (candado) {
+            List<String> recientes = agregadosDuranteCarga;
+            agregadosDuranteCarga = null;
+            if (emails == null) {
+                System.err.println("RegistroEmails: No se pudo cargar el filtro de emails; se consultará la BD en cada registro.");
+                return;
+            }
+            int nuevaCapacidad = Math.max(CAPACIDAD_MINIMA, (emails.size() + recientes.size()) * 2);
+            FiltroBloom nuevo = new FiltroBloom(nuevaCapacidad, PROBABILIDAD_FALSO_POSITIVO);
+            for (String email : emails) {
+                nuevo.agregar(normalizar(email));
+            }
+            for (String email : recientes) {
+                nuevo.agregar(email);
+            }
+            filtro = nuevo;
+            capacidad = nuevaCapacidad;
+            agregados = emails.size() + recientes.size();
+        }
+        System.out.println("RegistroEmails: Filtro de emails cargado con " + emails.size() + " emails.");
+    }
+
+    private static void reconstruirEnSegundoPlano() {
+        Thread hilo = new Thread(RegistroEmails::reconstruir, "carga-filtro-emails");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private static String normalizar(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.RespuestaUsuarioDAO;
+import SteveJobs.encuestas.util.ConjuntoEnterosDisperso;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Usuarios que ya participaron en cada encuesta, para rechazar un segundo envío sin consultar
+// la BD. El conjunto de cada encuesta se lee de respuestas_usuarios la primera vez que se
+// necesita. El índice único de respuestas_usuarios sigue siendo la última barrera.
+public class RegistroParticipantes {
+
+    private static final ConcurrentHashMap<Integer, ConjuntoEnterosDisperso> porEncuesta = new ConcurrentHashMap<>();
+    private static final RespuestaUsuarioDAO respuestaDAO = new RespuestaUsuarioDAO();
+
+    private RegistroParticipantes() {
+    }
+
+    public static boolean yaParticipo(int idEncuesta, int idUsuario) {
+        ConjuntoEnterosDisperso participantes = obtenerConjunto(idEncuesta);
+        if (participantes == null) {
+            return false;
+        }
+        synchronized (participantes) {
+            return participantes.contiene(idUsuario);
+        }
+    }
+
+    // Marca al usuario como participante. Devuelve false si ya estaba marcado, o si no se
+    // pudo leer la encuesta de la BD; en ese caso no se arriesga a aceptar un duplicado.
+    public static boolean registrarSiEsNuevo(int idEncuesta, int idUsuario) {
+        ConjuntoEnterosDisperso participantes = obtenerConjunto(idEncuesta);
+        if (participantes == null) {
+            return false;
+        }
+        synchronized (participantes) {
+            return participantes.agregar(idUsuario);
+        }
+    }
+
+    // Deshace registrarSiEsNuevo cuando la participación no se llegó a guardar.
+    public static void quitar(int idEncuesta, int idUsuario) {
+        ConjuntoEnterosDisperso participantes = porEncuesta.get(idEncuesta);
+        if (participantes != null) {
+            synchronized (participantes) {
+                participantes.quitar(idUsuario);
+            }
+        }
+    }
+
+    public static void olvidarEncuesta(int idEncuesta) {
+        porEncuesta.remove(idEncuesta);
+    }
+
+    // La lectura se hace fuera del mapa para no bloquear a otras encuestas; si dos hilos la
+    // cargan a la vez, se queda la primera que se guardó.
+    private static ConjuntoEnterosDisperso obtenerConjunto(int idEncuesta) {
+        ConjuntoEnterosDisperso existente = porEncuesta.get(idEncuesta);
+        if (existente != null) {
+            return existente;
+        }
+        List<Integer> ids = respuestaDAO.obtenerIdsParticipantes(idEncuesta);
+        if (ids == null) {
+            System.err.println("RegistroParticipantes: No se pudieron leer los participantes de la encuesta ID " + idEncuesta + ".");
+            return null;
+        }
+        ConjuntoEnterosDisperso cargado = new ConjuntoEnterosDisperso();
+        for (Integer id : ids) {
+            cargado.agregar(id);
+        }
+        existente = porEncuesta.putIfAbsent(idEncuesta, cargado);
+        return existente != null ? existente : cargado;
+    }
+}
@@ -4,11 +4,29 @@ Autor: Gian Fri
 */
 package SteveJobs.encuestas.servicio;
 
+import SteveJobs.encuestas.modelo.ResultadoAutenticacion;
 import SteveJobs.encuestas.modelo.Usuario;
 import SteveJobs.encuestas.dao.UsuarioDAO;
+import SteveJobs.encuestas.util.HashContrasena;
+import SteveJobs.encuestas.util.LimitadorIntentos;
+
+import java.util.Locale;
 
 public class ServicioAutenticacion {
 
+    private static final long MINUTO_MS = 60L * 1000;
+
+    // Por cuenta: 5 fallos en 15 minutos bloquean 30 s, luego 1, 2, 4... minutos (máx. 1 h).
+    // Por origen el umbral es más alto porque varias personas pueden compartirlo.
+    private static final LimitadorIntentos intentosPorEmail = new LimitadorIntentos(5, 15 * MINUTO_MS, 30 * 1000, 60 * MINUTO_MS, 24 * 60 * MINUTO_MS);
+    private static final LimitadorIntentos intentosPorOrigen = new LimitadorIntentos(30, 15 * MINUTO_MS, MINUTO_MS, 60 * MINUTO_MS, 24 * 60 * MINUTO_MS);
+
+    // Hash contra el que se verifica cuando el email no existe, para que esa respuesta tarde lo
+    // mismo que una contraseña incorrecta. Se calcula la primera vez que hace falta.
+    private static final class HashFicticio {
+        private static final String VALOR = HashContrasena.hashear(Long.toHexString(System.nanoTime()));
+    }
+
     private UsuarioDAO usuarioDAO;
 
 
@@ -17,26 +35,130 @@ public class ServicioAutenticacion {
     }
 
     public Usuario autenticar(String email, String password) {
+        return autenticar(email, password, null);
+    }
+
+    // origen identifica de dónde viene el intento (p. ej. la IP en una API); puede ser null.
+    public Usuario autenticar(String email, String password, String origen) {
+        return autenticarConResultado(email, password, origen).getUsuario();
+    }
+
+    // Igual que autenticar, pero distingue credenciales inválidas, cuenta bloqueada y servidor
+    // ocupado para que la interfaz muestre el mensaje que corresponde.
+    public ResultadoAutenticacion autenticarConResultado(String email, String password, String origen) {
 
         if (email == null || email.trim().isEmpty()) {
             System.err.println("Error de autenticación: El email no puede estar vacío.");
-            return null;
+            return new ResultadoAutenticacion(ResultadoAutenticacion.Estado.CREDENCIALES_INVALIDAS, null, 0);
         }
         if (password == null || password.isEmpty()) {
 
             System.err.println("Error de autenticación: El password no puede estar vacío.");
-            return null;
+            return new ResultadoAutenticacion(ResultadoAutenticacion.Estado.CREDENCIALES_INVALIDAS, null, 0);
         }
 
 
+        // Los intentos bloqueados se rechazan sin llegar a la BD ni al pool de hashes. Cada
+        // intento se anota como fallo al comprobarlo (en el mismo paso, para que intentos
+        // simultáneos no pasen todos) y se descuenta si resulta válido.
+        String claveEmail = claveEmail(email);
+        long esperaMs = origen != null ? intentosPorOrigen.registrarIntento(origen) : 0;
+        if (esperaMs == 0) {
+            esperaMs = intentosPorEmail.registrarIntento(claveEmail);
+        }
+        if (esperaMs > 0) {
+            System.out.println("Autenticación rechazada por exceso de intentos para: " + email + " (reintentar en " + ((esperaMs + 999) / 1000) + " s).");
+            return new ResultadoAutenticacion(ResultadoAutenticacion.Estado.BLOQUEADA, null, (esperaMs + 999) / 1000);
+        }
+
         System.out.println("Intentando autenticar al usuario: " + email);
-        Usuario usuarioAutenticado = usuarioDAO.validarUsuario(email, password);
+        ResultadoAutenticacion resultado = validarCredenciales(email, password);
+
+        switch (resultado.getEstado()) {
+            case EXITOSA:
+                System.out.println("Autenticación exitosa para: " + email);
+                intentosPorEmail.reiniciar(claveEmail);
+                if (origen != null) {
+                    intentosPorOrigen.descontarIntento(origen);
+                }
+                break;
+            case SERVICIO_OCUPADO:
+                // No se sabe si la contraseña era correcta: el intento no cuenta como fallo.
+                System.out.println("Autenticación no verificada por carga del servidor para: " + email);
+                intentosPorEmail.descontarIntento(claveEmail);
+                if (origen != null) {
+                    intentosPorOrigen.descontarIntento(origen);
+                }
+                break;
+            default:
+                System.out.println("Autenticación fallida para: " + email);
+                long bloqueoMs = intentosPorEmail.milisegundosDeBloqueo(claveEmail);
+                if (bloqueoMs > 0) {
+                    System.out.println("Cuenta bloqueada temporalmente por intentos fallidos: " + email);
+                    return new ResultadoAutenticacion(ResultadoAutenticacion.Estado.BLOQUEADA, null, (bloqueoMs + 999) / 1000);
+                }
+                break;
+        }
+        return resultado;
+    }
 
-        if (usuarioAutenticado != null) {
-            System.out.println("Autenticación exitosa para: " + email);
-        } else {
-            System.out.println("Autenticación fallida para: " + email);
+    // Segundos que le faltan a la cuenta para poder volver a intentar; 0 si no está bloqueada.
+    public long segundosDeBloqueo(String email) {
+        if (email == null) {
+            return 0;
         }
-        return usuarioAutenticado;
+        return (intentosPorEmail.milisegundosDeBloqueo(claveEmail(email)) + 999) / 1000;
+    }
+
+    private static String claveEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private ResultadoAutenticacion validarCredenciales(String email, String password) {
+        Usuario usuario = usuarioDAO.obtenerCredencialesPorEmail(email);
+        if (usuario == null) {
+            // Se verifica igual contra un hash ficticio para no revelar por el tiempo de
+            // respuesta qué emails están registrados.
+            VerificadorContrasenas.Verificacion ficticia = VerificadorContrasenas.verificarConEstado(password, HashFicticio.VALOR);
+            return ficticia == VerificadorContrasenas.Verificacion.OCUPADO
+                    ? new ResultadoAutenticacion(ResultadoAutenticacion.Estado.SERVICIO_OCUPADO, null, 0)
+                    : new ResultadoAutenticacion(ResultadoAutenticacion.Estado.CREDENCIALES_INVALIDAS, null, 0);
+        }
+        String almacenado = usuario.getPassword();
+        usuario.setPassword(null);
+        VerificadorContrasenas.Verificacion verificacion = VerificadorContrasenas.verificarConEstado(password, almacenado);
+        if (verificacion == VerificadorContrasenas.Verificacion.OCUPADO) {
+            return new ResultadoAutenticacion(ResultadoAutenticacion.Estado.SERVICIO_OCUPADO, null, 0);
+        }
+        if (verificacion != VerificadorContrasenas.Verificacion.CORRECTA) {
+            return new ResultadoAutenticacion(ResultadoAutenticacion.Estado.CREDENCIALES_INVALIDAS, null, 0);
+        }
+        if (!"Activo".equalsIgnoreCase(usuario.getEstadoCuenta())) {
+            System.out.println("Intento de login para usuario inactivo: " + email);
+            return new ResultadoAutenticacion(ResultadoAutenticacion.Estado.CREDENCIALES_INVALIDAS, null, 0);
+        }
+        // Contraseñas en texto plano o con un costo menor al actual se migran aquí, que es el
+        // único momento en que se conoce la contraseña.
+        if (HashContrasena.necesitaRehash(almacenado)) {
+            String nuevoHash = VerificadorContrasenas.hashear(password);
+            if (nuevoHash != null && usuarioDAO.actualizarPassword(usuario.getIdUsuario(), almacenado, nuevoHash)) {
+                System.out.println("Contraseña migrada al hash actual para: " + email);
+            }
+        }
+        return new ResultadoAutenticacion(ResultadoAutenticacion.Estado.EXITOSA, usuario, 0);
+    }
+
+    // Autentica y abre una sesión. Devuelve el token, o null si las credenciales no son válidas.
+    public String iniciarSesion(String email, String password) {
+        Usuario usuario = autenticar(email, password);
+        return usuario != null ? ServicioSesiones.emitirToken(usuario) : null;
+    }
+
+    public Usuario obtenerUsuarioDeSesion(String token) {
+        return ServicioSesiones.obtenerUsuario(token);
+    }
+
+    public void cerrarSesion(String token) {
+        ServicioSesiones.cerrarSesion(token);
     }
 }
\ No newline at end of file
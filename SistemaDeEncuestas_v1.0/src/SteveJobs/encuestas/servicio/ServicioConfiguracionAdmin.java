@@ -26,7 +26,11 @@ public class ServicioConfiguracionAdmin {
         }
 
         PreguntaRegistro nuevaPregunta = new PreguntaRegistro(texto, tipoRespuesta, opcionesPosibles, esObligatoria, ordenVisualizacion, "ACTIVA");
-        return preguntaRegistroDAO.agregarPreguntaRegistro(nuevaPregunta);
+        boolean creada = preguntaRegistroDAO.agregarPreguntaRegistro(nuevaPregunta);
+        if (creada) {
+            CatalogoFormularioRegistro.invalidar();
+        }
+        return creada;
     }
 
     public List<PreguntaRegistro> listarPreguntasRegistro() {
@@ -40,10 +44,20 @@ public class ServicioConfiguracionAdmin {
         }
         PreguntaRegistro pregunta = new PreguntaRegistro(texto, tipoRespuesta, opcionesPosibles, esObligatoria, ordenVisualizacion, estado);
         pregunta.setIdPreguntaRegistro(id);
-        return preguntaRegistroDAO.actualizarPreguntaRegistro(pregunta);
+        boolean actualizada = preguntaRegistroDAO.actualizarPreguntaRegistro(pregunta);
+        if (actualizada) {
+            CatalogoFormularioRegistro.invalidar();
+            AlmacenAtributosUsuario.invalidar(id);
+        }
+        return actualizada;
     }
 
     public boolean eliminarPreguntaRegistro(int id) {
-        return preguntaRegistroDAO.eliminarPreguntaRegistro(id);
+        boolean eliminada = preguntaRegistroDAO.eliminarPreguntaRegistro(id);
+        if (eliminada) {
+            CatalogoFormularioRegistro.invalidar();
+            AlmacenAtributosUsuario.invalidar(id);
+        }
+        return eliminada;
     }
 }
\ No newline at end of file
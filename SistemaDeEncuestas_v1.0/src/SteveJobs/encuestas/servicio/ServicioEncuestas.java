@@ -8,11 +8,15 @@ import SteveJobs.encuestas.dao.EncuestaDetallePreguntaDAO;
 import SteveJobs.encuestas.dao.PreguntaBancoDAO;
 import SteveJobs.encuestas.dao.TipoPreguntaDAO;
 import SteveJobs.encuestas.dao.ClasificacionPreguntaDAO;
+import SteveJobs.encuestas.modelo.DefinicionEncuestaBinaria;
+import SteveJobs.encuestas.modelo.DefinicionEncuestaPublicada;
 import SteveJobs.encuestas.modelo.Encuesta;
 import SteveJobs.encuestas.modelo.EncuestaDetallePregunta;
+import SteveJobs.encuestas.modelo.Pagina;
 import SteveJobs.encuestas.modelo.PreguntaBanco;
 import SteveJobs.encuestas.modelo.TipoPregunta;
 import SteveJobs.encuestas.modelo.ClasificacionPregunta;
+import SteveJobs.encuestas.modelo.ResultadoCambioEstado;
 import SteveJobs.encuestas.modelo.Usuario;
 
 import java.sql.Timestamp;
@@ -21,9 +25,14 @@ import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Date;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 
 public class ServicioEncuestas {
+    public static final int MAX_PREGUNTAS_POR_ENCUESTA = 12;
+    public static final int TAMANO_MAXIMO_PAGINA = 200;
+
     private EncuestaDAO encuestaDAO;
     private EncuestaDetallePreguntaDAO encuestaDetalleDAO;
     private PreguntaBancoDAO preguntaBancoDAO;
@@ -85,6 +94,19 @@ public class ServicioEncuestas {
         return encuestaDAO.obtenerTodasLasEncuestas();
     }
 
+    // cursor null pide la primera página. estado y texto vacíos no filtran.
+    public Pagina<Encuesta> obtenerPaginaEncuestas(String cursor, int tamano, String estado, String texto) {
+        return encuestaDAO.obtenerPaginaEncuestas(cursor, ajustarTamanoPagina(tamano), filtroOpcional(estado), filtroOpcional(texto));
+    }
+
+    static int ajustarTamanoPagina(int tamano) {
+        return Math.max(1, Math.min(TAMANO_MAXIMO_PAGINA, tamano));
+    }
+
+    static String filtroOpcional(String filtro) {
+        return filtro == null || filtro.trim().isEmpty() ? null : filtro.trim();
+    }
+
 
     public boolean modificarMetadatosEncuesta(int idEncuesta, String nuevoNombre, String nuevaDescripcion, Timestamp nuevaFechaInicio, Timestamp nuevaFechaFin, int nuevoPublicoObj, String nuevoPerfilDef) {
         Encuesta encuesta = encuestaDAO.obtenerEncuestaPorId(idEncuesta);
@@ -92,101 +114,142 @@ public class ServicioEncuestas {
             System.err.println("Servicio: Encuesta con ID " + idEncuesta + " no encontrada para modificar.");
             return false;
         }
+        return modificarMetadatosEncuesta(encuesta, nuevoNombre, nuevaDescripcion, nuevaFechaInicio, nuevaFechaFin, nuevoPublicoObj, nuevoPerfilDef) > 0;
+    }
 
-        boolean modificado = false;
+    // Compara contra la encuesta que el llamador leyó y envía solo las columnas que cambiaron,
+    // condicionadas a que la versión no haya cambiado. Devuelve la nueva versión,
+    // EncuestaDAO.CONFLICTO_VERSION si otro administrador la modificó antes, o -1 si los datos no son válidos.
+    public int modificarMetadatosEncuesta(Encuesta encuestaLeida, String nuevoNombre, String nuevaDescripcion, Timestamp nuevaFechaInicio, Timestamp nuevaFechaFin, int nuevoPublicoObj, String nuevoPerfilDef) {
+        if (encuestaLeida == null) {
+            System.err.println("Servicio: No se indicó la encuesta a modificar.");
+            return -1;
+        }
+
+        Map<String, Object> cambios = new LinkedHashMap<>();
 
         if (nuevoNombre != null && !nuevoNombre.trim().isEmpty()) {
-            if (!nuevoNombre.trim().equals(encuesta.getNombreEncuesta())) {
-                encuesta.setNombreEncuesta(nuevoNombre.trim());
-                modificado = true;
+            if (!nuevoNombre.trim().equals(encuestaLeida.getNombreEncuesta())) {
+                cambios.put("nombre_encuesta", nuevoNombre.trim());
             }
         }
         if (nuevaDescripcion != null) {
-            if (!nuevaDescripcion.equals(encuesta.getDescripcion())) {
-                encuesta.setDescripcion(nuevaDescripcion);
-                modificado = true;
+            if (!nuevaDescripcion.equals(encuestaLeida.getDescripcion())) {
+                cambios.put("descripcion", nuevaDescripcion);
             }
         }
 
-        if (nuevaFechaInicio != null) {
-            if (!nuevaFechaInicio.equals(encuesta.getFechaInicioVigencia())) {
-                encuesta.setFechaInicioVigencia(nuevaFechaInicio);
-                modificado = true;
-            }
-        }
-        if (nuevaFechaFin != null) {
-            if (!nuevaFechaFin.equals(encuesta.getFechaFinVigencia())) {
-                encuesta.setFechaFinVigencia(nuevaFechaFin);
-                modificado = true;
-            }
-        }
-
-        if (encuesta.getFechaInicioVigencia() == null || encuesta.getFechaFinVigencia() == null) {
+        Timestamp fechaInicio = nuevaFechaInicio != null ? nuevaFechaInicio : encuestaLeida.getFechaInicioVigencia();
+        Timestamp fechaFin = nuevaFechaFin != null ? nuevaFechaFin : encuestaLeida.getFechaFinVigencia();
+        if (fechaInicio == null || fechaFin == null) {
              System.err.println("Servicio: Las fechas de inicio y fin no pueden ser nulas después de la modificación si se intentó establecer una.");
-             return false;
+             return -1;
         }
-        
-        if (encuesta.getFechaFinVigencia().before(encuesta.getFechaInicioVigencia())) {
+        if (fechaFin.before(fechaInicio)) {
             System.err.println("Servicio: La fecha de fin no puede ser anterior a la fecha de inicio.");
-            return false;
+            return -1;
+        }
+        if (!fechaInicio.equals(encuestaLeida.getFechaInicioVigencia())) {
+            cambios.put("fecha_inicio_vigencia", fechaInicio);
+        }
+        if (!fechaFin.equals(encuestaLeida.getFechaFinVigencia())) {
+            cambios.put("fecha_fin_vigencia", fechaFin);
         }
 
-        if (nuevoPublicoObj >= 0) {
-            if (nuevoPublicoObj != encuesta.getPublicoObjetivoCantidad()) {
-                encuesta.setPublicoObjetivoCantidad(nuevoPublicoObj);
-                modificado = true;
-            }
-        } else {
+        if (nuevoPublicoObj < 0) {
              System.err.println("Servicio: Público objetivo debe ser un número no negativo.");
-             return false;
+             return -1;
+        }
+        if (nuevoPublicoObj != encuestaLeida.getPublicoObjetivoCantidad()) {
+            cambios.put("publico_objetivo_cantidad", nuevoPublicoObj);
         }
-        
+
         if (nuevoPerfilDef != null) {
-            if(!nuevoPerfilDef.equals(encuesta.getDefinicionPerfil())) {
-                encuesta.setDefinicionPerfil(nuevoPerfilDef);
-                modificado = true;
+            if (!nuevoPerfilDef.equals(encuestaLeida.getDefinicionPerfil())) {
+                cambios.put("definicion_perfil", nuevoPerfilDef);
             }
         }
-        
-        if (modificado) {
-            return encuestaDAO.actualizarEncuesta(encuesta);
+
+        if (cambios.isEmpty()) {
+            return encuestaLeida.getVersion() > 0 ? encuestaLeida.getVersion() : 1;
         }
-        return true; 
+
+        int nuevaVersion = encuestaDAO.actualizarCamposEncuesta(encuestaLeida.getIdEncuesta(), encuestaLeida.getVersion(), cambios);
+        if (nuevaVersion == EncuestaDAO.CONFLICTO_VERSION) {
+            System.err.println("Servicio: La encuesta ID " + encuestaLeida.getIdEncuesta() + " fue modificada por otro usuario (versión leída " + encuestaLeida.getVersion() + "). No se sobrescribieron los cambios.");
+        } else if (nuevaVersion > 0) {
+            if (cambios.containsKey("nombre_encuesta")) encuestaLeida.setNombreEncuesta((String) cambios.get("nombre_encuesta"));
+            if (cambios.containsKey("descripcion")) encuestaLeida.setDescripcion((String) cambios.get("descripcion"));
+            encuestaLeida.setFechaInicioVigencia(fechaInicio);
+            encuestaLeida.setFechaFinVigencia(fechaFin);
+            encuestaLeida.setPublicoObjetivoCantidad(nuevoPublicoObj);
+            if (cambios.containsKey("definicion_perfil")) encuestaLeida.setDefinicionPerfil((String) cambios.get("definicion_perfil"));
+            encuestaLeida.setVersion(nuevaVersion);
+            // Vigencia, cuota y perfil forman parte de la definición que ven los encuestados.
+            // publicar relee el estado actual y retira la encuesta si no está activa.
+            CatalogoEncuestasPublicadas.publicar(encuestaLeida.getIdEncuesta());
+        }
+        return nuevaVersion;
     }
 
     public boolean cambiarEstadoEncuesta(int idEncuesta, String nuevoEstado) {
-        Encuesta encuesta = encuestaDAO.obtenerEncuestaPorId(idEncuesta);
-        if (encuesta == null) {
-            System.err.println("Servicio: Encuesta con ID " + idEncuesta + " no encontrada.");
-            return false;
+        ResultadoCambioEstado resultado = cambiarEstadoEncuestaConMotivo(idEncuesta, nuevoEstado);
+        if (!resultado.isAplicado()) {
+            System.err.println("Servicio: No se puede cambiar la encuesta ID " + idEncuesta + " a " + nuevoEstado + ". " + resultado.getMensaje());
         }
+        return resultado.isAplicado();
+    }
 
-        if ("Activa".equalsIgnoreCase(nuevoEstado)) {
-            if (encuestaDetalleDAO.contarPreguntasEnEncuesta(idEncuesta) != 12) {
-                System.err.println("Servicio: No se puede activar. La encuesta debe tener exactamente 12 preguntas asociadas.");
-                return false;
-            }
-            if (encuesta.getDefinicionPerfil() == null || encuesta.getDefinicionPerfil().trim().isEmpty()){
-                 System.err.println("Servicio: No se puede activar. La encuesta debe tener un perfil definido.");
-                return false;
-            }
-            if (encuesta.getFechaFinVigencia().before(new Timestamp(System.currentTimeMillis()))){
-                System.err.println("Servicio: No se puede activar. La fecha de fin de la encuesta ya pasó.");
-                return false;
-            }
+    public ResultadoCambioEstado cambiarEstadoEncuestaConMotivo(int idEncuesta, String nuevoEstado) {
+        List<Integer> ids = new ArrayList<>();
+        ids.add(idEncuesta);
+        ResultadoCambioEstado resultado = cambiarEstadoEncuestas(ids, nuevoEstado).get(idEncuesta);
+        if (resultado == null) {
+            // cambiarEstadoEncuestas no devuelve nada para un estado vacío ni para un id que no procesó.
+            ResultadoCambioEstado.Motivo motivo = (nuevoEstado == null || nuevoEstado.trim().isEmpty())
+                    ? ResultadoCambioEstado.Motivo.ESTADO_INVALIDO : ResultadoCambioEstado.Motivo.NO_ENCONTRADA;
+            return new ResultadoCambioEstado(idEncuesta, nuevoEstado, motivo);
         }
+        return resultado;
+    }
 
-        encuesta.setEstado(nuevoEstado);
-        return encuestaDAO.actualizarEstadoEncuesta(idEncuesta, nuevoEstado);
+    public Map<Integer, ResultadoCambioEstado> cambiarEstadoEncuestas(List<Integer> idsEncuesta, String nuevoEstado) {
+        if (nuevoEstado == null || nuevoEstado.trim().isEmpty()) {
+            System.err.println("Servicio: El nuevo estado no puede estar vacío.");
+            return new LinkedHashMap<>();
+        }
+        Map<Integer, ResultadoCambioEstado> resultados = encuestaDAO.cambiarEstadoEncuestas(idsEncuesta, nuevoEstado.trim(), MAX_PREGUNTAS_POR_ENCUESTA);
+        // Al activar se publica una nueva definición para los encuestados; cualquier otro estado la retira.
+        for (ResultadoCambioEstado resultado : resultados.values()) {
+            if (!resultado.isAplicado()) continue;
+            if ("Activa".equalsIgnoreCase(resultado.getEstadoSolicitado())) {
+                CatalogoEncuestasPublicadas.publicar(resultado.getIdEncuesta());
+            } else {
+                CatalogoEncuestasPublicadas.retirar(resultado.getIdEncuesta());
+            }
+        }
+        return resultados;
     }
 
-    public boolean eliminarEncuesta(int idEncuesta) {
+    public DefinicionEncuestaPublicada obtenerDefinicionPublicada(int idEncuesta) {
+        return CatalogoEncuestasPublicadas.obtener(idEncuesta);
+    }
 
-        System.out.println("Servicio: Intentando eliminar preguntas asociadas a encuesta ID " + idEncuesta);
-        boolean preguntasEliminadas = encuestaDetalleDAO.eliminarTodasPreguntasDeEncuesta(idEncuesta);
+    public DefinicionEncuestaBinaria obtenerDefinicionCodificada(int idEncuesta, String etagCliente) {
+        return CatalogoEncuestasPublicadas.obtenerCodificada(idEncuesta, etagCliente);
+    }
 
-        System.out.println("Servicio: Eliminando encuesta ID " + idEncuesta);
-        return encuestaDAO.eliminarEncuesta(idEncuesta);
+    public boolean eliminarEncuesta(int idEncuesta) {
+        System.out.println("Servicio: Marcando encuesta ID " + idEncuesta + " como eliminada.");
+        if (!encuestaDAO.marcarEncuestaEliminada(idEncuesta)) {
+            System.err.println("Servicio: La encuesta ID " + idEncuesta + " no existe o ya fue eliminada.");
+            return false;
+        }
+        CatalogoEncuestasPublicadas.retirar(idEncuesta);
+        RegistroParticipantes.olvidarEncuesta(idEncuesta);
+        AlmacenBorradores.olvidarEncuesta(idEncuesta);
+        PurgadorEncuestas.solicitarPurga();
+        return true;
     }
 
     public List<Encuesta> obtenerEncuestasActivasParaUsuario(Usuario usuario) {
@@ -204,10 +267,6 @@ public class ServicioEncuestas {
 
 
     public boolean asociarPreguntaDelBancoAEncuesta(int idEncuesta, int idPreguntaBanco, int orden, boolean esDescarte, String criterioDescarte) {
-        if (encuestaDetalleDAO.contarPreguntasEnEncuesta(idEncuesta) >= 12) {
-            System.err.println("Servicio: La encuesta ID " + idEncuesta + " ya tiene 12 preguntas.");
-            return false;
-        }
         PreguntaBancoDAO pbDao = new PreguntaBancoDAO();
         if (pbDao.obtenerPreguntaPorId(idPreguntaBanco) == null) {
              System.err.println("Servicio: Pregunta del banco con ID " + idPreguntaBanco + " no existe.");
@@ -215,14 +274,10 @@ public class ServicioEncuestas {
         }
 
         EncuestaDetallePregunta detalle = new EncuestaDetallePregunta(idEncuesta, idPreguntaBanco, orden, esDescarte, criterioDescarte);
-        return encuestaDetalleDAO.agregarPreguntaAEncuesta(detalle);
+        return insertarPreguntaRespetandoLimite(detalle);
     }
 
     public boolean agregarPreguntaNuevaAEncuesta(int idEncuesta, String textoPregunta, String nombreTipo, String nombreClasificacion, int orden, boolean esDescarte, String criterioDescarte) {
-        if (encuestaDetalleDAO.contarPreguntasEnEncuesta(idEncuesta) >= 12) {
-            System.err.println("Servicio: La encuesta ID " + idEncuesta + " ya tiene 12 preguntas.");
-            return false;
-        }
         TipoPregunta tipo = tipoPreguntaDAO.obtenerTipoPreguntaPorNombre(nombreTipo);
         ClasificacionPregunta clasif = null;
         if(nombreClasificacion != null && !nombreClasificacion.trim().isEmpty()){
@@ -244,7 +299,53 @@ public class ServicioEncuestas {
             esDescarte,
             criterioDescarte
         );
-        return encuestaDetalleDAO.agregarPreguntaAEncuesta(detalle);
+        return insertarPreguntaRespetandoLimite(detalle);
+    }
+
+    private boolean insertarPreguntaRespetandoLimite(EncuestaDetallePregunta detalle) {
+        int resultado = encuestaDetalleDAO.agregarPreguntaAEncuestaConLimite(detalle, MAX_PREGUNTAS_POR_ENCUESTA);
+        if (resultado == 0) {
+            System.err.println("Servicio: La encuesta ID " + detalle.getIdEncuesta() + " ya tiene " + MAX_PREGUNTAS_POR_ENCUESTA + " preguntas.");
+        }
+        return resultado == 1;
+    }
+
+    public boolean agregarPreguntasAEncuesta(int idEncuesta, List<EncuestaDetallePregunta> detalles) {
+        if (detalles == null || detalles.isEmpty()) {
+            System.err.println("Servicio: No hay preguntas para agregar a la encuesta ID " + idEncuesta + ".");
+            return false;
+        }
+        if (detalles.size() > MAX_PREGUNTAS_POR_ENCUESTA) {
+            System.err.println("Servicio: No se pueden agregar " + detalles.size() + " preguntas; el máximo por encuesta es " + MAX_PREGUNTAS_POR_ENCUESTA + ".");
+            return false;
+        }
+        return encuestaDetalleDAO.agregarPreguntasAEncuesta(idEncuesta, detalles, MAX_PREGUNTAS_POR_ENCUESTA);
+    }
+
+    // El orden de cada detalle es relativo (1..N); se ubica detrás de las preguntas que la
+    // encuesta tenga al momento de insertar.
+    public boolean agregarPreguntasAlFinalDeEncuesta(int idEncuesta, List<EncuestaDetallePregunta> detalles) {
+        if (detalles == null || detalles.isEmpty()) {
+            System.err.println("Servicio: No hay preguntas para agregar a la encuesta ID " + idEncuesta + ".");
+            return false;
+        }
+        if (detalles.size() > MAX_PREGUNTAS_POR_ENCUESTA) {
+            System.err.println("Servicio: No se pueden agregar " + detalles.size() + " preguntas; el máximo por encuesta es " + MAX_PREGUNTAS_POR_ENCUESTA + ".");
+            return false;
+        }
+        return encuestaDetalleDAO.agregarPreguntasAlFinal(idEncuesta, detalles, MAX_PREGUNTAS_POR_ENCUESTA);
+    }
+
+    public boolean reordenarPreguntasEncuesta(int idEncuesta, List<Integer> idsDetalleEnOrden) {
+        if (idsDetalleEnOrden == null || idsDetalleEnOrden.isEmpty()) {
+            System.err.println("Servicio: La lista de preguntas a reordenar está vacía.");
+            return false;
+        }
+        if (idsDetalleEnOrden.size() != new java.util.HashSet<>(idsDetalleEnOrden).size()) {
+            System.err.println("Servicio: La lista de reordenamiento contiene preguntas repetidas.");
+            return false;
+        }
+        return encuestaDetalleDAO.reordenarPreguntasEncuesta(idEncuesta, idsDetalleEnOrden);
     }
 
     public boolean marcarPreguntaComoDescarte(int idEncuestaDetalle, String criterioDescarte) {
@@ -306,7 +407,8 @@ public class ServicioEncuestas {
         int idNuevaEncuesta = encuestaDAO.crearEncuesta(copia);
         if (idNuevaEncuesta != -1) {
             copia.setIdEncuesta(idNuevaEncuesta);
-            if (original.getPreguntasAsociadas() != null) {
+            if (original.getPreguntasAsociadas() != null && !original.getPreguntasAsociadas().isEmpty()) {
+                List<EncuestaDetallePregunta> detallesCopia = new ArrayList<>();
                 for (EncuestaDetallePregunta detalleOriginal : original.getPreguntasAsociadas()) {
                     EncuestaDetallePregunta detalleCopia = new EncuestaDetallePregunta();
                     detalleCopia.setIdEncuesta(idNuevaEncuesta);
@@ -317,8 +419,10 @@ public class ServicioEncuestas {
                     detalleCopia.setOrdenEnEncuesta(detalleOriginal.getOrdenEnEncuesta());
                     detalleCopia.setEsPreguntaDescarte(detalleOriginal.isEsPreguntaDescarte());
                     detalleCopia.setCriterioDescarteValor(detalleOriginal.getCriterioDescarteValor());
-
-                    encuestaDetalleDAO.agregarPreguntaAEncuesta(detalleCopia);
+                    detallesCopia.add(detalleCopia);
+                }
+                if (!encuestaDetalleDAO.agregarPreguntasAEncuesta(idNuevaEncuesta, detallesCopia, MAX_PREGUNTAS_POR_ENCUESTA)) {
+                    System.err.println("Servicio: No se pudieron copiar las preguntas a la encuesta ID " + idNuevaEncuesta + ".");
                 }
             }
             System.out.println("Servicio: Encuesta ID " + idEncuestaOriginal + " copiada a nueva encuesta ID " + idNuevaEncuesta);
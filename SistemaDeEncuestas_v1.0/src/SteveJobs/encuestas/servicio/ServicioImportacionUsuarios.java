@@ -0,0 +1,260 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.UsuarioDAO;
+import SteveJobs.encuestas.modelo.ResultadoImportacion;
+import SteveJobs.encuestas.modelo.Usuario;
+import SteveJobs.encuestas.util.HashContrasena;
+import SteveJobs.encuestas.util.LectorCsv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Alta masiva de usuarios desde un CSV con encabezado (documento_identidad, nombres_apellidos,
+// email, password y, opcional, tipo_nivel). El archivo se lee por filas y se procesa en lotes
+// de TAMANO_LOTE: validación con las reglas de ServicioUsuarios, descarte de emails repetidos
+// en el archivo o ya registrados (una consulta IN por lote) y un INSERT de varias filas por
+// lote en su propia transacción. Si ese INSERT falla, el lote se reintenta fila por fila para
+// guardar las válidas. Cada fila rechazada queda en el resultado con su línea. Si el hilo se
+// interrumpe (el usuario canceló) la lectura se detiene en la fila siguiente y el resultado
+// queda marcado como cancelado; los lotes ya procesados quedan guardados.
+public class ServicioImportacionUsuarios {
+
+    private static final int TAMANO_LOTE = 1000;
+    // Pool propio para los hashes, con el mismo tope de hilos que VerificadorContrasenas y por
+    // debajo de su prioridad: una importación grande no le quita CPU a los logins ni a la
+    // recepción de respuestas.
+    private static final ExecutorService hashesImportacion = Executors.newFixedThreadPool(VerificadorContrasenas.HILOS, r -> {
+        Thread hilo = new Thread(r, "hash-importacion");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MIN_PRIORITY);
+        return hilo;
+    });
+    private static final String TIPO_NIVEL_POR_DEFECTO = "Encuestado";
+    private static final String[] COLUMNAS_OBLIGATORIAS = {"documento_identidad", "nombres_apellidos", "email", "password"};
+
+    private final UsuarioDAO usuarioDAO;
+
+    public ServicioImportacionUsuarios() {
+        this.usuarioDAO = new UsuarioDAO();
+    }
+
+    public ResultadoImportacion importarDesdeArchivo(String ruta, char separador) {
+        try (Reader lector = Files.newBufferedReader(Paths.get(ruta), StandardCharsets.UTF_8)) {
+            return importarCsv(lector, separador);
+        } catch (IOException e) {
+            System.err.println("ServicioImportacionUsuarios: No se pudo leer el archivo '" + ruta + "': " + e.getMessage());
+            ResultadoImportacion resultado = new ResultadoImportacion();
+            resultado.agregarError(0, null, "No se pudo leer el archivo: " + e.getMessage());
+            return resultado;
+        }
+    }
+
+    public ResultadoImportacion importarCsv(Reader origen, char separador) throws IOException {
+        long inicio = System.currentTimeMillis();
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        LectorCsv csv = new LectorCsv(origen, separador);
+
+        List<String> encabezado = csv.leerFila();
+        if (encabezado == null) {
+            resultado.agregarError(0, null, "El archivo está vacío.");
+            return resultado;
+        }
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < encabezado.size(); i++) {
+            columnas.put(encabezado.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+            if (!columnas.containsKey(obligatoria)) {
+                resultado.agregarError(csv.getLineaFila(), null, "Falta la columna obligatoria '" + obligatoria + "'.");
+                return resultado;
+            }
+        }
+
+        Set<String> emailsVistos = new HashSet<>();
+        List<Usuario> lote = new ArrayList<>(TAMANO_LOTE);
+        List<Integer> lineasLote = new ArrayList<>(TAMANO_LOTE);
+        int filas = 0;
+        List<String> fila;
+        while ((fila = csv.leerFila()) != null) {
+            if (Thread.currentThread().isInterrupted()) {
+                resultado.setCancelada(true);
+                break;
+            }
+            filas++;
+            int linea = csv.getLineaFila();
+            String docId = campo(fila, columnas, "documento_identidad");
+            String nombres = campo(fila, columnas, "nombres_apellidos");
+            String email = campo(fila, columnas, "email");
+            String password = campo(fila, columnas, "password");
+            String tipoNivel = campo(fila, columnas, "tipo_nivel");
+            if (tipoNivel == null || tipoNivel.trim().isEmpty()) {
+                tipoNivel = TIPO_NIVEL_POR_DEFECTO;
+            }
+
+            String error = ServicioUsuarios.validarDatosRegistro(docId, nombres, email, password, tipoNivel);
+            if (error != null) {
+                resultado.agregarError(linea, email, error);
+                continue;
+            }
+            if (HashContrasena.esHash(password) && !HashContrasena.esHashValido(password)) {
+                resultado.agregarError(linea, email, "La contraseña viene como hash pero su formato o su costo no son válidos.");
+                continue;
+            }
+            if (!emailsVistos.add(email.trim().toLowerCase(Locale.ROOT))) {
+                resultado.agregarError(linea, email, "Email repetido dentro del archivo.");
+                continue;
+            }
+
+            Usuario usuario = new Usuario();
+            usuario.setDocumentoIdentidad(docId.trim());
+            usuario.setNombresApellidos(nombres.trim());
+            usuario.setEmail(email.trim());
+            usuario.setPassword(password);
+            usuario.setTipoNivel(tipoNivel.trim());
+            lote.add(usuario);
+            lineasLote.add(linea);
+            if (lote.size() == TAMANO_LOTE) {
+                procesarLote(lote, lineasLote, resultado);
+                lote.clear();
+                lineasLote.clear();
+            }
+        }
+        if (!lote.isEmpty() && !resultado.isCancelada()) {
+            procesarLote(lote, lineasLote, resultado);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            resultado.setCancelada(true);
+        }
+
+        resultado.setFilasLeidas(filas);
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        System.out.println("ServicioImportacionUsuarios: " + resultado);
+        return resultado;
+    }
+
+    private void procesarLote(List<Usuario> lote, List<Integer> lineas, ResultadoImportacion resultado) {
+        // Solo van a la consulta IN los emails que el filtro de registrados no descarta.
+        List<String> emails = new ArrayList<>(lote.size());
+        for (Usuario usuario : lote) {
+            if (RegistroEmails.puedeExistir(usuario.getEmail())) {
+                emails.add(usuario.getEmail());
+            }
+        }
+        Set<String> existentes = usuarioDAO.obtenerEmailsExistentes(emails);
+        if (existentes == null) {
+            for (int i = 0; i < lote.size(); i++) {
+                resultado.agregarError(lineas.get(i), lote.get(i).getEmail(), "No se pudo verificar si el email ya existe.");
+            }
+            return;
+        }
+
+        List<Usuario> nuevos = new ArrayList<>(lote.size());
+        List<Integer> lineasNuevos = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            Usuario usuario = lote.get(i);
+            if (existentes.contains(usuario.getEmail().toLowerCase(Locale.ROOT))) {
+                resultado.agregarError(lineas.get(i), usuario.getEmail(), "El email ya está registrado.");
+            } else {
+                nuevos.add(usuario);
+                lineasNuevos.add(lineas.get(i));
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+
+        // El hash es deliberadamente costoso; se reparte en el pool acotado de importación. Las
+        // contraseñas que ya vienen con hash (exportadas de otro sistema) se guardan tal cual.
+        String[] hashes = calcularHashes(nuevos);
+        if (hashes == null) {
+            return;
+        }
+        List<Usuario> listos = new ArrayList<>(nuevos.size());
+        List<Integer> lineasListos = new ArrayList<>(nuevos.size());
+        for (int i = 0; i < nuevos.size(); i++) {
+            if (hashes[i] == null) {
+                resultado.agregarError(lineasNuevos.get(i), nuevos.get(i).getEmail(), "No se pudo procesar la contraseña.");
+                continue;
+            }
+            nuevos.get(i).setPassword(hashes[i]);
+            listos.add(nuevos.get(i));
+            lineasListos.add(lineasNuevos.get(i));
+        }
+
+        int insertados = usuarioDAO.registrarUsuariosEnLote(listos);
+        if (insertados >= 0) {
+            for (Usuario usuario : listos) {
+                RegistroEmails.agregar(usuario.getEmail());
+            }
+            resultado.sumarImportados(insertados);
+            return;
+        }
+        // Una sola fila mala (documento repetido, campo demasiado largo, email registrado
+        // mientras tanto) hace fallar el INSERT entero: se reintenta de a una fila.
+        List<String> errores = usuarioDAO.registrarUsuariosUnoAUno(listos);
+        if (errores == null) {
+            for (int i = 0; i < listos.size(); i++) {
+                resultado.agregarError(lineasListos.get(i), listos.get(i).getEmail(), "Error de base de datos al insertar el lote; ninguna fila del lote se guardó.");
+            }
+            return;
+        }
+        int guardados = 0;
+        for (int i = 0; i < listos.size(); i++) {
+            if (errores.get(i) == null) {
+                RegistroEmails.agregar(listos.get(i).getEmail());
+                guardados++;
+            } else {
+                resultado.agregarError(lineasListos.get(i), listos.get(i).getEmail(), "Error de base de datos: " + errores.get(i));
+            }
+        }
+        resultado.sumarImportados(guardados);
+    }
+
+    // null si el hilo fue interrumpido (importación cancelada).
+    private static String[] calcularHashes(List<Usuario> usuarios) {
+        List<Future<String>> futuros = new ArrayList<>(usuarios.size());
+        for (Usuario usuario : usuarios) {
+            String password = usuario.getPassword();
+            // Las filas con un hash mal formado ya se rechazaron al leerlas.
+            Callable<String> tarea = () -> HashContrasena.esHashValido(password) ? password : HashContrasena.hashear(password);
+            futuros.add(hashesImportacion.submit(tarea));
+        }
+        String[] hashes = new String[usuarios.size()];
+        try {
+            for (int i = 0; i < futuros.size(); i++) {
+                try {
+                    hashes[i] = futuros.get(i).get();
+                } catch (ExecutionException e) {
+                    System.err.println("ServicioImportacionUsuarios: Error al calcular un hash: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<String> futuro : futuros) {
+                futuro.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return hashes;
+    }
+
+    private static String campo(List<String> fila, Map<String, Integer> columnas, String nombre) {
+        Integer indice = columnas.get(nombre);
+        return indice != null && indice < fila.size() ? fila.get(indice) : null;
+    }
+}
\ No newline at end of file
@@ -5,31 +5,193 @@ Autor: José Flores
 package SteveJobs.encuestas.servicio;
 
 import SteveJobs.encuestas.dao.RespuestaUsuarioDAO;
+import SteveJobs.encuestas.modelo.DefinicionEncuestaPublicada;
 import SteveJobs.encuestas.modelo.RespuestaUsuario;
+import SteveJobs.encuestas.util.CacheExpirable;
 import java.util.List;
+import java.util.Map;
 import java.sql.Timestamp; // Para las marcas de tiempo
 
 public class ServicioParticipacion {
+    public static final int MAX_LONGITUD_TOKEN_ENVIO = 64;
+
+    // Tokens de envíos ya aceptados, con el usuario y la encuesta de cada uno (ver claveEnvio):
+    // un reintento del mismo envío se contesta desde aquí sin ir a la BD.
+    private static final CacheExpirable<String, Long> tokensAceptados = new CacheExpirable<>(100_000, 24L * 60 * 60 * 1000);
+
     private RespuestaUsuarioDAO respuestaDAO;
+    private ServicioEncuestas servicioEncuestas;
 
     public ServicioParticipacion() {
         this.respuestaDAO = new RespuestaUsuarioDAO();
+        this.servicioEncuestas = new ServicioEncuestas();
+    }
+
+    public boolean registrarRespuestasCompletas(int idEncuesta, List<RespuestaUsuario> respuestas) {
+        return registrarRespuestasCompletas(idEncuesta, respuestas, null);
     }
 
-    public boolean registrarRespuestasCompletas(List<RespuestaUsuario> respuestas) {
+    // Valida todo el lote contra la definición publicada antes de tocar la BD: si una sola
+    // respuesta es inválida o falta alguna pregunta, no se guarda nada.
+    // Con tokenEnvio el envío es idempotente: repetir el mismo token devuelve true sin
+    // volver a insertar las respuestas.
+    public boolean registrarRespuestasCompletas(int idEncuesta, List<RespuestaUsuario> respuestas, String tokenEnvio) {
+        if (tokenEnvio != null) {
+            if (tokenEnvio.trim().isEmpty() || tokenEnvio.length() > MAX_LONGITUD_TOKEN_ENVIO) {
+                System.err.println("ServicioParticipacion: Token de envío inválido.");
+                return false;
+            }
+        }
         if (respuestas == null || respuestas.isEmpty()) {
             System.err.println("ServicioParticipacion: No hay respuestas para registrar.");
             return false;
         }
+        if (tokenEnvio != null) {
+            Long aceptado = tokensAceptados.obtener(tokenEnvio);
+            if (aceptado != null) {
+                if (aceptado != claveEnvio(respuestas.get(0).getIdUsuario(), idEncuesta)) {
+                    System.err.println("ServicioParticipacion: El token de envío ya lo usó otro envío.");
+                    return false;
+                }
+                System.out.println("ServicioParticipacion: Envío repetido (token ya aceptado); no se vuelve a guardar.");
+                return true;
+            }
+        }
+        DefinicionEncuestaPublicada definicion = CatalogoEncuestasPublicadas.obtener(idEncuesta);
+        if (definicion == null) {
+            System.err.println("ServicioParticipacion: La encuesta ID " + idEncuesta + " no está disponible.");
+            return false;
+        }
+        int invalida = definicion.buscarRespuestaInvalida(respuestas);
+        if (invalida >= 0) {
+            RespuestaUsuario respuesta = respuestas.get(invalida);
+            System.err.println("ServicioParticipacion: Respuesta rechazada para la pregunta " + respuesta.getIdEncuestaDetallePregunta()
+                    + " (valor '" + respuesta.getValorRespuesta() + "'): no pertenece a la encuesta, está repetida o no corresponde a su tipo.");
+            return false;
+        }
+        if (respuestas.size() != definicion.getPreguntas().size()) {
+            System.err.println("ServicioParticipacion: Se esperaban " + definicion.getPreguntas().size() + " respuestas y llegaron " + respuestas.size() + ".");
+            return false;
+        }
+        int idUsuario = respuestas.get(0).getIdUsuario();
+        for (RespuestaUsuario respuesta : respuestas) {
+            if (respuesta.getIdUsuario() != idUsuario) {
+                System.err.println("ServicioParticipacion: Todas las respuestas de un envío deben ser del mismo usuario.");
+                return false;
+            }
+        }
+        if (!RegistroParticipantes.registrarSiEsNuevo(idEncuesta, idUsuario)) {
+            // Tras reiniciar la aplicación el token solo está en la BD.
+            if (tokenEnvio != null && respuestaDAO.existeTokenEnvio(tokenEnvio, idUsuario, idEncuesta)) {
+                tokensAceptados.guardar(tokenEnvio, claveEnvio(idUsuario, idEncuesta));
+                return true;
+            }
+            System.err.println("ServicioParticipacion: El usuario ID " + idUsuario + " ya participó en la encuesta ID " + idEncuesta + ".");
+            return false;
+        }
+        int objetivo = definicion.getPublicoObjetivoCantidad();
+        if (!ContadorCuotasEncuestas.reservarCupo(idEncuesta, objetivo)) {
+            RegistroParticipantes.quitar(idEncuesta, idUsuario);
+            System.err.println("ServicioParticipacion: La encuesta ID " + idEncuesta + " ya alcanzó su público objetivo de " + objetivo + ".");
+            return false;
+        }
+        completarFechas(respuestas);
+        int resultado;
+        if (tokenEnvio == null) {
+            resultado = respuestaDAO.guardarListaRespuestas(respuestas) ? RespuestaUsuarioDAO.ENVIO_GUARDADO : -1;
+        } else {
+            resultado = respuestaDAO.guardarListaRespuestasConToken(respuestas, tokenEnvio, idEncuesta);
+        }
+        if (resultado == RespuestaUsuarioDAO.ENVIO_DUPLICADO) {
+            // Otro intento con el mismo token ya se guardó; el usuario sí participó.
+            ContadorCuotasEncuestas.liberarCupo(idEncuesta);
+            tokensAceptados.guardar(tokenEnvio, claveEnvio(idUsuario, idEncuesta));
+            return true;
+        }
+        if (resultado == RespuestaUsuarioDAO.TOKEN_AJENO) {
+            System.err.println("ServicioParticipacion: El token de envío ya lo usó otro envío.");
+        }
+        if (resultado != RespuestaUsuarioDAO.ENVIO_GUARDADO) {
+            ContadorCuotasEncuestas.liberarCupo(idEncuesta);
+            RegistroParticipantes.quitar(idEncuesta, idUsuario);
+            return false;
+        }
+        ContadorCuotasEncuestas.confirmarCupo(idEncuesta);
+        if (tokenEnvio != null) {
+            tokensAceptados.guardar(tokenEnvio, claveEnvio(idUsuario, idEncuesta));
+        }
+        if (objetivo > 0 && ContadorCuotasEncuestas.obtenerParticipantes(idEncuesta) >= objetivo) {
+            System.out.println("ServicioParticipacion: La encuesta ID " + idEncuesta + " completó su público objetivo; se cierra.");
+            servicioEncuestas.cambiarEstadoEncuesta(idEncuesta, "Cerrada");
+        }
+        return true;
+    }
+
+    private static long claveEnvio(int idUsuario, int idEncuesta) {
+        return ((long) idUsuario << 32) | (idEncuesta & 0xFFFFFFFFL);
+    }
+
+    // Devuelve null si la encuesta no está publicada (activa) o está fuera de vigencia.
+    public SesionParticipacion iniciarSesion(int idUsuario, int idEncuesta) {
+        DefinicionEncuestaPublicada definicion = CatalogoEncuestasPublicadas.obtener(idEncuesta);
+        if (definicion == null) {
+            System.err.println("ServicioParticipacion: La encuesta ID " + idEncuesta + " no está disponible.");
+            return null;
+        }
+        if (!definicion.estaVigente(System.currentTimeMillis())) {
+            System.err.println("ServicioParticipacion: La encuesta ID " + idEncuesta + " está fuera de su periodo de vigencia.");
+            return null;
+        }
+        if (RegistroParticipantes.yaParticipo(idEncuesta, idUsuario)) {
+            System.err.println("ServicioParticipacion: El usuario ID " + idUsuario + " ya participó en la encuesta ID " + idEncuesta + ".");
+            return null;
+        }
+        if (ContadorCuotasEncuestas.estaCompleta(idEncuesta, definicion.getPublicoObjetivoCantidad())) {
+            System.err.println("ServicioParticipacion: La encuesta ID " + idEncuesta + " ya alcanzó su público objetivo.");
+            return null;
+        }
+        SesionParticipacion sesion = new SesionParticipacion(idUsuario, definicion);
+        Map<Integer, String> borrador = AlmacenBorradores.recuperar(idUsuario, idEncuesta);
+        for (Map.Entry<Integer, String> entrada : borrador.entrySet()) {
+            sesion.restaurarRespuesta(entrada.getKey(), entrada.getValue());
+        }
+        if (!borrador.isEmpty()) {
+            System.out.println("ServicioParticipacion: Se retomó la participación con " + borrador.size() + " respuestas guardadas.");
+        }
+        return sesion;
+    }
+
+    // Solo se guardan sesiones completas y no descartadas.
+    public boolean finalizarSesion(SesionParticipacion sesion) {
+        if (sesion == null || sesion.getEstado() != SesionParticipacion.Estado.EN_CURSO) {
+            System.err.println("ServicioParticipacion: La sesión no está en curso; no hay respuestas que guardar.");
+            return false;
+        }
+        if (!sesion.isCompleta()) {
+            System.err.println("ServicioParticipacion: Faltan preguntas por responder.");
+            return false;
+        }
+        int idEncuesta = sesion.getDefinicion().getIdEncuesta();
+        List<RespuestaUsuario> respuestas = sesion.cerrar();
+        // El borrador en la BD se borra en la misma transacción que guarda las respuestas.
+        AlmacenBorradores.olvidar(sesion.getIdUsuario(), idEncuesta);
+        boolean guardadas = registrarRespuestasCompletas(idEncuesta, respuestas, sesion.getTokenEnvio());
+        if (guardadas) {
+            sesion.marcarFinalizada();
+        } else {
+            for (RespuestaUsuario respuesta : respuestas) {
+                AlmacenBorradores.registrar(sesion.getIdUsuario(), idEncuesta, respuesta.getIdEncuestaDetallePregunta(), respuesta.getValorRespuesta());
+            }
+        }
+        return guardadas;
+    }
 
+    private void completarFechas(List<RespuestaUsuario> respuestas) {
         Timestamp ahora = new Timestamp(System.currentTimeMillis());
-        for(RespuestaUsuario r : respuestas){
-            if(r.getFechaHoraRespuesta() == null){
+        for (RespuestaUsuario r : respuestas) {
+            if (r.getFechaHoraRespuesta() == null) {
                 r.setFechaHoraRespuesta(ahora);
             }
         }
-
-        return respuestaDAO.guardarListaRespuestas(respuestas);
     }
-
 }
\ No newline at end of file
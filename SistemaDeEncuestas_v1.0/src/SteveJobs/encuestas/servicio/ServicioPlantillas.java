@@ -0,0 +1,147 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.dao.PlantillaPreguntaDAO;
+import SteveJobs.encuestas.modelo.EncuestaDetallePregunta;
+import SteveJobs.encuestas.modelo.PlantillaPregunta;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ServicioPlantillas {
+
+    // Las plantillas cambian poco: se leen una vez de la BD y la caché se mantiene al día con
+    // las altas y bajas hechas desde este servicio.
+    private static final Map<Integer, PlantillaPregunta> cache = new ConcurrentHashMap<>();
+    private static volatile boolean cacheCargada = false;
+
+    private PlantillaPreguntaDAO plantillaDAO;
+    private ServicioEncuestas servicioEncuestas;
+
+    public ServicioPlantillas() {
+        this.plantillaDAO = new PlantillaPreguntaDAO();
+        this.servicioEncuestas = new ServicioEncuestas();
+    }
+
+    public List<PlantillaPregunta> listarPlantillas() {
+        asegurarCacheCargada();
+        List<PlantillaPregunta> plantillas = new ArrayList<>(cache.values());
+        plantillas.sort((a, b) -> Integer.compare(a.getIdPlantilla(), b.getIdPlantilla()));
+        return plantillas;
+    }
+
+    public PlantillaPregunta obtenerPlantilla(int idPlantilla) {
+        asegurarCacheCargada();
+        return cache.get(idPlantilla);
+    }
+
+    // Las preguntas se guardan en el orden de la lista; solo se admiten preguntas del banco.
+    public int crearPlantilla(String nombre, String descripcion, int idAdminCreador, List<EncuestaDetallePregunta> preguntas) {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            System.err.println("Servicio: El nombre de la plantilla es obligatorio.");
+            return -1;
+        }
+        if (preguntas == null || preguntas.isEmpty()) {
+            System.err.println("Servicio: La plantilla debe tener al menos una pregunta.");
+            return -1;
+        }
+        if (preguntas.size() > ServicioEncuestas.MAX_PREGUNTAS_POR_ENCUESTA) {
+            System.err.println("Servicio: Una plantilla no puede tener más de " + ServicioEncuestas.MAX_PREGUNTAS_POR_ENCUESTA + " preguntas.");
+            return -1;
+        }
+        PlantillaPregunta plantilla = new PlantillaPregunta(nombre.trim(), descripcion, idAdminCreador);
+        Set<Integer> idsVistos = new HashSet<>();
+        int orden = 1;
+        for (EncuestaDetallePregunta origen : preguntas) {
+            if (origen.getIdPreguntaBanco() == null || origen.getIdPreguntaBanco() <= 0) {
+                System.err.println("Servicio: Las plantillas solo admiten preguntas del banco.");
+                return -1;
+            }
+            if (!idsVistos.add(origen.getIdPreguntaBanco())) {
+                System.err.println("Servicio: La pregunta del banco ID " + origen.getIdPreguntaBanco() + " está repetida en la plantilla.");
+                return -1;
+            }
+            EncuestaDetallePregunta detalle = new EncuestaDetallePregunta();
+            detalle.setIdPreguntaBanco(origen.getIdPreguntaBanco());
+            detalle.setPreguntaDelBanco(origen.getPreguntaDelBanco());
+            detalle.setOrdenEnEncuesta(orden++);
+            detalle.setEsPreguntaDescarte(origen.isEsPreguntaDescarte());
+            detalle.setCriterioDescarteValor(origen.isEsPreguntaDescarte() ? origen.getCriterioDescarteValor() : null);
+            plantilla.agregarPregunta(detalle);
+        }
+
+        int idPlantilla = plantillaDAO.crearPlantilla(plantilla);
+        if (idPlantilla > 0 && cacheCargada) {
+            plantilla.setIdPlantilla(idPlantilla);
+            cache.put(idPlantilla, plantilla);
+        }
+        return idPlantilla;
+    }
+
+    // Toma las preguntas del banco de una encuesta existente, en su orden actual.
+    // Las preguntas únicas de la encuesta se omiten.
+    public int crearPlantillaDesdeEncuesta(int idEncuesta, String nombre, String descripcion, int idAdminCreador) {
+        List<EncuestaDetallePregunta> deBanco = new ArrayList<>();
+        for (EncuestaDetallePregunta detalle : servicioEncuestas.obtenerPreguntasDeEncuesta(idEncuesta)) {
+            if (detalle.getIdPreguntaBanco() != null) {
+                deBanco.add(detalle);
+            }
+        }
+        return crearPlantilla(nombre, descripcion, idAdminCreador, deBanco);
+    }
+
+    public boolean eliminarPlantilla(int idPlantilla) {
+        boolean eliminada = plantillaDAO.eliminarPlantilla(idPlantilla);
+        if (eliminada) {
+            cache.remove(idPlantilla);
+        }
+        return eliminada;
+    }
+
+    // Agrega las preguntas de la plantilla a continuación de las que ya tenga la encuesta,
+    // en un único lote dentro de una transacción que respeta el máximo por encuesta. El orden
+    // de partida se lee dentro de esa misma transacción.
+    public boolean aplicarPlantillaAEncuesta(int idPlantilla, int idEncuesta) {
+        PlantillaPregunta plantilla = obtenerPlantilla(idPlantilla);
+        if (plantilla == null) {
+            System.err.println("Servicio: Plantilla ID " + idPlantilla + " no encontrada.");
+            return false;
+        }
+        List<EncuestaDetallePregunta> detalles = new ArrayList<>();
+        for (EncuestaDetallePregunta dePlantilla : plantilla.getPreguntas()) {
+            EncuestaDetallePregunta detalle = new EncuestaDetallePregunta(
+                idEncuesta,
+                dePlantilla.getIdPreguntaBanco(),
+                dePlantilla.getOrdenEnEncuesta(),
+                dePlantilla.isEsPreguntaDescarte(),
+                dePlantilla.getCriterioDescarteValor()
+            );
+            detalles.add(detalle);
+        }
+        return servicioEncuestas.agregarPreguntasAlFinalDeEncuesta(idEncuesta, detalles);
+    }
+
+    public void recargarCache() {
+        synchronized (ServicioPlantillas.class) {
+            List<PlantillaPregunta> todas = plantillaDAO.obtenerTodasLasPlantillas();
+            cache.clear();
+            for (PlantillaPregunta plantilla : todas) {
+                cache.put(plantilla.getIdPlantilla(), plantilla);
+            }
+            cacheCargada = true;
+        }
+    }
+
+    private void asegurarCacheCargada() {
+        if (!cacheCargada) {
+            synchronized (ServicioPlantillas.class) {
+                if (!cacheCargada) {
+                    recargarCache();
+                }
+            }
+        }
+    }
+}
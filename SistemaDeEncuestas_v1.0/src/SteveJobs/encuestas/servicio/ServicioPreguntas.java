@@ -4,11 +4,22 @@ Pendiente..
 package SteveJobs.encuestas.servicio;
 import SteveJobs.encuestas.modelo.PreguntaBanco;
 import SteveJobs.encuestas.dao.PreguntaBancoDAO; // Asumiendo que Pablo lo crea
-import java.util.List;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class ServicioPreguntas {
-    
+
+    // Compartido por todas las instancias: el banco se carga una sola vez y luego se
+    // mantiene al día con cada alta, modificación o baja hecha desde este servicio.
+    private static final IndicePreguntasBanco indice = new IndicePreguntasBanco();
+    private static final DetectorDuplicadosPreguntas detectorDuplicados = new DetectorDuplicadosPreguntas();
+    private static volatile boolean indiceCargado = false;
+
+    public static final int PREGUNTA_DUPLICADA = -2;
+    public static final double UMBRAL_DUPLICADO = 0.8;
+
     private PreguntaBancoDAO preguntaBancoDAO;
 
     public ServicioPreguntas() {
@@ -16,10 +27,122 @@ public class ServicioPreguntas {
     }
 
     public List<PreguntaBanco> listarPreguntasDelBancoConFiltro(String filtroTexto, String filtroTipo) {
-        System.out.println("ServicioPreguntas.listarPreguntasDelBancoConFiltro no implementado, devolviendo lista vacía.");
-        // Aquí Pablo llamaría a su DAO
-        return new ArrayList<>();
+        return buscarPreguntasDelBanco(filtroTexto, filtroTipo, null, 0);
+    }
+
+    public List<PreguntaBanco> buscarPreguntasDelBanco(String filtroTexto, String filtroTipo, String filtroClasificacion, int limite) {
+        asegurarIndiceCargado();
+        return indice.buscar(filtroTexto, filtroTipo, filtroClasificacion, limite);
+    }
+
+    public PreguntaBanco obtenerPreguntaPorId(int idPreguntaBanco) {
+        return preguntaBancoDAO.obtenerPreguntaPorId(idPreguntaBanco);
+    }
+
+    public int crearPreguntaBanco(String texto, int idTipoPregunta, Integer idClasificacion) {
+        return crearPreguntaBanco(texto, idTipoPregunta, idClasificacion, false);
+    }
+
+    // Sin forzarAunqueDuplicada, una pregunta casi igual a otra del banco no se crea y se
+    // devuelve PREGUNTA_DUPLICADA; el llamador puede consultar buscarPosiblesDuplicados.
+    public int crearPreguntaBanco(String texto, int idTipoPregunta, Integer idClasificacion, boolean forzarAunqueDuplicada) {
+        if (texto == null || texto.trim().isEmpty()) {
+            System.err.println("Servicio: El texto de la pregunta del banco no puede estar vacío.");
+            return -1;
+        }
+        if (idTipoPregunta <= 0) {
+            System.err.println("Servicio: Debe indicar un tipo de pregunta válido.");
+            return -1;
+        }
+        if (!forzarAunqueDuplicada) {
+            List<DetectorDuplicadosPreguntas.Coincidencia> similares = buscarPosiblesDuplicados(texto);
+            if (!similares.isEmpty()) {
+                System.err.println("Servicio: La pregunta es casi igual a la pregunta del banco ID "
+                        + similares.get(0).getIdPreguntaBanco() + " (similitud "
+                        + String.format("%.2f", similares.get(0).getSimilitud()) + ").");
+                return PREGUNTA_DUPLICADA;
+            }
+        }
+        PreguntaBanco pregunta = new PreguntaBanco();
+        pregunta.setTextoPregunta(texto.trim());
+        pregunta.setIdTipoPregunta(idTipoPregunta);
+        pregunta.setIdClasificacion(idClasificacion);
+
+        int idGenerado = preguntaBancoDAO.crearPregunta(pregunta);
+        if (idGenerado > 0) {
+            actualizarEnIndice(idGenerado);
+        }
+        return idGenerado;
+    }
+
+    public boolean actualizarPreguntaBanco(PreguntaBanco pregunta) {
+        if (pregunta == null || pregunta.getIdPreguntaBanco() <= 0 || pregunta.getTextoPregunta() == null || pregunta.getTextoPregunta().trim().isEmpty()) {
+            System.err.println("Servicio: Datos inválidos para actualizar la pregunta del banco.");
+            return false;
+        }
+        pregunta.setTextoPregunta(pregunta.getTextoPregunta().trim());
+        boolean actualizada = preguntaBancoDAO.actualizarPregunta(pregunta);
+        if (actualizada) {
+            actualizarEnIndice(pregunta.getIdPreguntaBanco());
+        }
+        return actualizada;
+    }
+
+    public boolean eliminarPreguntaBanco(int idPreguntaBanco) {
+        boolean eliminada = preguntaBancoDAO.eliminarPregunta(idPreguntaBanco);
+        if (eliminada && indiceCargado) {
+            indice.eliminar(idPreguntaBanco);
+            detectorDuplicados.eliminar(idPreguntaBanco);
+        }
+        return eliminada;
+    }
+
+    public List<DetectorDuplicadosPreguntas.Coincidencia> buscarPosiblesDuplicados(String texto) {
+        if (texto == null || texto.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        asegurarIndiceCargado();
+        return detectorDuplicados.buscarSimilares(texto, UMBRAL_DUPLICADO);
+    }
+
+    public List<DetectorDuplicadosPreguntas.ParSimilar> generarReporteDuplicados() {
+        asegurarIndiceCargado();
+        return detectorDuplicados.reporteDuplicados(UMBRAL_DUPLICADO);
+    }
+
+    public void recargarIndice() {
+        synchronized (ServicioPreguntas.class) {
+            List<PreguntaBanco> todas = preguntaBancoDAO.obtenerTodasLasPreguntas();
+            indice.cargar(todas);
+            Map<Integer, String> textos = new LinkedHashMap<>();
+            for (PreguntaBanco pregunta : todas) {
+                textos.put(pregunta.getIdPreguntaBanco(), pregunta.getTextoPregunta());
+            }
+            detectorDuplicados.cargar(textos);
+            indiceCargado = true;
+            System.out.println("ServicioPreguntas: Índice del banco cargado con " + todas.size() + " preguntas.");
+        }
+    }
+
+    private void asegurarIndiceCargado() {
+        if (!indiceCargado) {
+            synchronized (ServicioPreguntas.class) {
+                if (!indiceCargado) {
+                    recargarIndice();
+                }
+            }
+        }
+    }
+
+    // Se relee la fila para tener los nombres de tipo y clasificación resueltos por el JOIN.
+    private void actualizarEnIndice(int idPreguntaBanco) {
+        if (!indiceCargado) {
+            return;
+        }
+        PreguntaBanco actual = preguntaBancoDAO.obtenerPreguntaPorId(idPreguntaBanco);
+        if (actual != null) {
+            indice.agregarOActualizar(actual);
+            detectorDuplicados.agregarOActualizar(actual.getIdPreguntaBanco(), actual.getTextoPregunta());
+        }
     }
-    // ... otros métodos que Pablo necesite para sus requerimientos REQMS-007 a REQMS-011
-    
 }
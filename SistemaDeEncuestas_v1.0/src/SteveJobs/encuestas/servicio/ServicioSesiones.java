@@ -0,0 +1,94 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.modelo.Usuario;
+import SteveJobs.encuestas.util.CacheExpirable;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sesiones emitidas tras un login correcto: token opaco -> copia del usuario (sin password).
+// Comprobar un token es una consulta en memoria, sin volver a la tabla usuarios. Las sesiones
+// vencen a las DURACION_SESION_MS y, si se superan MAX_SESIONES, se descarta la más antigua.
+public class ServicioSesiones {
+
+    private static final int MAX_SESIONES = 10000;
+    private static final long DURACION_SESION_MS = 8L * 60 * 60 * 1000;
+    private static final int BYTES_TOKEN = 32;
+
+    private static final class Sesion {
+        private final Usuario usuario;
+        private final int generacion;
+
+        Sesion(Usuario usuario, int generacion) {
+            this.usuario = usuario;
+            this.generacion = generacion;
+        }
+    }
+
+    private static final CacheExpirable<String, Sesion> sesiones = new CacheExpirable<>(MAX_SESIONES, DURACION_SESION_MS);
+    // Revocar todas las sesiones de un usuario sube su generación; las emitidas con una
+    // generación anterior dejan de valer sin tener que recorrer el mapa de sesiones.
+    private static final ConcurrentHashMap<Integer, Integer> generaciones = new ConcurrentHashMap<>();
+    private static final SecureRandom aleatorio = new SecureRandom();
+
+    private ServicioSesiones() {
+    }
+
+    public static String emitirToken(Usuario usuario) {
+        if (usuario == null || usuario.getIdUsuario() <= 0) {
+            System.err.println("ServicioSesiones: No se puede abrir sesión para un usuario inválido.");
+            return null;
+        }
+        byte[] bytes = new byte[BYTES_TOKEN];
+        aleatorio.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        int generacion = generaciones.getOrDefault(usuario.getIdUsuario(), 0);
+        sesiones.guardar(token, new Sesion(copiaSinPassword(usuario), generacion));
+        return token;
+    }
+
+    // Usuario de la sesión, o null si el token no existe, venció o fue revocado. Devuelve una
+    // copia para que quien la reciba no altere la sesión guardada.
+    public static Usuario obtenerUsuario(String token) {
+        if (token == null) {
+            return null;
+        }
+        Sesion sesion = sesiones.obtener(token);
+        if (sesion == null) {
+            return null;
+        }
+        if (sesion.generacion != generaciones.getOrDefault(sesion.usuario.getIdUsuario(), 0)) {
+            sesiones.quitar(token);
+            return null;
+        }
+        return copiaSinPassword(sesion.usuario);
+    }
+
+    public static boolean tieneNivel(String token, String tipoNivel) {
+        Usuario usuario = obtenerUsuario(token);
+        return usuario != null && usuario.getTipoNivel() != null && usuario.getTipoNivel().equalsIgnoreCase(tipoNivel);
+    }
+
+    public static void cerrarSesion(String token) {
+        if (token != null) {
+            sesiones.quitar(token);
+        }
+    }
+
+    public static void revocarSesionesDeUsuario(int idUsuario) {
+        generaciones.merge(idUsuario, 1, Integer::sum);
+    }
+
+    private static Usuario copiaSinPassword(Usuario origen) {
+        Usuario copia = new Usuario();
+        copia.setIdUsuario(origen.getIdUsuario());
+        copia.setDocumentoIdentidad(origen.getDocumentoIdentidad());
+        copia.setNombresApellidos(origen.getNombresApellidos());
+        copia.setEmail(origen.getEmail());
+        copia.setTipoNivel(origen.getTipoNivel());
+        copia.setFechaRegistroSistema(origen.getFechaRegistroSistema());
+        copia.setEstadoCuenta(origen.getEstadoCuenta());
+        return copia;
+    }
+}
\ No newline at end of file
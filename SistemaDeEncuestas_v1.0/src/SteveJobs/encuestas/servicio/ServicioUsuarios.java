@@ -5,9 +5,13 @@ Autor: Gian Fri
 
 package SteveJobs.encuestas.servicio;
 
+import SteveJobs.encuestas.modelo.FormularioRegistro;
+import SteveJobs.encuestas.modelo.Pagina;
 import SteveJobs.encuestas.modelo.Usuario;
 import SteveJobs.encuestas.dao.UsuarioDAO;
 
+import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 public class ServicioUsuarios {
@@ -22,30 +26,71 @@ public class ServicioUsuarios {
         this.usuarioDAO = new UsuarioDAO();
     }
 
-    public boolean registrarNuevoUsuario(String docId, String nombres, String email, String password, String tipoNivel) {
+    // Reglas de registro compartidas con la importación masiva. Devuelve el motivo del rechazo,
+    // o null si los datos son válidos.
+    public static String validarDatosRegistro(String docId, String nombres, String email, String password, String tipoNivel) {
         if (docId == null || docId.trim().isEmpty()) {
-            System.err.println("Error de registro: El documento de identidad no puede estar vacío.");
-            return false;
+            return "El documento de identidad no puede estar vacío.";
         }
         if (nombres == null || nombres.trim().isEmpty()) {
-            System.err.println("Error de registro: Los nombres y apellidos no pueden estar vacíos.");
-            return false;
+            return "Los nombres y apellidos no pueden estar vacíos.";
         }
         if (email == null || email.trim().isEmpty()) {
-            System.err.println("Error de registro: El email no puede estar vacío.");
-            return false;
+            return "El email no puede estar vacío.";
         }
         if (!EMAIL_PATTERN.matcher(email.trim()).matches()) {
-            System.err.println("Error de registro: El formato del email es inválido.");
-            return false;
+            return "El formato del email es inválido.";
         }
         if (password == null || password.isEmpty()) {
-            System.err.println("Error de registro: La contraseña no puede estar vacía.");
+            return "La contraseña no puede estar vacía.";
+        }
+        if (tipoNivel == null || tipoNivel.trim().isEmpty()) {
+            return "El tipo de nivel no puede estar vacío.";
+        }
+        return null;
+    }
+
+    public boolean registrarNuevoUsuario(String docId, String nombres, String email, String password, String tipoNivel) {
+        return registrarNuevoUsuario(docId, nombres, email, password, tipoNivel, null);
+    }
+
+    // Formulario de registro compilado (preguntas activas, opciones y validadores), servido
+    // desde memoria. null si no se pudo leer.
+    public FormularioRegistro obtenerFormularioRegistro() {
+        return CatalogoFormularioRegistro.obtener();
+    }
+
+    // respuestasRegistro (id_pregunta_registro -> valor) se valida contra el formulario vigente
+    // y se guarda como atributos del usuario. Con null no se exige el formulario.
+    public boolean registrarNuevoUsuario(String docId, String nombres, String email, String password, String tipoNivel, Map<Integer, String> respuestasRegistro) {
+        String error = validarDatosRegistro(docId, nombres, email, password, tipoNivel);
+        if (error != null) {
+            System.err.println("Error de registro: " + error);
             return false;
         }
+        if (respuestasRegistro != null) {
+            FormularioRegistro formulario = CatalogoFormularioRegistro.obtener();
+            if (formulario == null) {
+                System.err.println("Error de registro: No se pudo cargar el formulario de registro.");
+                return false;
+            }
+            FormularioRegistro.CampoRegistro invalido = formulario.buscarCampoInvalido(respuestasRegistro);
+            if (invalido != null) {
+                System.err.println("Error de registro: Respuesta no válida para '" + invalido.getTextoPregunta() + "'.");
+                return false;
+            }
+        }
 
-        if (tipoNivel == null || tipoNivel.trim().isEmpty()) {
-            System.err.println("Error de registro: El tipo de nivel no puede estar vacío.");
+        // Solo los emails que el filtro no descarta necesitan la búsqueda exacta; así un
+        // duplicado se rechaza antes de calcular el hash y sin esperar a que falle el INSERT.
+        if (RegistroEmails.puedeExistir(email) && usuarioDAO.obtenerUsuarioPorEmail(email.trim()) != null) {
+            System.err.println("Error de registro: El email '" + email + "' ya está registrado.");
+            return false;
+        }
+
+        String hashPassword = VerificadorContrasenas.hashear(password);
+        if (hashPassword == null) {
+            System.err.println("Error de registro: No se pudo procesar la contraseña, intente nuevamente.");
             return false;
         }
 
@@ -53,12 +98,17 @@ public class ServicioUsuarios {
         nuevoUsuario.setDocumentoIdentidad(docId.trim());
         nuevoUsuario.setNombresApellidos(nombres.trim());
         nuevoUsuario.setEmail(email.trim());
-        nuevoUsuario.setPassword(password);
+        nuevoUsuario.setPassword(hashPassword);
         nuevoUsuario.setTipoNivel(tipoNivel.trim());
 
         boolean registrado = usuarioDAO.registrarUsuario(nuevoUsuario);
 
         if (registrado) {
+            RegistroEmails.agregar(email);
+            if (respuestasRegistro != null && !respuestasRegistro.isEmpty() && nuevoUsuario.getIdUsuario() > 0
+                    && !AlmacenAtributosUsuario.registrarAtributos(nuevoUsuario.getIdUsuario(), respuestasRegistro)) {
+                System.err.println("Servicio: El usuario '" + email + "' se registró, pero no se pudieron guardar sus respuestas de registro.");
+            }
             System.out.println("Servicio: Usuario '" + email + "' registrado exitosamente.");
         } else {
             System.err.println("Servicio: Falló el registro del usuario '" + email + "'. Verifique logs del DAO.");
@@ -88,8 +138,45 @@ public class ServicioUsuarios {
             return false;
         }
 
+        // Solo una contraseña pedida explícitamente con setNuevaPassword se cambia; el campo
+        // password (el hash leído de la BD) nunca se escribe desde aquí.
+        String hashPassword = null;
+        if (usuario.getNuevaPassword() != null) {
+            if (usuario.getNuevaPassword().isEmpty()) {
+                System.err.println("Servicio: La nueva contraseña no puede estar vacía.");
+                return false;
+            }
+            hashPassword = VerificadorContrasenas.hashear(usuario.getNuevaPassword());
+            if (hashPassword == null) {
+                System.err.println("Servicio: No se pudo procesar la nueva contraseña, intente nuevamente.");
+                return false;
+            }
+        }
+
         System.out.println("Servicio: Intentando actualizar perfil para usuario ID: " + usuario.getIdUsuario());
-        return usuarioDAO.actualizarPerfilUsuario(usuario);
+        Usuario anterior = usuarioDAO.obtenerUsuarioPorId(usuario.getIdUsuario());
+        boolean actualizado = usuarioDAO.actualizarPerfilUsuario(usuario, hashPassword);
+        if (actualizado && hashPassword != null) {
+            usuario.setPassword(hashPassword);
+            usuario.setNuevaPassword(null);
+        }
+        // Las sesiones abiertas guardan el rol y el email de cuando se emitieron: si cambió alguno
+        // de ellos o la contraseña, se invalidan. Sin el estado anterior se revoca por las dudas.
+        if (actualizado && (hashPassword != null || anterior == null
+                || !Objects.equals(anterior.getTipoNivel(), usuario.getTipoNivel())
+                || !(anterior.getEmail() != null && anterior.getEmail().equalsIgnoreCase(usuario.getEmail())))) {
+            ServicioSesiones.revocarSesionesDeUsuario(usuario.getIdUsuario());
+        }
+        if (actualizado && usuario.getEmail() != null) {
+            RegistroEmails.agregar(usuario.getEmail());
+        }
+        return actualizado;
+    }
+
+    // cursor null pide la primera página. estado y texto vacíos no filtran.
+    public Pagina<Usuario> obtenerPaginaUsuarios(String cursor, int tamano, String estado, String texto) {
+        return usuarioDAO.obtenerPaginaUsuarios(cursor, ServicioEncuestas.ajustarTamanoPagina(tamano),
+                ServicioEncuestas.filtroOpcional(estado), ServicioEncuestas.filtroOpcional(texto));
     }
 
     public boolean cambiarEstadoUsuario(int idUsuario, String nuevoEstado) {
@@ -98,7 +185,12 @@ public class ServicioUsuarios {
             return false;
         }
         System.out.println("Servicio: Intentando cambiar estado para usuario ID: " + idUsuario + " a " + nuevoEstado);
-        return usuarioDAO.cambiarEstadoCuenta(idUsuario, nuevoEstado.trim());
+        boolean cambiado = usuarioDAO.cambiarEstadoCuenta(idUsuario, nuevoEstado.trim());
+        if (cambiado) {
+            // Las sesiones abiertas guardan el estado anterior; se invalidan de inmediato.
+            ServicioSesiones.revocarSesionesDeUsuario(idUsuario);
+        }
+        return cambiado;
     }
 
 }
\ No newline at end of file
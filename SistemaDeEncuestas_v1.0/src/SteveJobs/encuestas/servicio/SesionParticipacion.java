@@ -0,0 +1,129 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.modelo.DefinicionEncuestaPublicada;
+import SteveJobs.encuestas.modelo.DefinicionEncuestaPublicada.PreguntaPublicada;
+import SteveJobs.encuestas.modelo.RespuestaUsuario;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Participación en curso de un encuestado. Las respuestas se guardan solo en memoria y se
+// evalúan al recibirlas; si una pregunta de descarte descarta al encuestado la sesión
+// termina en ese momento y lo respondido se desecha sin llegar a la BD. Mientras tanto cada
+// respuesta aceptada se guarda como borrador (AlmacenBorradores) para poder retomarla.
+public class SesionParticipacion {
+
+    public enum Estado { EN_CURSO, DESCARTADA, FINALIZADA }
+
+    private final int idUsuario;
+    private final DefinicionEncuestaPublicada definicion;
+    private final Timestamp inicio;
+    private final String tokenEnvio;
+    private final Map<Integer, RespuestaUsuario> respuestas = new LinkedHashMap<>();
+    private Estado estado = Estado.EN_CURSO;
+    private Integer idDetalleQueDescarto;
+
+    SesionParticipacion(int idUsuario, DefinicionEncuestaPublicada definicion) {
+        this.idUsuario = idUsuario;
+        this.definicion = definicion;
+        this.inicio = new Timestamp(System.currentTimeMillis());
+        // Reintentar finalizarSesion con la misma sesión reusa el token y no duplica el envío.
+        this.tokenEnvio = UUID.randomUUID().toString();
+    }
+
+    // Una respuesta inválida para el tipo de la pregunta no se guarda; la pregunta sigue pendiente.
+    public Estado registrarRespuesta(int idEncuestaDetalle, String valor) {
+        return aceptarRespuesta(idEncuestaDetalle, valor, true);
+    }
+
+    // Respuesta que viene del borrador guardado: se valida igual, pero no se vuelve a anotar
+    // como pendiente de escribir.
+    Estado restaurarRespuesta(int idEncuestaDetalle, String valor) {
+        return aceptarRespuesta(idEncuestaDetalle, valor, false);
+    }
+
+    private Estado aceptarRespuesta(int idEncuestaDetalle, String valor, boolean guardarBorrador) {
+        if (estado != Estado.EN_CURSO) {
+            return estado;
+        }
+        PreguntaPublicada pregunta = definicion.obtenerPregunta(idEncuestaDetalle);
+        if (pregunta == null) {
+            System.err.println("SesionParticipacion: La pregunta " + idEncuestaDetalle + " no pertenece a la encuesta ID " + definicion.getIdEncuesta() + ".");
+            return estado;
+        }
+        if (!pregunta.esRespuestaValida(valor)) {
+            System.err.println("SesionParticipacion: El valor '" + valor + "' no es válido para la pregunta " + idEncuestaDetalle + " (" + pregunta.getNombreTipoPregunta() + ").");
+            return estado;
+        }
+        if (pregunta.descarta(valor)) {
+            estado = Estado.DESCARTADA;
+            idDetalleQueDescarto = idEncuestaDetalle;
+            respuestas.clear();
+            AlmacenBorradores.descartar(idUsuario, definicion.getIdEncuesta());
+            return estado;
+        }
+        RespuestaUsuario respuesta = new RespuestaUsuario(idEncuestaDetalle, idUsuario, valor);
+        respuesta.setFechaHoraRespuesta(new Timestamp(System.currentTimeMillis()));
+        respuestas.put(idEncuestaDetalle, respuesta);
+        if (guardarBorrador) {
+            AlmacenBorradores.registrar(idUsuario, definicion.getIdEncuesta(), idEncuestaDetalle, valor);
+        }
+        return estado;
+    }
+
+    // Próxima pregunta sin responder en el orden de la encuesta, o null si no queda ninguna.
+    public PreguntaPublicada siguientePregunta() {
+        if (estado != Estado.EN_CURSO) {
+            return null;
+        }
+        for (PreguntaPublicada pregunta : definicion.getPreguntas()) {
+            if (!respuestas.containsKey(pregunta.getIdEncuestaDetalle())) {
+                return pregunta;
+            }
+        }
+        return null;
+    }
+
+    public boolean isCompleta() {
+        return estado == Estado.EN_CURSO && respuestas.size() == definicion.getPreguntas().size();
+    }
+
+    // Respuestas listas para guardar, con las marcas de inicio y fin de la participación.
+    List<RespuestaUsuario> cerrar() {
+        Timestamp fin = new Timestamp(System.currentTimeMillis());
+        List<RespuestaUsuario> lista = new ArrayList<>(respuestas.values());
+        for (RespuestaUsuario respuesta : lista) {
+            respuesta.setTsInicioParticipacion(inicio);
+            respuesta.setTsFinParticipacion(fin);
+        }
+        return lista;
+    }
+
+    void marcarFinalizada() {
+        estado = Estado.FINALIZADA;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public Integer getIdDetalleQueDescarto() {
+        return idDetalleQueDescarto;
+    }
+
+    public String getTokenEnvio() {
+        return tokenEnvio;
+    }
+
+    public int getIdUsuario() {
+        return idUsuario;
+    }
+
+    public DefinicionEncuestaPublicada getDefinicion() {
+        return definicion;
+    }
+}
@@ -0,0 +1,89 @@
+package SteveJobs.encuestas.servicio;
+
+import SteveJobs.encuestas.util.HashContrasena;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Calcula y verifica hashes de contraseña en un pool propio y acotado: como mucho la mitad de
+// los núcleos y una cola de MAX_EN_COLA pedidos. Si llega una ráfaga de logins que no cabe, los
+// pedidos sobrantes se rechazan en vez de quitarle CPU al resto del sistema (p. ej. a la
+// recepción de respuestas). Tamaños configurables con -Dencuestas.hash.hilos / .cola.
+public class VerificadorContrasenas {
+
+    static final int HILOS = Integer.getInteger("encuestas.hash.hilos", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int MAX_EN_COLA = Integer.getInteger("encuestas.hash.cola", 64);
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 10;
+
+    private static final ThreadPoolExecutor ejecutor = crearEjecutor();
+
+    public enum Verificacion {
+        CORRECTA,
+        INCORRECTA,
+        // El pool estaba saturado o la verificación no terminó a tiempo: no se sabe si coincide.
+        OCUPADO
+    }
+
+    private VerificadorContrasenas() {
+    }
+
+    // true solo si la contraseña coincide; un pool saturado también da false. Para distinguir
+    // ese caso de una contraseña incorrecta se usa verificarConEstado.
+    public static boolean verificar(String password, String almacenado) {
+        return verificarConEstado(password, almacenado) == Verificacion.CORRECTA;
+    }
+
+    public static Verificacion verificarConEstado(String password, String almacenado) {
+        Boolean resultado = ejecutar(() -> HashContrasena.verificar(password, almacenado));
+        if (resultado == null) {
+            return Verificacion.OCUPADO;
+        }
+        return resultado ? Verificacion.CORRECTA : Verificacion.INCORRECTA;
+    }
+
+    // null si el pool está saturado o el hash no se pudo calcular.
+    public static String hashear(String password) {
+        return ejecutar(() -> HashContrasena.hashear(password));
+    }
+
+    private static <T> T ejecutar(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = ejecutor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            System.err.println("VerificadorContrasenas: Demasiadas verificaciones en curso, se rechaza el pedido.");
+            return null;
+        }
+        try {
+            return futuro.get(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            System.err.println("VerificadorContrasenas: La verificación superó el tiempo máximo.");
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("VerificadorContrasenas: Error al calcular el hash: " + e.getCause());
+        }
+        return null;
+    }
+
+    private static ThreadPoolExecutor crearEjecutor() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(HILOS, HILOS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_EN_COLA), r -> {
+                    Thread hilo = new Thread(r, "hash-contrasenas");
+                    hilo.setDaemon(true);
+                    // Por debajo de los hilos que atienden respuestas.
+                    hilo.setPriority(Thread.NORM_PRIORITY - 1);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,218 @@
+package SteveJobs.encuestas.ui;
+
+import SteveJobs.encuestas.util.CacheExpirable;
+
+import java.awt.BorderLayout;
+import java.awt.Dialog;
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+
+// Ejecuta las llamadas a los servicios fuera del hilo de la interfaz. Si la llamada termina
+// en DEMORA_DIALOGO_MS no se muestra nada; si tarda más aparece un diálogo modal con barra de
+// progreso y botón "Cancelar", que se cierra solo al terminar. Cancelar devuelve el control de
+// inmediato y descarta el resultado (la consulta JDBC en curso termina en segundo plano).
+// Las escrituras van por ejecutarSinCancelar: su diálogo no tiene "Cancelar", porque la
+// escritura podría completarse igual y el usuario creería que no se hizo.
+// Las pantallas también pueden precargar lo que probablemente pidan después.
+public class PuenteServicios {
+
+    private static final long DEMORA_DIALOGO_MS = 200;
+    private static final long VIGENCIA_PRECARGA_MS = 30 * 1000;
+
+    private static final ExecutorService primerPlano = Executors.newFixedThreadPool(2, r -> crearHilo(r, "servicios-ui", Thread.NORM_PRIORITY));
+    // Un solo hilo de menor prioridad: una precarga nunca le quita lugar a lo que el usuario espera.
+    private static final ExecutorService precargas = Executors.newSingleThreadExecutor(r -> crearHilo(r, "precarga-ui", Thread.MIN_PRIORITY));
+    private static final CacheExpirable<String, Tarea<?>> precargadas = new CacheExpirable<>(32, VIGENCIA_PRECARGA_MS);
+
+    // Avisa al diálogo (si llegó a mostrarse) en cuanto la tarea termina o se cancela.
+    private static final class Tarea<T> extends FutureTask<T> {
+        private volatile JDialog dialogo;
+        private final boolean cancelable;
+
+        Tarea(Callable<T> llamada, boolean cancelable) {
+            super(llamada);
+            this.cancelable = cancelable;
+        }
+
+        @Override
+        protected void done() {
+            EventQueue.invokeLater(() -> {
+                if (dialogo != null) {
+                    dialogo.dispose();
+                }
+            });
+        }
+    }
+
+    private PuenteServicios() {
+    }
+
+    // Resultado de la llamada, o valorSiFalla si lanzó una excepción o el usuario la canceló.
+    public static <T> T ejecutar(String mensaje, Callable<T> llamada, T valorSiFalla) {
+        Tarea<T> tarea = new Tarea<>(llamada, true);
+        primerPlano.execute(tarea);
+        return esperar(mensaje, tarea, valorSiFalla);
+    }
+
+    public static <T> T ejecutar(String mensaje, Callable<T> llamada) {
+        return ejecutar(mensaje, llamada, null);
+    }
+
+    // Como ejecutar, pero sin botón "Cancelar": para llamadas que modifican datos. valorSiFalla
+    // solo se devuelve si la llamada lanzó una excepción.
+    public static <T> T ejecutarSinCancelar(String mensaje, Callable<T> llamada, T valorSiFalla) {
+        Tarea<T> tarea = new Tarea<>(llamada, false);
+        primerPlano.execute(tarea);
+        return esperar(mensaje, tarea, valorSiFalla);
+    }
+
+    public static <T> T ejecutarSinCancelar(String mensaje, Callable<T> llamada) {
+        return ejecutarSinCancelar(mensaje, llamada, null);
+    }
+
+    // Empieza a calcular en segundo plano algo que la pantalla probablemente pida después. Una
+    // precarga con la misma clave reemplaza a la anterior, que puede estar desactualizada.
+    public static <T> void precargar(String clave, Callable<T> llamada) {
+        Tarea<T> tarea = new Tarea<>(llamada, true);
+        Tarea<?> anterior = precargadas.quitar(clave);
+        if (anterior != null) {
+            anterior.cancel(false);
+        }
+        precargadas.guardar(clave, tarea);
+        precargas.execute(tarea);
+    }
+
+    // Usa la precarga de esa clave si existe (esperándola si aún no terminó) o, si no, ejecuta
+    // la llamada como ejecutar(). Cada precarga se usa una sola vez. Si el usuario cancela la
+    // espera devuelve null sin repetir la consulta; solo una precarga que falló se reintenta.
+    @SuppressWarnings("unchecked")
+    public static <T> T obtenerPrecargado(String clave, String mensaje, Callable<T> llamada) {
+        Tarea<T> tarea = (Tarea<T>) precargadas.quitar(clave);
+        if (tarea != null) {
+            // Ya se quitó del mapa: ninguna precarga nueva puede cancelarla, así que si termina
+            // cancelada fue el usuario (o la interrupción de quien espera).
+            T resultado = esperar(mensaje, tarea, null);
+            if (!fallo(tarea)) {
+                return resultado;
+            }
+        }
+        return ejecutar(mensaje, llamada);
+    }
+
+    // true si la tarea terminó lanzando una excepción; false si terminó bien o se canceló.
+    private static boolean fallo(Tarea<?> tarea) {
+        if (!tarea.isDone() || tarea.isCancelled()) {
+            return false;
+        }
+        try {
+            tarea.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static <T> T esperar(String mensaje, Tarea<T> tarea, T valorSiFalla) {
+        try {
+            return tarea.get(DEMORA_DIALOGO_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            mostrarProgreso(mensaje, tarea);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (tarea.cancelable) {
+                tarea.cancel(true);
+            }
+            return valorSiFalla;
+        } catch (ExecutionException e) {
+            System.err.println("PuenteServicios: Error en '" + mensaje + "': " + e.getCause());
+            return valorSiFalla;
+        } catch (CancellationException e) {
+            return valorSiFalla;
+        }
+
+        try {
+            return tarea.get();
+        } catch (CancellationException e) {
+            System.out.println("PuenteServicios: Operación cancelada por el usuario: " + mensaje);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (tarea.cancelable) {
+                tarea.cancel(true);
+            }
+        } catch (ExecutionException e) {
+            System.err.println("PuenteServicios: Error en '" + mensaje + "': " + e.getCause());
+        }
+        return valorSiFalla;
+    }
+
+    // Bloquea a quien llama hasta que la tarea termina o se cancela. Funciona tanto desde el
+    // hilo de eventos (el diálogo modal sigue atendiendo eventos) como desde el hilo principal.
+    private static void mostrarProgreso(String mensaje, Tarea<?> tarea) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return;
+        }
+        Runnable mostrar = () -> {
+            JDialog dialogo = new JDialog((Dialog) null, "Procesando", Dialog.ModalityType.APPLICATION_MODAL);
+            JProgressBar barra = new JProgressBar();
+            barra.setIndeterminate(true);
+            JPanel panel = new JPanel(new BorderLayout(10, 10));
+            panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+            panel.add(new JLabel(mensaje), BorderLayout.NORTH);
+            panel.add(barra, BorderLayout.CENTER);
+            if (tarea.cancelable) {
+                JButton cancelar = new JButton("Cancelar");
+                cancelar.addActionListener(e -> tarea.cancel(true));
+                panel.add(cancelar, BorderLayout.SOUTH);
+            }
+            dialogo.setContentPane(panel);
+            dialogo.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+            dialogo.pack();
+            dialogo.setLocationRelativeTo(null);
+            tarea.dialogo = dialogo;
+            // done() cierra el diálogo a través de la cola de eventos; si la tarea ya terminó
+            // antes de asignarlo, ese cierre no lo vio y no hay que mostrarlo.
+            if (!tarea.isDone()) {
+                dialogo.setVisible(true);
+            }
+        };
+        if (EventQueue.isDispatchThread()) {
+            mostrar.run();
+            return;
+        }
+        try {
+            EventQueue.invokeAndWait(mostrar);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (tarea.cancelable) {
+                tarea.cancel(true);
+            }
+        } catch (InvocationTargetException e) {
+            System.err.println("PuenteServicios: No se pudo mostrar el progreso: " + e.getCause());
+        }
+    }
+
+    private static Thread crearHilo(Runnable r, String nombre, int prioridad) {
+        Thread hilo = new Thread(r, nombre);
+        hilo.setDaemon(true);
+        hilo.setPriority(prioridad);
+        return hilo;
+    }
+}
\ No newline at end of file
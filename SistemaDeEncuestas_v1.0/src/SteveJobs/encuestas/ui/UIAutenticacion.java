@@ -5,6 +5,7 @@ Autor: Gian Fri
 
 package SteveJobs.encuestas.ui;
 
+import SteveJobs.encuestas.modelo.ResultadoAutenticacion;
 import SteveJobs.encuestas.modelo.Usuario;
 import SteveJobs.encuestas.servicio.ServicioAutenticacion;
 
@@ -45,15 +46,40 @@ public class UIAutenticacion {
 
         ServicioAutenticacion servicioAuth = new ServicioAutenticacion();
 
-        Usuario usuarioAutenticado = servicioAuth.autenticar(email.trim(), password);
+        final String emailIngresado = email.trim();
+        final String passwordIngresado = password;
+        ResultadoAutenticacion resultado = PuenteServicios.ejecutar("Verificando credenciales...",
+                () -> servicioAuth.autenticarConResultado(emailIngresado, passwordIngresado, null));
+        if (resultado == null) {
+            JOptionPane.showMessageDialog(null,
+                    "No se pudo completar el inicio de sesión. Intente nuevamente.",
+                    "Error de Autenticación",
+                    JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
 
-        if (usuarioAutenticado != null) {
+        Usuario usuarioAutenticado = resultado.getUsuario();
+        if (resultado.isExitosa()) {
             JOptionPane.showMessageDialog(null,
                     "Login exitoso. Bienvenido " + usuarioAutenticado.getNombresApellidos() + "!",
                     "Éxito",
                     JOptionPane.INFORMATION_MESSAGE);
             return usuarioAutenticado;
         } else {
+            if (resultado.getEstado() == ResultadoAutenticacion.Estado.BLOQUEADA) {
+                JOptionPane.showMessageDialog(null,
+                        "Demasiados intentos fallidos. Intente nuevamente en " + resultado.getSegundosDeBloqueo() + " segundos.",
+                        "Cuenta Bloqueada Temporalmente",
+                        JOptionPane.ERROR_MESSAGE);
+                return null;
+            }
+            if (resultado.getEstado() == ResultadoAutenticacion.Estado.SERVICIO_OCUPADO) {
+                JOptionPane.showMessageDialog(null,
+                        resultado.getEstado().getDescripcion(),
+                        "Servidor Ocupado",
+                        JOptionPane.WARNING_MESSAGE);
+                return null;
+            }
 
             JOptionPane.showMessageDialog(null,
                     "Email o contraseña incorrectos, o la cuenta podría estar inactiva.",
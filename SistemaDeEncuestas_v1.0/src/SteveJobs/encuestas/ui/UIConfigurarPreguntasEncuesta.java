@@ -5,8 +5,10 @@ package SteveJobs.encuestas.ui;
 
 import SteveJobs.encuestas.modelo.Encuesta;
 import SteveJobs.encuestas.modelo.EncuestaDetallePregunta;
+import SteveJobs.encuestas.modelo.PlantillaPregunta;
 import SteveJobs.encuestas.modelo.PreguntaBanco;
 import SteveJobs.encuestas.servicio.ServicioEncuestas;
+import SteveJobs.encuestas.servicio.ServicioPlantillas;
 import SteveJobs.encuestas.servicio.ServicioPreguntas;
 
 import javax.swing.JOptionPane;
@@ -19,7 +21,9 @@ public class UIConfigurarPreguntasEncuesta {
 
     private static ServicioEncuestas servicioEncuestas = new ServicioEncuestas();
     private static ServicioPreguntas servicioPreguntas = new ServicioPreguntas();
+    private static ServicioPlantillas servicioPlantillas = new ServicioPlantillas();
     private static int idEncuestaActual;
+    private static final int MAX_RESULTADOS_BANCO = 100;
 
     public static void mostrarMenuConfiguracion(int idEncuesta) {
         if (idEncuesta == -1) {
@@ -27,7 +31,7 @@ public class UIConfigurarPreguntasEncuesta {
             return;
         }
         idEncuestaActual = idEncuesta;
-        Encuesta encuesta = servicioEncuestas.obtenerDetallesCompletosEncuesta(idEncuestaActual);
+        Encuesta encuesta = cargarEncuesta();
         if (encuesta == null) {
              JOptionPane.showMessageDialog(null, "No se pudo cargar la encuesta con ID: " + idEncuesta, "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -35,6 +39,9 @@ public class UIConfigurarPreguntasEncuesta {
 
         boolean salir = false;
         while (!salir) {
+            // Ver, marcar, eliminar y reordenar empiezan leyendo las preguntas asociadas.
+            final int idPrecarga = idEncuestaActual;
+            PuenteServicios.precargar(clavePreguntas(), () -> servicioEncuestas.obtenerPreguntasDeEncuesta(idPrecarga));
             String tituloMenu = "Configurar Preguntas para Encuesta: " + encuesta.getNombreEncuesta() + " (ID: " + idEncuesta + ")";
             String[] opciones = {
                     "Asociar Pregunta del Banco",
@@ -42,6 +49,9 @@ public class UIConfigurarPreguntasEncuesta {
                     "Ver Preguntas Asociadas",
                     "Marcar/Desmarcar Pregunta como Descarte",
                     "Eliminar Pregunta de la Encuesta",
+                    "Reordenar Preguntas",
+                    "Aplicar Plantilla de Preguntas",
+                    "Guardar Preguntas como Plantilla",
                     "Volver a Gestión de Encuestas"
             };
             String seleccion = (String) JOptionPane.showInputDialog(
@@ -54,7 +64,7 @@ public class UIConfigurarPreguntasEncuesta {
                     opciones[0]
             );
 
-            if (seleccion == null || seleccion.equals(opciones[5])) {
+            if (seleccion == null || seleccion.equals(opciones[8])) {
                 salir = true;
                 continue;
             }
@@ -75,11 +85,20 @@ public class UIConfigurarPreguntasEncuesta {
                 case "Eliminar Pregunta de la Encuesta":
                     eliminarPreguntaDeEncuestaUI();
                     break;
+                case "Reordenar Preguntas":
+                    reordenarPreguntasUI();
+                    break;
+                case "Aplicar Plantilla de Preguntas":
+                    aplicarPlantillaUI();
+                    break;
+                case "Guardar Preguntas como Plantilla":
+                    guardarComoPlantillaUI(encuesta.getIdAdminCreador());
+                    break;
                 default:
                     JOptionPane.showMessageDialog(null, "Opción no válida.", "Error", JOptionPane.ERROR_MESSAGE);
                     break;
             }
-            encuesta = servicioEncuestas.obtenerDetallesCompletosEncuesta(idEncuestaActual);
+            encuesta = cargarEncuesta();
             if (encuesta == null) {
                 JOptionPane.showMessageDialog(null, "La encuesta ya no está disponible.", "Error", JOptionPane.ERROR_MESSAGE);
                 salir = true;
@@ -87,10 +106,29 @@ public class UIConfigurarPreguntasEncuesta {
         }
     }
 
+    private static Encuesta cargarEncuesta() {
+        final int id = idEncuestaActual;
+        return PuenteServicios.ejecutar("Cargando encuesta...", () -> servicioEncuestas.obtenerDetallesCompletosEncuesta(id));
+    }
+
+    private static List<EncuestaDetallePregunta> obtenerPreguntasAsociadas() {
+        final int id = idEncuestaActual;
+        return PuenteServicios.obtenerPrecargado(clavePreguntas(), "Cargando preguntas...",
+                () -> servicioEncuestas.obtenerPreguntasDeEncuesta(id));
+    }
+
+    private static String clavePreguntas() {
+        return "preguntasEncuesta|" + idEncuestaActual;
+    }
+
     private static void asociarPreguntaBancoUI() {
-        List<PreguntaBanco> preguntasBanco = servicioPreguntas.listarPreguntasDelBancoConFiltro(null, null);
+        String textoBusqueda = JOptionPane.showInputDialog(null, "Buscar en el banco de preguntas (deje vacío para ver las primeras " + MAX_RESULTADOS_BANCO + "):", "Asociar Pregunta del Banco", JOptionPane.PLAIN_MESSAGE);
+        if (textoBusqueda == null) return;
+
+        List<PreguntaBanco> preguntasBanco = PuenteServicios.ejecutar("Buscando en el banco de preguntas...",
+                () -> servicioPreguntas.buscarPreguntasDelBanco(textoBusqueda, null, null, MAX_RESULTADOS_BANCO));
         if (preguntasBanco == null || preguntasBanco.isEmpty()) {
-            JOptionPane.showMessageDialog(null, "No hay preguntas en el banco para asociar.", "Banco Vacío", JOptionPane.INFORMATION_MESSAGE);
+            JOptionPane.showMessageDialog(null, textoBusqueda.trim().isEmpty() ? "No hay preguntas en el banco para asociar." : "Ninguna pregunta del banco coincide con la búsqueda.", "Banco Vacío", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
 
@@ -131,7 +169,9 @@ public class UIConfigurarPreguntasEncuesta {
             }
         }
 
-        if (servicioEncuestas.asociarPreguntaDelBancoAEncuesta(idEncuestaActual, idPreguntaBancoSeleccionada, orden, esDescarte, criterioDescarte)) {
+        final String criterio = criterioDescarte;
+        if (PuenteServicios.ejecutarSinCancelar("Asociando pregunta...",
+                () -> servicioEncuestas.asociarPreguntaDelBancoAEncuesta(idEncuestaActual, idPreguntaBancoSeleccionada, orden, esDescarte, criterio), false)) {
             JOptionPane.showMessageDialog(null, "Pregunta del banco asociada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
         } else {
             JOptionPane.showMessageDialog(null, "Error al asociar la pregunta. Verifique si la encuesta ya tiene 12 preguntas, si la pregunta ya está asociada o si el ID de la pregunta del banco es válido.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -169,7 +209,10 @@ public class UIConfigurarPreguntasEncuesta {
             if (criterioDescarte == null) criterioDescarte = "";
         }
 
-        if (servicioEncuestas.agregarPreguntaNuevaAEncuesta(idEncuestaActual, texto, nombreTipo, (nombreClasif != null && !nombreClasif.trim().isEmpty() ? nombreClasif.trim() : null), orden, esDescarte, criterioDescarte)) {
+        final String clasificacion = (nombreClasif != null && !nombreClasif.trim().isEmpty() ? nombreClasif.trim() : null);
+        final String criterio = criterioDescarte;
+        if (PuenteServicios.ejecutarSinCancelar("Agregando pregunta...",
+                () -> servicioEncuestas.agregarPreguntaNuevaAEncuesta(idEncuestaActual, texto, nombreTipo, clasificacion, orden, esDescarte, criterio), false)) {
              JOptionPane.showMessageDialog(null, "Pregunta nueva agregada y asociada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
         } else {
             JOptionPane.showMessageDialog(null, "Error al agregar la pregunta nueva. Verifique el tipo/clasificación o si la encuesta ya tiene 12 preguntas.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -177,7 +220,7 @@ public class UIConfigurarPreguntasEncuesta {
     }
 
     private static void verPreguntasAsociadasUI() {
-        List<EncuestaDetallePregunta> detalles = servicioEncuestas.obtenerPreguntasDeEncuesta(idEncuestaActual);
+        List<EncuestaDetallePregunta> detalles = obtenerPreguntasAsociadas();
         if (detalles == null || detalles.isEmpty()) {
             JOptionPane.showMessageDialog(null, "No hay preguntas asociadas a esta encuesta.", "Información", JOptionPane.INFORMATION_MESSAGE);
             return;
@@ -202,7 +245,7 @@ public class UIConfigurarPreguntasEncuesta {
     }
 
     private static void marcarDesmarcarDescarteUI() {
-        List<EncuestaDetallePregunta> detalles = servicioEncuestas.obtenerPreguntasDeEncuesta(idEncuestaActual);
+        List<EncuestaDetallePregunta> detalles = obtenerPreguntasAsociadas();
         if (detalles == null || detalles.isEmpty()) {
             JOptionPane.showMessageDialog(null, "No hay preguntas para marcar/desmarcar.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -249,13 +292,16 @@ public class UIConfigurarPreguntasEncuesta {
                 }
             }
             if (nuevoEstadoDescarte) {
-                if (servicioEncuestas.marcarPreguntaComoDescarte(idEncuestaDetalleSeleccionada, criterio)) {
+                final String criterioIngresado = criterio;
+                if (PuenteServicios.ejecutarSinCancelar("Marcando pregunta...",
+                        () -> servicioEncuestas.marcarPreguntaComoDescarte(idEncuestaDetalleSeleccionada, criterioIngresado), false)) {
                     JOptionPane.showMessageDialog(null, "Pregunta marcada como descarte.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
                 } else {
                     JOptionPane.showMessageDialog(null, "Error al marcar como descarte.", "Error", JOptionPane.ERROR_MESSAGE);
                 }
             } else {
-                 if (servicioEncuestas.desmarcarPreguntaComoDescarte(idEncuestaDetalleSeleccionada)) {
+                 if (PuenteServicios.ejecutarSinCancelar("Desmarcando pregunta...",
+                         () -> servicioEncuestas.desmarcarPreguntaComoDescarte(idEncuestaDetalleSeleccionada), false)) {
                     JOptionPane.showMessageDialog(null, "Pregunta desmarcada como descarte.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
                 } else {
                     JOptionPane.showMessageDialog(null, "Error al desmarcar como descarte.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -265,7 +311,7 @@ public class UIConfigurarPreguntasEncuesta {
     }
 
     private static void eliminarPreguntaDeEncuestaUI() {
-        List<EncuestaDetallePregunta> detalles = servicioEncuestas.obtenerPreguntasDeEncuesta(idEncuestaActual);
+        List<EncuestaDetallePregunta> detalles = obtenerPreguntasAsociadas();
         if (detalles == null || detalles.isEmpty()) {
             JOptionPane.showMessageDialog(null, "No hay preguntas para eliminar de esta encuesta.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -283,11 +329,89 @@ public class UIConfigurarPreguntasEncuesta {
 
         int confirm = JOptionPane.showConfirmDialog(null, "¿Está seguro de eliminar esta pregunta de la encuesta?", "Confirmar Eliminación", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
         if (confirm == JOptionPane.YES_OPTION) {
-            if (servicioEncuestas.eliminarPreguntaDeEncuestaServicio(idEncuestaDetalleSeleccionada)) {
+            if (PuenteServicios.ejecutarSinCancelar("Eliminando pregunta...",
+                    () -> servicioEncuestas.eliminarPreguntaDeEncuestaServicio(idEncuestaDetalleSeleccionada), false)) {
                 JOptionPane.showMessageDialog(null, "Pregunta eliminada de la encuesta exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(null, "Error al eliminar la pregunta de la encuesta.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
+
+    private static void reordenarPreguntasUI() {
+        List<EncuestaDetallePregunta> detalles = obtenerPreguntasAsociadas();
+        if (detalles == null || detalles.size() < 2) {
+            JOptionPane.showMessageDialog(null, "Se necesitan al menos dos preguntas para reordenar.", "Información", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Orden actual (ID_Detalle: texto):\n");
+        for (EncuestaDetallePregunta edp : detalles) {
+            sb.append(edp.getOrdenEnEncuesta()).append(". ").append(edp.getIdEncuestaDetalle()).append(": ")
+              .append(edp.getTextoPreguntaMostrable().substring(0, Math.min(edp.getTextoPreguntaMostrable().length(), 40))).append("\n");
+        }
+        sb.append("\nIngrese los ID_Detalle en el nuevo orden, separados por comas:");
+
+        String nuevoOrdenStr = JOptionPane.showInputDialog(null, sb.toString(), "Reordenar Preguntas", JOptionPane.PLAIN_MESSAGE);
+        if (nuevoOrdenStr == null || nuevoOrdenStr.trim().isEmpty()) return;
+
+        List<Integer> idsEnOrden = new ArrayList<>();
+        try {
+            for (String parte : nuevoOrdenStr.split(",")) {
+                if (!parte.trim().isEmpty()) {
+                    idsEnOrden.add(Integer.parseInt(parte.trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(null, "Los ID_Detalle deben ser números separados por comas.", "Error de Formato", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (idsEnOrden.size() != detalles.size()) {
+            JOptionPane.showMessageDialog(null, "Debe indicar las " + detalles.size() + " preguntas de la encuesta.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        if (PuenteServicios.ejecutarSinCancelar("Reordenando preguntas...",
+                () -> servicioEncuestas.reordenarPreguntasEncuesta(idEncuestaActual, idsEnOrden), false)) {
+            JOptionPane.showMessageDialog(null, "Preguntas reordenadas exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(null, "Error al reordenar. Verifique que los ID_Detalle pertenezcan a esta encuesta y no se repitan.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static void aplicarPlantillaUI() {
+        List<PlantillaPregunta> plantillas = PuenteServicios.ejecutar("Cargando plantillas...", () -> servicioPlantillas.listarPlantillas());
+        if (plantillas == null || plantillas.isEmpty()) {
+            JOptionPane.showMessageDialog(null, "No hay plantillas de preguntas guardadas.", "Sin Plantillas", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        List<String> opcionesPlantillas = new ArrayList<>();
+        for (PlantillaPregunta plantilla : plantillas) {
+            opcionesPlantillas.add(plantilla.getIdPlantilla() + ": " + plantilla.getNombrePlantilla() + " (" + plantilla.getPreguntas().size() + " preguntas)");
+        }
+        String seleccion = (String) JOptionPane.showInputDialog(null, "Seleccione la plantilla a aplicar:",
+                "Aplicar Plantilla", JOptionPane.QUESTION_MESSAGE, null, opcionesPlantillas.toArray(), opcionesPlantillas.get(0));
+        if (seleccion == null) return;
+
+        int idPlantilla = Integer.parseInt(seleccion.split(":")[0]);
+        if (PuenteServicios.ejecutarSinCancelar("Aplicando plantilla...",
+                () -> servicioPlantillas.aplicarPlantillaAEncuesta(idPlantilla, idEncuestaActual), false)) {
+            JOptionPane.showMessageDialog(null, "Plantilla aplicada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(null, "Error al aplicar la plantilla. Verifique que la encuesta no supere las " + ServicioEncuestas.MAX_PREGUNTAS_POR_ENCUESTA + " preguntas.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static void guardarComoPlantillaUI(int idAdmin) {
+        String nombre = JOptionPane.showInputDialog(null, "Nombre de la plantilla (solo se guardan las preguntas del banco):", "Guardar como Plantilla", JOptionPane.PLAIN_MESSAGE);
+        if (nombre == null || nombre.trim().isEmpty()) return;
+        String descripcion = JOptionPane.showInputDialog(null, "Descripción de la plantilla (opcional):", "Guardar como Plantilla", JOptionPane.PLAIN_MESSAGE);
+
+        int idPlantilla = PuenteServicios.ejecutarSinCancelar("Guardando plantilla...",
+                () -> servicioPlantillas.crearPlantillaDesdeEncuesta(idEncuestaActual, nombre, descripcion, idAdmin), -1);
+        if (idPlantilla > 0) {
+            JOptionPane.showMessageDialog(null, "Plantilla guardada con ID: " + idPlantilla, "Éxito", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(null, "No se pudo guardar la plantilla. La encuesta debe tener al menos una pregunta del banco.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
 }
\ No newline at end of file
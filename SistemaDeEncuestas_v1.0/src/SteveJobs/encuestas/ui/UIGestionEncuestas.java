@@ -3,7 +3,10 @@ Autor: Alfredo Swidin
  */
 package SteveJobs.encuestas.ui;
 
+import SteveJobs.encuestas.dao.EncuestaDAO;
 import SteveJobs.encuestas.modelo.Encuesta;
+import SteveJobs.encuestas.modelo.Pagina;
+import SteveJobs.encuestas.modelo.ResultadoCambioEstado;
 import SteveJobs.encuestas.modelo.Usuario;
 import SteveJobs.encuestas.servicio.ServicioEncuestas;
 
@@ -11,12 +14,16 @@ import javax.swing.JOptionPane;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.List;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 
 public class UIGestionEncuestas {
 
+    private static final int TAMANO_PAGINA = 20;
+    private static final String OPCION_MAS_RESULTADOS = "» Ver más encuestas...";
+
     private static ServicioEncuestas servicioEncuestas = new ServicioEncuestas();
     private static Usuario adminLogueado;
 
@@ -24,6 +31,9 @@ public class UIGestionEncuestas {
         adminLogueado = admin;
         boolean salir = false;
         while (!salir) {
+            // Casi todas las opciones empiezan listando la primera página; se pide mientras el
+            // administrador elige.
+            precargarPagina(null, null);
             String[] opciones = {
                     "Crear Nueva Encuesta",
                     "Listar Todas las Encuestas",
@@ -132,7 +142,9 @@ public class UIGestionEncuestas {
 
         int idAdmin = (adminLogueado != null) ? adminLogueado.getIdUsuario() : 0;
 
-        int idNuevaEncuesta = servicioEncuestas.registrarNuevaEncuesta(nombre, descripcion, fechaInicio, fechaFin, publicoObjetivo, definicionPerfil, idAdmin);
+        final int publico = publicoObjetivo;
+        int idNuevaEncuesta = PuenteServicios.ejecutarSinCancelar("Creando encuesta...",
+                () -> servicioEncuestas.registrarNuevaEncuesta(nombre, descripcion, fechaInicio, fechaFin, publico, definicionPerfil, idAdmin), -1);
 
         if (idNuevaEncuesta != -1) {
             JOptionPane.showMessageDialog(null, "Encuesta '" + nombre + "' creada con ID: " + idNuevaEncuesta + " en estado Borrador.\nProceda a configurar sus preguntas.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
@@ -142,49 +154,107 @@ public class UIGestionEncuestas {
     }
 
     private static void listarEncuestasUI() {
-        List<Encuesta> encuestas = servicioEncuestas.obtenerTodasLasEncuestas();
-        if (encuestas.isEmpty()) {
-            JOptionPane.showMessageDialog(null, "No hay encuestas registradas.", "Listar Encuestas", JOptionPane.INFORMATION_MESSAGE);
+        String texto = JOptionPane.showInputDialog(null, "Filtrar por nombre (deje vacío para ver todas):", "Listar Encuestas", JOptionPane.PLAIN_MESSAGE);
+        if (texto == null) {
             return;
         }
-        StringBuilder sb = new StringBuilder("Encuestas Registradas:\n\n");
-        for (Encuesta e : encuestas) {
-            sb.append("ID: ").append(e.getIdEncuesta())
-              .append(" - Nombre: ").append(e.getNombreEncuesta())
-              .append(" - Estado: ").append(e.getEstado())
-              .append("\n  Vigencia: ").append(e.getFechaInicioVigencia()).append(" a ").append(e.getFechaFinVigencia())
-              .append("\n------------------------------------\n");
+        String cursor = null;
+        int numeroPagina = 1;
+        while (true) {
+            Pagina<Encuesta> pagina = obtenerPagina(cursor, texto);
+            if (pagina == null) {
+                JOptionPane.showMessageDialog(null, "Error al obtener las encuestas. Revise la consola para más detalles.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (pagina.isVacia()) {
+                JOptionPane.showMessageDialog(null, "No hay encuestas registradas.", "Listar Encuestas", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            StringBuilder sb = new StringBuilder("Encuestas Registradas (página " + numeroPagina + "):\n\n");
+            for (Encuesta e : pagina.getElementos()) {
+                sb.append("ID: ").append(e.getIdEncuesta())
+                  .append(" - Nombre: ").append(e.getNombreEncuesta())
+                  .append(" - Estado: ").append(e.getEstado())
+                  .append("\n  Vigencia: ").append(e.getFechaInicioVigencia()).append(" a ").append(e.getFechaFinVigencia())
+                  .append("\n------------------------------------\n");
+            }
+            JTextArea textArea = new JTextArea(sb.toString());
+            JScrollPane scrollPane = new JScrollPane(textArea);
+            textArea.setEditable(false);
+            textArea.setLineWrap(true);
+            textArea.setWrapStyleWord(true);
+            scrollPane.setPreferredSize(new java.awt.Dimension(500, 300));
+            if (!pagina.hayMas()) {
+                JOptionPane.showMessageDialog(null, scrollPane, "Listado de Encuestas", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            precargarPagina(pagina.getCursorSiguiente(), texto);
+            String[] botones = {"Página Siguiente", "Cerrar"};
+            int opcion = JOptionPane.showOptionDialog(null, scrollPane, "Listado de Encuestas", JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.INFORMATION_MESSAGE, null, botones, botones[0]);
+            if (opcion != 0) {
+                return;
+            }
+            cursor = pagina.getCursorSiguiente();
+            numeroPagina++;
         }
-        JTextArea textArea = new JTextArea(sb.toString());
-        JScrollPane scrollPane = new JScrollPane(textArea);
-        textArea.setEditable(false);
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        scrollPane.setPreferredSize(new java.awt.Dimension(500, 300));
-        JOptionPane.showMessageDialog(null, scrollPane, "Listado de Encuestas", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private static Pagina<Encuesta> obtenerPagina(String cursor, String texto) {
+        return PuenteServicios.obtenerPrecargado(clavePagina(cursor, texto), "Cargando encuestas...",
+                () -> servicioEncuestas.obtenerPaginaEncuestas(cursor, TAMANO_PAGINA, null, texto));
+    }
+
+    // Página que el administrador probablemente pida a continuación.
+    private static void precargarPagina(String cursor, String texto) {
+        PuenteServicios.precargar(clavePagina(cursor, texto),
+                () -> servicioEncuestas.obtenerPaginaEncuestas(cursor, TAMANO_PAGINA, null, texto));
+    }
+
+    private static String clavePagina(String cursor, String texto) {
+        return "encuestas|" + (cursor == null ? "" : cursor) + "|" + (texto == null ? "" : texto.trim());
     }
 
     private static Encuesta seleccionarEncuestaParaAccion(String accion) {
-        List<Encuesta> encuestas = servicioEncuestas.obtenerTodasLasEncuestas();
-        if (encuestas.isEmpty()) {
-            JOptionPane.showMessageDialog(null, "No hay encuestas para " + accion + ".", "Error", JOptionPane.INFORMATION_MESSAGE);
-            return null;
-        }
-        String[] opcionesEncuestas = encuestas.stream()
-                                          .map(e -> e.getIdEncuesta() + ": " + e.getNombreEncuesta() + " (" + e.getEstado() + ")")
-                                          .toArray(String[]::new);
-        String seleccion = (String) JOptionPane.showInputDialog(null, "Seleccione la encuesta para " + accion + ":",
-                "Seleccionar Encuesta", JOptionPane.QUESTION_MESSAGE, null, opcionesEncuestas, opcionesEncuestas[0]);
+        String cursor = null;
+        while (true) {
+            Pagina<Encuesta> pagina = obtenerPagina(cursor, null);
+            if (pagina == null) {
+                JOptionPane.showMessageDialog(null, "Error al obtener las encuestas.", "Error", JOptionPane.ERROR_MESSAGE);
+                return null;
+            }
+            if (pagina.isVacia()) {
+                JOptionPane.showMessageDialog(null, "No hay encuestas para " + accion + ".", "Error", JOptionPane.INFORMATION_MESSAGE);
+                return null;
+            }
+            List<String> opciones = new ArrayList<>();
+            for (Encuesta e : pagina.getElementos()) {
+                opciones.add(e.getIdEncuesta() + ": " + e.getNombreEncuesta() + " (" + e.getEstado() + ")");
+            }
+            if (pagina.hayMas()) {
+                opciones.add(OPCION_MAS_RESULTADOS);
+                precargarPagina(pagina.getCursorSiguiente(), null);
+            }
+            String[] opcionesEncuestas = opciones.toArray(new String[0]);
+            String seleccion = (String) JOptionPane.showInputDialog(null, "Seleccione la encuesta para " + accion + ":",
+                    "Seleccionar Encuesta", JOptionPane.QUESTION_MESSAGE, null, opcionesEncuestas, opcionesEncuestas[0]);
 
-        if (seleccion != null) {
+            if (seleccion == null) {
+                return null;
+            }
+            if (seleccion.equals(OPCION_MAS_RESULTADOS)) {
+                cursor = pagina.getCursorSiguiente();
+                continue;
+            }
             try {
                 int idEncuestaSeleccionada = Integer.parseInt(seleccion.split(":")[0]);
-                return servicioEncuestas.obtenerDetallesCompletosEncuesta(idEncuestaSeleccionada);
+                return PuenteServicios.ejecutar("Cargando encuesta...",
+                        () -> servicioEncuestas.obtenerDetallesCompletosEncuesta(idEncuestaSeleccionada));
             } catch (NumberFormatException e) {
                 JOptionPane.showMessageDialog(null, "Selección inválida.", "Error", JOptionPane.ERROR_MESSAGE);
+                return null;
             }
         }
-        return null;
     }
 
     private static void verOModificarDetallesEncuestaUI() {
@@ -214,10 +284,15 @@ public class UIGestionEncuestas {
             String nuevaDesc = JOptionPane.showInputDialog(null, "Nueva descripción (actual: " + encuesta.getDescripcion() + "):", encuesta.getDescripcion());
 
 
-            if (servicioEncuestas.modificarMetadatosEncuesta(encuesta.getIdEncuesta(), nuevoNombre, nuevaDesc,
-                encuesta.getFechaInicioVigencia(), encuesta.getFechaFinVigencia(), // Mantener fechas originales por ahora
-                encuesta.getPublicoObjetivoCantidad(), encuesta.getDefinicionPerfil())) { // Mantener originales
+            // Si la llamada falla se toma -1 (error): 0 es CONFLICTO_VERSION.
+            int resultado = PuenteServicios.ejecutarSinCancelar("Guardando encuesta...",
+                () -> servicioEncuestas.modificarMetadatosEncuesta(encuesta, nuevoNombre, nuevaDesc,
+                    encuesta.getFechaInicioVigencia(), encuesta.getFechaFinVigencia(), // Mantener fechas originales por ahora
+                    encuesta.getPublicoObjetivoCantidad(), encuesta.getDefinicionPerfil()), -1); // Mantener originales
+            if (resultado > 0) {
                 JOptionPane.showMessageDialog(null, "Encuesta actualizada.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+            } else if (resultado == EncuestaDAO.CONFLICTO_VERSION) {
+                JOptionPane.showMessageDialog(null, "Otro administrador modificó esta encuesta mientras la editaba.\nVuelva a abrirla para ver los cambios actuales.", "Conflicto de Edición", JOptionPane.WARNING_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(null, "Error al actualizar la encuesta.", "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -244,10 +319,14 @@ public class UIGestionEncuestas {
                 "Cambiar Estado de Encuesta", JOptionPane.QUESTION_MESSAGE, null, estadosPosibles, encuesta.getEstado());
 
         if (nuevoEstado != null && !nuevoEstado.equals(encuesta.getEstado())) {
-            if (servicioEncuestas.cambiarEstadoEncuesta(encuesta.getIdEncuesta(), nuevoEstado)) {
+            ResultadoCambioEstado resultado = PuenteServicios.ejecutarSinCancelar("Cambiando estado...",
+                    () -> servicioEncuestas.cambiarEstadoEncuestaConMotivo(encuesta.getIdEncuesta(), nuevoEstado));
+            if (resultado == null) {
+                JOptionPane.showMessageDialog(null, "Error al cambiar el estado de la encuesta. Revise la consola para más detalles.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (resultado.isAplicado()) {
                 JOptionPane.showMessageDialog(null, "Estado de la encuesta actualizado a " + nuevoEstado + ".", "Éxito", JOptionPane.INFORMATION_MESSAGE);
             } else {
-                JOptionPane.showMessageDialog(null, "Error al cambiar el estado. Verifique si cumple condiciones (ej. 12 preguntas para activar).", "Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(null, "No se pudo cambiar el estado: " + resultado.getMensaje(), "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
@@ -257,7 +336,8 @@ public class UIGestionEncuestas {
         if (encuestaOriginal == null) return;
 
         int idAdmin = (adminLogueado != null) ? adminLogueado.getIdUsuario() : 0;
-        Encuesta encuestaCopiada = servicioEncuestas.copiarEncuesta(encuestaOriginal.getIdEncuesta(), idAdmin);
+        Encuesta encuestaCopiada = PuenteServicios.ejecutarSinCancelar("Copiando encuesta...",
+                () -> servicioEncuestas.copiarEncuesta(encuestaOriginal.getIdEncuesta(), idAdmin));
 
         if (encuestaCopiada != null) {
             JOptionPane.showMessageDialog(null, "Encuesta copiada exitosamente con ID: " + encuestaCopiada.getIdEncuesta() + "\nNuevo nombre: " + encuestaCopiada.getNombreEncuesta(), "Copia Exitosa", JOptionPane.INFORMATION_MESSAGE);
@@ -275,10 +355,10 @@ public class UIGestionEncuestas {
                 "Confirmar Eliminación", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            if (servicioEncuestas.eliminarEncuesta(encuesta.getIdEncuesta())) {
-                JOptionPane.showMessageDialog(null, "Encuesta eliminada correctamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+            if (PuenteServicios.ejecutarSinCancelar("Eliminando encuesta...", () -> servicioEncuestas.eliminarEncuesta(encuesta.getIdEncuesta()), false)) {
+                JOptionPane.showMessageDialog(null, "Encuesta eliminada correctamente.\nSus preguntas y respuestas se depurarán en segundo plano.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
             } else {
-                JOptionPane.showMessageDialog(null, "Error al eliminar la encuesta. Podría tener datos asociados que impiden su borrado directo.", "Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(null, "Error al eliminar la encuesta. Es posible que ya haya sido eliminada.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
@@ -96,7 +96,10 @@ public class UIGestionPreguntasRegistro {
             return;
         }
 
-        if (servicioConfig.crearNuevaPreguntaRegistro(texto.trim(), tipoRespuesta, opcionesPosibles, esObligatoria, ordenVisualizacion)) {
+        final String opciones = opcionesPosibles;
+        final int orden = ordenVisualizacion;
+        if (PuenteServicios.ejecutarSinCancelar("Guardando pregunta...",
+                () -> servicioConfig.crearNuevaPreguntaRegistro(texto.trim(), tipoRespuesta, opciones, esObligatoria, orden), false)) {
             JOptionPane.showMessageDialog(null, "Pregunta de registro agregada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
         } else {
             JOptionPane.showMessageDialog(null, "Error al agregar la pregunta de registro.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -104,7 +107,11 @@ public class UIGestionPreguntasRegistro {
     }
 
     private static void listarPreguntasUIConsole() {
-        List<PreguntaRegistro> preguntas = servicioConfig.listarPreguntasRegistro();
+        List<PreguntaRegistro> preguntas = PuenteServicios.ejecutar("Cargando preguntas de registro...", () -> servicioConfig.listarPreguntasRegistro());
+        if (preguntas == null) {
+            JOptionPane.showMessageDialog(null, "No se pudieron obtener las preguntas de registro.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         if (preguntas.isEmpty()) {
             System.out.println("\n------------------------------------");
             System.out.println("No hay preguntas de registro definidas.");
@@ -182,7 +189,10 @@ public class UIGestionPreguntasRegistro {
         if (estado == null) return;
 
 
-        if (servicioConfig.modificarPreguntaRegistro(id, texto.trim(), tipoRespuesta, opcionesPosibles, esObligatoria, ordenVisualizacion, estado)) {
+        final String opciones = opcionesPosibles;
+        final int orden = ordenVisualizacion;
+        if (PuenteServicios.ejecutarSinCancelar("Guardando pregunta...",
+                () -> servicioConfig.modificarPreguntaRegistro(id, texto.trim(), tipoRespuesta, opciones, esObligatoria, orden, estado), false)) {
             JOptionPane.showMessageDialog(null, "Pregunta de registro modificada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
         } else {
             JOptionPane.showMessageDialog(null, "Error al modificar la pregunta de registro. Verifique el ID.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -203,7 +213,7 @@ public class UIGestionPreguntasRegistro {
 
         int confirm = JOptionPane.showConfirmDialog(null, "¿Está seguro de que desea eliminar la pregunta con ID " + id + "?", "Confirmar Eliminación", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            if (servicioConfig.eliminarPreguntaRegistro(id)) {
+            if (PuenteServicios.ejecutarSinCancelar("Eliminando pregunta...", () -> servicioConfig.eliminarPreguntaRegistro(id), false)) {
                 JOptionPane.showMessageDialog(null, "Pregunta de registro eliminada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(null, "Error al eliminar la pregunta de registro. Verifique el ID.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -0,0 +1,136 @@
+package SteveJobs.encuestas.ui;
+
+import SteveJobs.encuestas.modelo.Pagina;
+import SteveJobs.encuestas.modelo.Usuario;
+import SteveJobs.encuestas.servicio.ServicioUsuarios;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+
+public class UIGestionUsuarios {
+
+    private static final int TAMANO_PAGINA = 25;
+
+    private static ServicioUsuarios servicioUsuarios = new ServicioUsuarios();
+
+    public static void mostrarMenu(Usuario admin) {
+        boolean salir = false;
+        while (!salir) {
+            String[] opciones = {
+                "Listar Usuarios",
+                "Cambiar Estado de Usuario",
+                "Volver al Menú Administrador"
+            };
+            String seleccion = (String) JOptionPane.showInputDialog(
+                    null,
+                    "Gestión de Usuarios",
+                    "Admin: Usuarios",
+                    JOptionPane.PLAIN_MESSAGE,
+                    null,
+                    opciones,
+                    opciones[0]
+            );
+
+            if (seleccion == null || seleccion.equals(opciones[2])) {
+                salir = true;
+                continue;
+            }
+
+            switch (seleccion) {
+                case "Listar Usuarios":
+                    listarUsuariosUI();
+                    break;
+                case "Cambiar Estado de Usuario":
+                    cambiarEstadoUsuarioUI(admin);
+                    break;
+                default:
+                    JOptionPane.showMessageDialog(null, "Opción no válida.", "Error", JOptionPane.ERROR_MESSAGE);
+                    break;
+            }
+        }
+    }
+
+    private static void listarUsuariosUI() {
+        String texto = JOptionPane.showInputDialog(null, "Buscar por email o nombre (deje vacío para ver todos):", "Listar Usuarios", JOptionPane.PLAIN_MESSAGE);
+        if (texto == null) {
+            return;
+        }
+        String[] estados = {"Todos", "Activo", "Inactivo"};
+        String estado = (String) JOptionPane.showInputDialog(null, "Estado de la cuenta:", "Listar Usuarios",
+                JOptionPane.QUESTION_MESSAGE, null, estados, estados[0]);
+        if (estado == null) {
+            return;
+        }
+        String filtroEstado = "Todos".equals(estado) ? null : estado;
+
+        String cursor = null;
+        int numeroPagina = 1;
+        while (true) {
+            final String cursorActual = cursor;
+            Pagina<Usuario> pagina = PuenteServicios.ejecutar("Cargando usuarios...",
+                    () -> servicioUsuarios.obtenerPaginaUsuarios(cursorActual, TAMANO_PAGINA, filtroEstado, texto));
+            if (pagina == null) {
+                JOptionPane.showMessageDialog(null, "Error al obtener los usuarios. Revise la consola para más detalles.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (pagina.isVacia()) {
+                JOptionPane.showMessageDialog(null, "No hay usuarios que coincidan.", "Listar Usuarios", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            StringBuilder sb = new StringBuilder("Usuarios (página " + numeroPagina + "):\n\n");
+            for (Usuario u : pagina.getElementos()) {
+                sb.append("ID: ").append(u.getIdUsuario())
+                  .append(" - ").append(u.getNombresApellidos())
+                  .append(" <").append(u.getEmail()).append(">")
+                  .append("\n  Tipo: ").append(u.getTipoNivel())
+                  .append(" - Estado: ").append(u.getEstadoCuenta())
+                  .append("\n------------------------------------\n");
+            }
+            JTextArea textArea = new JTextArea(sb.toString());
+            JScrollPane scrollPane = new JScrollPane(textArea);
+            textArea.setEditable(false);
+            scrollPane.setPreferredSize(new java.awt.Dimension(500, 300));
+            if (!pagina.hayMas()) {
+                JOptionPane.showMessageDialog(null, scrollPane, "Listado de Usuarios", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            String[] botones = {"Página Siguiente", "Cerrar"};
+            int opcion = JOptionPane.showOptionDialog(null, scrollPane, "Listado de Usuarios", JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.INFORMATION_MESSAGE, null, botones, botones[0]);
+            if (opcion != 0) {
+                return;
+            }
+            cursor = pagina.getCursorSiguiente();
+            numeroPagina++;
+        }
+    }
+
+    private static void cambiarEstadoUsuarioUI(Usuario admin) {
+        String idTexto = JOptionPane.showInputDialog(null, "ID del usuario:", "Cambiar Estado de Usuario", JOptionPane.PLAIN_MESSAGE);
+        if (idTexto == null) {
+            return;
+        }
+        int idUsuario;
+        try {
+            idUsuario = Integer.parseInt(idTexto.trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(null, "ID inválido.", "Error de Entrada", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (admin != null && admin.getIdUsuario() == idUsuario) {
+            JOptionPane.showMessageDialog(null, "No puede cambiar el estado de su propia cuenta.", "Acción no permitida", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        String[] estados = {"Activo", "Inactivo"};
+        String nuevoEstado = (String) JOptionPane.showInputDialog(null, "Nuevo estado:", "Cambiar Estado de Usuario",
+                JOptionPane.QUESTION_MESSAGE, null, estados, estados[0]);
+        if (nuevoEstado == null) {
+            return;
+        }
+        if (PuenteServicios.ejecutarSinCancelar("Actualizando usuario...", () -> servicioUsuarios.cambiarEstadoUsuario(idUsuario, nuevoEstado), false)) {
+            JOptionPane.showMessageDialog(null, "Estado actualizado a " + nuevoEstado + ".", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(null, "No se pudo cambiar el estado. Verifique el ID.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package SteveJobs.encuestas.ui;
+
+import SteveJobs.encuestas.modelo.ResultadoImportacion;
+import SteveJobs.encuestas.servicio.ServicioImportacionUsuarios;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+public class UIImportarUsuarios {
+
+    private static final int MAX_ERRORES_EN_PANTALLA = 20;
+
+    private static ServicioImportacionUsuarios servicioImportacion = new ServicioImportacionUsuarios();
+
+    public static void mostrarImportacion() {
+        JFileChooser selector = new JFileChooser();
+        selector.setDialogTitle("Seleccione el CSV de usuarios");
+        selector.setFileFilter(new FileNameExtensionFilter("Archivos CSV", "csv"));
+        if (selector.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        String[] separadores = {"Coma (,)", "Punto y coma (;)"};
+        int opcion = JOptionPane.showOptionDialog(null,
+                "Columnas esperadas: documento_identidad, nombres_apellidos, email, password, tipo_nivel (opcional).\nSeleccione el separador del archivo:",
+                "Importar Usuarios",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                separadores,
+                separadores[0]);
+        if (opcion == JOptionPane.CLOSED_OPTION) {
+            return;
+        }
+        char separador = opcion == 1 ? ';' : ',';
+
+        // Cancelar interrumpe la lectura del archivo; los lotes ya guardados no se deshacen.
+        String ruta = selector.getSelectedFile().getAbsolutePath();
+        ResultadoImportacion resultado = PuenteServicios.ejecutar("Importando usuarios...",
+                () -> servicioImportacion.importarDesdeArchivo(ruta, separador));
+        if (resultado == null) {
+            JOptionPane.showMessageDialog(null, "La importación se canceló o no pudo completarse.\nParte de los usuarios pudo haberse guardado: revise la consola y la lista de usuarios antes de reintentar.",
+                    "Importar Usuarios", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        StringBuilder mensaje = new StringBuilder();
+        if (resultado.isCancelada()) {
+            mensaje.append("Importación cancelada antes del final del archivo.\n");
+        }
+        mensaje.append("Filas leídas: ").append(resultado.getFilasLeidas()).append("\n");
+        mensaje.append("Usuarios importados: ").append(resultado.getImportados()).append("\n");
+        mensaje.append("Filas con errores: ").append(resultado.getErrores().size()).append("\n");
+        mensaje.append("Tiempo: ").append(resultado.getDuracionMs()).append(" ms\n");
+        int mostrados = 0;
+        for (ResultadoImportacion.ErrorFila error : resultado.getErrores()) {
+            if (mostrados == MAX_ERRORES_EN_PANTALLA) {
+                mensaje.append("... (lista completa en la consola)\n");
+                break;
+            }
+            mensaje.append("\n").append(error);
+            mostrados++;
+        }
+        for (ResultadoImportacion.ErrorFila error : resultado.getErrores()) {
+            System.out.println("Importación - " + error);
+        }
+        JOptionPane.showMessageDialog(null, mensaje.toString(), "Resultado de la Importación",
+                resultado.getErrores().isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+    }
+}
\ No newline at end of file
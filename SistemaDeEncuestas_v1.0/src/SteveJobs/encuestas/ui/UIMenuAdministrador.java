@@ -20,6 +20,7 @@ public class UIMenuAdministrador {
                 "Gestionar Banco de Preguntas",
                 "Gestionar Encuestas",
                 "Ver Resultados de Encuestas",
+                "Importar Usuarios desde CSV",
                 "Salir (Volver al Menú Principal)"
             };
 
@@ -33,7 +34,7 @@ public class UIMenuAdministrador {
                     opcionesAdmin[0]
             );
 
-            if (seleccion == null || seleccion.equals(opcionesAdmin[7])) {
+            if (seleccion == null || seleccion.equals(opcionesAdmin[8])) {
                 salirMenuAdmin = true;
                 continue;
             }
@@ -43,7 +44,7 @@ public class UIMenuAdministrador {
                     UIGestionPreguntasRegistro.mostrarMenu();
                     break;
                 case "Gestionar Usuarios":
-                    JOptionPane.showMessageDialog(null, "Funcionalidad 'Gestionar Usuarios' pendiente.");
+                    UIGestionUsuarios.mostrarMenu(admin);
                     break;
                 case "Gestionar Tipos de Pregunta":
                     JOptionPane.showMessageDialog(null, "Funcionalidad 'Gestionar Tipos de Pregunta' pendiente.");
@@ -60,6 +61,9 @@ public class UIMenuAdministrador {
                 case "Ver Resultados de Encuestas":
                     JOptionPane.showMessageDialog(null, "Funcionalidad 'Ver Resultados de Encuestas' pendiente.");
                     break;
+                case "Importar Usuarios desde CSV":
+                    UIImportarUsuarios.mostrarImportacion();
+                    break;
                 default:
                     JOptionPane.showMessageDialog(null, "Opción no válida.", "Error", JOptionPane.ERROR_MESSAGE);
                     break;
@@ -5,9 +5,12 @@ Autor: Gian Fri
 
 package SteveJobs.encuestas.ui;
 
+import SteveJobs.encuestas.modelo.FormularioRegistro;
 import SteveJobs.encuestas.servicio.ServicioUsuarios;
 import javax.swing.JOptionPane;
 import javax.swing.JPasswordField;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class UIRegistroUsuario {
 
@@ -87,13 +90,29 @@ public class UIRegistroUsuario {
 
         ServicioUsuarios servicioUsuarios = new ServicioUsuarios();
 
-        boolean registrado = servicioUsuarios.registrarNuevoUsuario(
+        // Los encuestados completan además las preguntas de registro de su perfil.
+        Map<Integer, String> respuestasRegistro = null;
+        if ("Encuestado".equals(tipoUsuarioSeleccionado)) {
+            FormularioRegistro formulario = PuenteServicios.ejecutar("Cargando formulario de registro...", () -> servicioUsuarios.obtenerFormularioRegistro());
+            if (formulario == null) {
+                JOptionPane.showMessageDialog(null, "No se pudo cargar el formulario de registro. Intente más tarde.", "Error de Registro", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            respuestasRegistro = pedirRespuestasRegistro(formulario);
+            if (respuestasRegistro == null) {
+                return;
+            }
+        }
+
+        Map<Integer, String> respuestas = respuestasRegistro;
+        boolean registrado = PuenteServicios.ejecutarSinCancelar("Registrando usuario...", () -> servicioUsuarios.registrarNuevoUsuario(
                 docId.trim(),
                 nombres.trim(),
                 email.trim(),
                 password,
-                tipoUsuarioSeleccionado
-        );
+                tipoUsuarioSeleccionado,
+                respuestas
+        ), false);
 
         if (registrado) {
             JOptionPane.showMessageDialog(null, "Usuario registrado correctamente.", "Registro Exitoso", JOptionPane.INFORMATION_MESSAGE);
@@ -102,6 +121,34 @@ public class UIRegistroUsuario {
         }
     }
 
+    // Pide cada pregunta del formulario hasta obtener una respuesta válida. Devuelve null si el
+    // usuario cancela.
+    private static Map<Integer, String> pedirRespuestasRegistro(FormularioRegistro formulario) {
+        Map<Integer, String> respuestas = new LinkedHashMap<>();
+        for (FormularioRegistro.CampoRegistro campo : formulario.getCampos()) {
+            String titulo = "Registro de Usuario - Perfil";
+            String etiqueta = campo.getTextoPregunta() + (campo.isObligatoria() ? " *" : " (opcional)");
+            while (true) {
+                String valor;
+                if (!campo.getOpciones().isEmpty()) {
+                    String[] opciones = campo.getOpcionesComoArreglo();
+                    valor = (String) JOptionPane.showInputDialog(null, etiqueta, titulo, JOptionPane.QUESTION_MESSAGE, null, opciones, opciones[0]);
+                } else {
+                    valor = JOptionPane.showInputDialog(null, etiqueta, titulo, JOptionPane.PLAIN_MESSAGE);
+                }
+                if (valor == null) {
+                    return null;
+                }
+                if (campo.esValida(valor)) {
+                    respuestas.put(campo.getIdPreguntaRegistro(), valor.trim());
+                    break;
+                }
+                JOptionPane.showMessageDialog(null, "Respuesta no válida para un campo de tipo " + campo.getTipoRespuesta() + ".", "Error de Entrada", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+        return respuestas;
+    }
+
     public static void main(String[] args) {
         try {
             for (javax.swing.UIManager.LookAndFeelInfo info : javax.swing.UIManager.getInstalledLookAndFeels()) {
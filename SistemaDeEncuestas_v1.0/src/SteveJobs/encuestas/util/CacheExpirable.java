@@ -0,0 +1,86 @@
+package SteveJobs.encuestas.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Mapa acotado cuyas entradas vencen un tiempo fijo después de guardarse. Al superar la
+// capacidad se descarta la entrada más antigua. Las entradas vencidas se limpian al
+// consultarlas y, en bloque, al insertar; no hay hilos de fondo.
+public final class CacheExpirable<K, V> {
+
+    private static final class Entrada<V> {
+        private final V valor;
+        private final long venceEn;
+
+        Entrada(V valor, long venceEn) {
+            this.valor = valor;
+            this.venceEn = venceEn;
+        }
+    }
+
+    private final int capacidad;
+    private final long duracionMs;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+
+    public CacheExpirable(int capacidad, long duracionMs) {
+        this.capacidad = capacidad;
+        this.duracionMs = duracionMs;
+        this.entradas = new LinkedHashMap<K, Entrada<V>>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> mayor) {
+                return size() > CacheExpirable.this.capacidad;
+            }
+        };
+    }
+
+    public synchronized void guardar(K clave, V valor) {
+        long ahora = System.currentTimeMillis();
+        purgarVencidos(ahora);
+        // Se quita antes para que la entrada renovada pase al final del orden de inserción.
+        entradas.remove(clave);
+        entradas.put(clave, new Entrada<>(valor, ahora + duracionMs));
+    }
+
+    // Guarda solo si la clave no existe o ya venció. Devuelve true si la guardó.
+    public synchronized boolean guardarSiAusente(K clave, V valor) {
+        if (obtener(clave) != null) {
+            return false;
+        }
+        guardar(clave, valor);
+        return true;
+    }
+
+    public synchronized V obtener(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.venceEn <= System.currentTimeMillis()) {
+            entradas.remove(clave);
+            return null;
+        }
+        return entrada.valor;
+    }
+
+    public synchronized V quitar(K clave) {
+        Entrada<V> entrada = entradas.remove(clave);
+        return entrada != null ? entrada.valor : null;
+    }
+
+    public synchronized int tamano() {
+        return entradas.size();
+    }
+
+    // Como todas las entradas duran lo mismo, el orden de inserción es también el de
+    // vencimiento: basta con recorrer desde el principio hasta la primera vigente.
+    private void purgarVencidos(long ahora) {
+        Iterator<Entrada<V>> it = entradas.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().venceEn > ahora) {
+                break;
+            }
+            it.remove();
+        }
+    }
+}
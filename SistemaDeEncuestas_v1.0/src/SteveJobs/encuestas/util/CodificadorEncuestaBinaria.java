@@ -0,0 +1,215 @@
+package SteveJobs.encuestas.util;
+
+import SteveJobs.encuestas.modelo.DefinicionEncuestaPublicada;
+import SteveJobs.encuestas.modelo.Encuesta;
+import SteveJobs.encuestas.modelo.EncuestaDetallePregunta;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Formato binario compacto de una definición publicada:
+//   cabecera  'S' 'E' FORMATO
+//   enteros   varint sin signo (LEB128); los opcionales se guardan como valor + 1, con 0 = null
+//   textos    tabla de cadenas al inicio (cantidad, y por cada una longitud + UTF-8); luego
+//             cada texto es un índice a la tabla + 1, así tipos y clasificaciones repetidos
+//             se escriben una sola vez
+// La fecha de publicación no se incluye, de modo que el mismo contenido da el mismo etag.
+public final class CodificadorEncuestaBinaria {
+
+    private static final byte FORMATO = 1;
+
+    private CodificadorEncuestaBinaria() {
+    }
+
+    public static byte[] codificar(DefinicionEncuestaPublicada definicion) {
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> tabla = new ArrayList<>();
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream(256);
+
+        escribirVarint(cuerpo, definicion.getIdEncuesta());
+        escribirVarint(cuerpo, definicion.getVersion());
+        escribirTexto(cuerpo, definicion.getNombreEncuesta(), indices, tabla);
+        escribirTexto(cuerpo, definicion.getDescripcion(), indices, tabla);
+        escribirTexto(cuerpo, definicion.getDefinicionPerfil(), indices, tabla);
+        escribirFecha(cuerpo, definicion.getFechaInicioVigencia());
+        escribirFecha(cuerpo, definicion.getFechaFinVigencia());
+
+        List<DefinicionEncuestaPublicada.PreguntaPublicada> preguntas = definicion.getPreguntas();
+        escribirVarint(cuerpo, preguntas.size());
+        for (DefinicionEncuestaPublicada.PreguntaPublicada pregunta : preguntas) {
+            escribirVarint(cuerpo, pregunta.getIdEncuestaDetalle());
+            escribirVarint(cuerpo, pregunta.getOrden());
+            escribirOpcional(cuerpo, pregunta.getIdPreguntaBanco());
+            escribirTexto(cuerpo, pregunta.getTexto(), indices, tabla);
+            escribirOpcional(cuerpo, pregunta.getIdTipoPregunta());
+            escribirTexto(cuerpo, pregunta.getNombreTipoPregunta(), indices, tabla);
+            escribirOpcional(cuerpo, pregunta.getIdClasificacion());
+            escribirTexto(cuerpo, pregunta.getNombreClasificacion(), indices, tabla);
+            cuerpo.write(pregunta.isEsPreguntaDescarte() ? 1 : 0);
+            escribirTexto(cuerpo, pregunta.getCriterioDescarteValor(), indices, tabla);
+        }
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(cuerpo.size() + 64);
+        salida.write('S');
+        salida.write('E');
+        salida.write(FORMATO);
+        escribirVarint(salida, tabla.size());
+        for (String texto : tabla) {
+            byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+            escribirVarint(salida, utf8.length);
+            salida.write(utf8, 0, utf8.length);
+        }
+        byte[] bytesCuerpo = cuerpo.toByteArray();
+        salida.write(bytesCuerpo, 0, bytesCuerpo.length);
+        return salida.toByteArray();
+    }
+
+    // Devuelve null si el contenido no tiene el formato esperado.
+    public static DefinicionEncuestaPublicada decodificar(byte[] datos) {
+        if (datos == null || datos.length < 3 || datos[0] != 'S' || datos[1] != 'E' || datos[2] != FORMATO) {
+            System.err.println("CodificadorEncuestaBinaria: Formato de definición no reconocido.");
+            return null;
+        }
+        try {
+            Lector lector = new Lector(datos, 3);
+            String[] tabla = new String[lector.leerLongitud()];
+            for (int i = 0; i < tabla.length; i++) {
+                int longitud = lector.leerLongitud();
+                tabla[i] = new String(datos, lector.posicion, longitud, StandardCharsets.UTF_8);
+                lector.posicion += longitud;
+            }
+
+            Encuesta encuesta = new Encuesta();
+            encuesta.setIdEncuesta((int) lector.leerVarint());
+            encuesta.setVersion((int) lector.leerVarint());
+            encuesta.setNombreEncuesta(lector.leerTexto(tabla));
+            encuesta.setDescripcion(lector.leerTexto(tabla));
+            encuesta.setDefinicionPerfil(lector.leerTexto(tabla));
+            encuesta.setFechaInicioVigencia(lector.leerFecha());
+            encuesta.setFechaFinVigencia(lector.leerFecha());
+            encuesta.setEstado("Activa");
+
+            int cantidad = lector.leerLongitud();
+            List<EncuestaDetallePregunta> detalles = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                EncuestaDetallePregunta detalle = new EncuestaDetallePregunta();
+                detalle.setIdEncuesta(encuesta.getIdEncuesta());
+                detalle.setIdEncuestaDetalle((int) lector.leerVarint());
+                detalle.setOrdenEnEncuesta((int) lector.leerVarint());
+                detalle.setIdPreguntaBanco(lector.leerOpcional());
+                // Al decodificar todas quedan como preguntas "únicas": el texto ya viene resuelto.
+                detalle.setTextoPreguntaUnica(lector.leerTexto(tabla));
+                detalle.setIdTipoPreguntaUnica(lector.leerOpcional());
+                detalle.setNombreTipoPreguntaUnica(lector.leerTexto(tabla));
+                detalle.setIdClasificacionUnica(lector.leerOpcional());
+                detalle.setNombreClasificacionUnica(lector.leerTexto(tabla));
+                detalle.setEsPreguntaDescarte(datos[lector.posicion++] != 0);
+                detalle.setCriterioDescarteValor(lector.leerTexto(tabla));
+                detalles.add(detalle);
+            }
+            return new DefinicionEncuestaPublicada(encuesta, detalles);
+        } catch (ArrayIndexOutOfBoundsException | StringIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("CodificadorEncuestaBinaria: Definición truncada o dañada.");
+            return null;
+        }
+    }
+
+    // SHA-256 del contenido, en hexadecimal y recortado a 128 bits.
+    public static String calcularEtag(byte[] contenido) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(contenido);
+            StringBuilder sb = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                sb.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static void escribirVarint(ByteArrayOutputStream salida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            salida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.write((int) valor);
+    }
+
+    private static void escribirOpcional(ByteArrayOutputStream salida, Integer valor) {
+        escribirVarint(salida, valor == null ? 0 : (valor & 0xFFFFFFFFL) + 1);
+    }
+
+    private static void escribirFecha(ByteArrayOutputStream salida, Timestamp fecha) {
+        escribirVarint(salida, fecha == null ? 0 : fecha.getTime() + 1);
+    }
+
+    private static void escribirTexto(ByteArrayOutputStream salida, String texto, Map<String, Integer> indices, List<String> tabla) {
+        if (texto == null) {
+            escribirVarint(salida, 0);
+            return;
+        }
+        Integer indice = indices.get(texto);
+        if (indice == null) {
+            indice = tabla.size();
+            tabla.add(texto);
+            indices.put(texto, indice);
+        }
+        escribirVarint(salida, indice + 1);
+    }
+
+    private static final class Lector {
+        private final byte[] datos;
+        private int posicion;
+
+        Lector(byte[] datos, int posicion) {
+            this.datos = datos;
+            this.posicion = posicion;
+        }
+
+        long leerVarint() {
+            long valor = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos[posicion++];
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0 && desplazamiento < 64);
+            return valor;
+        }
+
+        // Toda cantidad o longitud ocupa al menos un byte por elemento, así que no puede superar
+        // lo que queda por leer; se valida antes de reservar memoria con ella.
+        int leerLongitud() {
+            long valor = leerVarint();
+            if (valor < 0 || valor > datos.length - posicion) {
+                throw new IllegalArgumentException("Longitud fuera de rango: " + valor);
+            }
+            return (int) valor;
+        }
+
+        Integer leerOpcional() {
+            long valor = leerVarint();
+            return valor == 0 ? null : (int) (valor - 1);
+        }
+
+        Timestamp leerFecha() {
+            long valor = leerVarint();
+            return valor == 0 ? null : new Timestamp(valor - 1);
+        }
+
+        String leerTexto(String[] tabla) {
+            int referencia = (int) leerVarint();
+            return referencia == 0 ? null : tabla[referencia - 1];
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package SteveJobs.encuestas.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Conjunto de enteros no negativos como mapa de bits por bloques: cada bloque cubre 4096
+// valores consecutivos (64 longs, 512 bytes) y solo se crean los bloques que tienen algún
+// valor. Para IDs de usuario autoincrementales ocupa una fracción de un Set<Integer>.
+// No es seguro para hilos; quien lo comparta debe sincronizar.
+public final class ConjuntoEnterosDisperso {
+
+    private static final int BITS_BLOQUE = 12;
+    private static final int PALABRAS_POR_BLOQUE = (1 << BITS_BLOQUE) / 64;
+
+    private final Map<Integer, long[]> bloques = new HashMap<>();
+    private int tamano;
+
+    // Devuelve true si el valor no estaba y se agregó. Los negativos no se admiten.
+    public boolean agregar(int valor) {
+        if (valor < 0) {
+            return false;
+        }
+        long[] bloque = bloques.get(valor >>> BITS_BLOQUE);
+        if (bloque == null) {
+            bloque = new long[PALABRAS_POR_BLOQUE];
+            bloques.put(valor >>> BITS_BLOQUE, bloque);
+        }
+        int posicion = valor & ((1 << BITS_BLOQUE) - 1);
+        long mascara = 1L << (posicion & 63);
+        if ((bloque[posicion >>> 6] & mascara) != 0) {
+            return false;
+        }
+        bloque[posicion >>> 6] |= mascara;
+        tamano++;
+        return true;
+    }
+
+    public boolean contiene(int valor) {
+        if (valor < 0) {
+            return false;
+        }
+        long[] bloque = bloques.get(valor >>> BITS_BLOQUE);
+        if (bloque == null) {
+            return false;
+        }
+        int posicion = valor & ((1 << BITS_BLOQUE) - 1);
+        return (bloque[posicion >>> 6] & (1L << (posicion & 63))) != 0;
+    }
+
+    public boolean quitar(int valor) {
+        if (valor < 0) {
+            return false;
+        }
+        Integer clave = valor >>> BITS_BLOQUE;
+        long[] bloque = bloques.get(clave);
+        if (bloque == null) {
+            return false;
+        }
+        int posicion = valor & ((1 << BITS_BLOQUE) - 1);
+        long mascara = 1L << (posicion & 63);
+        if ((bloque[posicion >>> 6] & mascara) == 0) {
+            return false;
+        }
+        bloque[posicion >>> 6] &= ~mascara;
+        tamano--;
+        boolean vacio = true;
+        for (long palabra : bloque) {
+            if (palabra != 0) {
+                vacio = false;
+                break;
+            }
+        }
+        if (vacio) {
+            bloques.remove(clave);
+        }
+        return true;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+}
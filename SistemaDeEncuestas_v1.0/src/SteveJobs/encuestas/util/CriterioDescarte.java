@@ -0,0 +1,150 @@
+package SteveJobs.encuestas.util;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Criterio de descarte ya interpretado. Se compila una vez a partir de criterioDescarteValor
+// y luego solo evalúa respuestas. Sintaxis admitida (la respuesta que cumple, descarta):
+//   valor          igualdad exacta, sin importar mayúsculas ni tildes; "18" y "18.0" son iguales
+//   a;b;c  a|b|c   pertenencia a un conjunto de valores
+//   <n <=n >n >=n  comparación numérica
+//   a..b  a-b      rango numérico cerrado
+// Un criterio vacío nunca descarta. Una respuesta no numérica nunca cumple un criterio numérico.
+public final class CriterioDescarte {
+
+    private enum Tipo { NUNCA, CONJUNTO, MENOR, MENOR_IGUAL, MAYOR, MAYOR_IGUAL, RANGO }
+
+    private static final Pattern COMPARACION = Pattern.compile("^(<=|>=|<|>)\\s*(-?\\d+(?:[.,]\\d+)?)$");
+    private static final Pattern RANGO = Pattern.compile("^(-?\\d+(?:[.,]\\d+)?)\\s*(?:\\.\\.|-)\\s*(-?\\d+(?:[.,]\\d+)?)$");
+    private static final Pattern SEPARADOR_CONJUNTO = Pattern.compile("[;|]");
+    // Solo decimales simples y cortos: sin notación científica, que con un exponente enorme
+    // (p. ej. "1e999999999") haría construir cadenas o cuentas gigantes.
+    private static final Pattern NUMERO = Pattern.compile("[+-]?\\d+(?:[.,]\\d+)?");
+    private static final int MAX_LONGITUD_NUMERO = 40;
+
+    public static final CriterioDescarte NUNCA = new CriterioDescarte(Tipo.NUNCA, null, null, null, "");
+
+    private final Tipo tipo;
+    private final Set<String> valores;
+    private final BigDecimal minimo;
+    private final BigDecimal maximo;
+    private final String original;
+
+    private CriterioDescarte(Tipo tipo, Set<String> valores, BigDecimal minimo, BigDecimal maximo, String original) {
+        this.tipo = tipo;
+        this.valores = valores;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.original = original;
+    }
+
+    public static CriterioDescarte compilar(String criterio) {
+        if (criterio == null || criterio.trim().isEmpty()) {
+            return NUNCA;
+        }
+        String texto = criterio.trim();
+
+        Matcher comparacion = COMPARACION.matcher(texto);
+        if (comparacion.matches()) {
+            BigDecimal limite = numero(comparacion.group(2));
+            if (limite == null) {
+                System.err.println("CriterioDescarte: Número demasiado largo en el criterio '" + texto + "'; no se aplicará.");
+                return NUNCA;
+            }
+            switch (comparacion.group(1)) {
+                case "<":
+                    return new CriterioDescarte(Tipo.MENOR, null, null, limite, texto);
+                case "<=":
+                    return new CriterioDescarte(Tipo.MENOR_IGUAL, null, null, limite, texto);
+                case ">":
+                    return new CriterioDescarte(Tipo.MAYOR, null, limite, null, texto);
+                default:
+                    return new CriterioDescarte(Tipo.MAYOR_IGUAL, null, limite, null, texto);
+            }
+        }
+
+        Matcher rango = RANGO.matcher(texto);
+        if (rango.matches()) {
+            BigDecimal a = numero(rango.group(1));
+            BigDecimal b = numero(rango.group(2));
+            if (a == null || b == null) {
+                System.err.println("CriterioDescarte: Número demasiado largo en el criterio '" + texto + "'; no se aplicará.");
+                return NUNCA;
+            }
+            return new CriterioDescarte(Tipo.RANGO, null, a.min(b), a.max(b), texto);
+        }
+
+        Set<String> valores = new HashSet<>();
+        for (String parte : SEPARADOR_CONJUNTO.split(texto)) {
+            String clave = clave(parte);
+            if (!clave.isEmpty()) {
+                valores.add(clave);
+            }
+        }
+        if (valores.isEmpty()) {
+            return NUNCA;
+        }
+        return new CriterioDescarte(Tipo.CONJUNTO, valores, null, null, texto);
+    }
+
+    public boolean descarta(String respuesta) {
+        if (tipo == Tipo.NUNCA || respuesta == null) {
+            return false;
+        }
+        if (tipo == Tipo.CONJUNTO) {
+            return valores.contains(clave(respuesta));
+        }
+        BigDecimal valor = numero(respuesta.trim());
+        if (valor == null) {
+            return false;
+        }
+        switch (tipo) {
+            case MENOR:
+                return valor.compareTo(maximo) < 0;
+            case MENOR_IGUAL:
+                return valor.compareTo(maximo) <= 0;
+            case MAYOR:
+                return valor.compareTo(minimo) > 0;
+            case MAYOR_IGUAL:
+                return valor.compareTo(minimo) >= 0;
+            case RANGO:
+                return valor.compareTo(minimo) >= 0 && valor.compareTo(maximo) <= 0;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isActivo() {
+        return tipo != Tipo.NUNCA;
+    }
+
+    // Los números se comparan por valor y el resto por su forma normalizada. La escala de un
+    // número ya está acotada por MAX_LONGITUD_NUMERO; los enteros se llevan a escala 0 para que
+    // "100" y "100.0" den la misma clave.
+    private static String clave(String valor) {
+        BigDecimal numerico = numero(valor.trim());
+        if (numerico != null) {
+            BigDecimal normalizado = numerico.stripTrailingZeros();
+            if (normalizado.scale() < 0) {
+                normalizado = normalizado.setScale(0);
+            }
+            return normalizado.toString();
+        }
+        return NormalizadorTexto.normalizar(valor);
+    }
+
+    private static BigDecimal numero(String texto) {
+        if (texto.isEmpty() || texto.length() > MAX_LONGITUD_NUMERO || !NUMERO.matcher(texto).matches()) {
+            return null;
+        }
+        return new BigDecimal(texto.replace(',', '.'));
+    }
+
+    @Override
+    public String toString() {
+        return "CriterioDescarte{" + tipo + (original.isEmpty() ? "" : ", '" + original + "'") + '}';
+    }
+}
@@ -0,0 +1,74 @@
+package SteveJobs.encuestas.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom de cadenas: contieneQuizas() nunca da falso negativo, y da falso positivo con
+// la probabilidad elegida al crearlo mientras no se agreguen más elementos que los previstos.
+// Los k índices salen de dos hashes de 32 bits (h1 + i*h2). Se puede agregar y consultar desde
+// varios hilos a la vez; no se pueden quitar elementos.
+public final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int cantidadHashes;
+
+    public FiltroBloom(int elementosEsperados, double probabilidadFalsoPositivo) {
+        int n = Math.max(1, elementosEsperados);
+        double p = Math.min(0.5, Math.max(1e-9, probabilidadFalsoPositivo));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, (m + 63) / 64 * 64);
+        this.cantidadBits = m;
+        this.cantidadHashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (m / 64));
+    }
+
+    public void agregar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < cantidadHashes; i++) {
+            long indice = indice(h1 + i * h2);
+            int palabra = (int) (indice >>> 6);
+            long mascara = 1L << (indice & 63);
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    public boolean contieneQuizas(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < cantidadHashes; i++) {
+            long indice = indice(h1 + i * h2);
+            if ((bits.get((int) (indice >>> 6)) & (1L << (indice & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long indice(int combinado) {
+        return (combinado & 0xFFFFFFFFL) % cantidadBits;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres, con una mezcla final para repartir los bits altos.
+    private static long hash64(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
\ No newline at end of file
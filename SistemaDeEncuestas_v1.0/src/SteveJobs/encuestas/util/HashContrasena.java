@@ -0,0 +1,122 @@
+package SteveJobs.encuestas.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Hash de contraseñas con PBKDF2-HMAC-SHA256 y sal aleatoria. Se guarda como
+// "pbkdf2$<iteraciones>$<sal>$<hash>" (Base64), así cada fila recuerda con qué costo se
+// calculó y se puede subir el costo sin invalidar las contraseñas existentes. El costo se
+// configura con -Dencuestas.hash.iteraciones. Un valor sin el prefijo es una contraseña
+// antigua en texto plano.
+public final class HashContrasena {
+
+    public static final int ITERACIONES = Integer.getInteger("encuestas.hash.iteraciones", 210000);
+    // Rango aceptado para hashes que vienen de fuera (importaciones) o ya guardados: por encima
+    // del máximo, cada verificación ocuparía un hilo del pool durante demasiado tiempo.
+    public static final int MIN_ITERACIONES = 1000;
+    public static final int MAX_ITERACIONES = Math.max(ITERACIONES, 1_000_000);
+
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    private static final String PREFIJO = "pbkdf2$";
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+    private static final SecureRandom aleatorio = new SecureRandom();
+
+    private HashContrasena() {
+    }
+
+    // Devuelve null si la JVM no ofrece PBKDF2 (no debería pasar en Java 8 o superior).
+    public static String hashear(String password) {
+        byte[] sal = new byte[BYTES_SAL];
+        aleatorio.nextBytes(sal);
+        byte[] hash = derivar(password, sal, ITERACIONES);
+        if (hash == null) {
+            return null;
+        }
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIJO + ITERACIONES + "$" + b64.encodeToString(sal) + "$" + b64.encodeToString(hash);
+    }
+
+    public static boolean verificar(String password, String almacenado) {
+        if (password == null || almacenado == null) {
+            return false;
+        }
+        if (!esHash(almacenado)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), almacenado.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] partes = almacenado.split("\\$");
+        if (partes.length != 4) {
+            return false;
+        }
+        try {
+            int iteraciones = Integer.parseInt(partes[1]);
+            if (iteraciones < MIN_ITERACIONES || iteraciones > MAX_ITERACIONES) {
+                System.err.println("HashContrasena: Hash almacenado con " + iteraciones + " iteraciones, fuera del rango admitido.");
+                return false;
+            }
+            byte[] sal = Base64.getDecoder().decode(partes[2]);
+            byte[] esperado = Base64.getDecoder().decode(partes[3]);
+            byte[] calculado = derivar(password, sal, iteraciones);
+            return calculado != null && MessageDigest.isEqual(esperado, calculado);
+        } catch (IllegalArgumentException e) {
+            System.err.println("HashContrasena: Hash almacenado con formato inválido.");
+            return false;
+        }
+    }
+
+    // true si el valor está en texto plano o se calculó con menos iteraciones que las actuales.
+    public static boolean necesitaRehash(String almacenado) {
+        if (!esHash(almacenado)) {
+            return true;
+        }
+        String[] partes = almacenado.split("\\$");
+        try {
+            return partes.length != 4 || Integer.parseInt(partes[1]) < ITERACIONES;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public static boolean esHash(String almacenado) {
+        return almacenado != null && almacenado.startsWith(PREFIJO);
+    }
+
+    // true si el valor tiene exactamente el formato que produce hashear(): cuatro partes,
+    // iteraciones dentro de [MIN_ITERACIONES, MAX_ITERACIONES] y sal y hash en Base64 con los
+    // largos esperados. esHash() solo mira el prefijo.
+    public static boolean esHashValido(String almacenado) {
+        if (!esHash(almacenado)) {
+            return false;
+        }
+        String[] partes = almacenado.split("\\$", -1);
+        if (partes.length != 4) {
+            return false;
+        }
+        try {
+            int iteraciones = Integer.parseInt(partes[1]);
+            return iteraciones >= MIN_ITERACIONES && iteraciones <= MAX_ITERACIONES
+                    && Base64.getDecoder().decode(partes[2]).length == BYTES_SAL
+                    && Base64.getDecoder().decode(partes[3]).length == BITS_HASH / 8;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] derivar(String password, byte[] sal, int iteraciones) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), sal, iteraciones, BITS_HASH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            System.err.println("HashContrasena: No se pudo calcular el hash: " + e.getMessage());
+            return null;
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
\ No newline at end of file
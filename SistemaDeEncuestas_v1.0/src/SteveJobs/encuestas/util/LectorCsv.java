@@ -0,0 +1,94 @@
+package SteveJobs.encuestas.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lee un CSV fila por fila sin cargar el archivo en memoria. Admite campos entre comillas
+// con separadores, saltos de línea y comillas dobladas ("") adentro, finales de línea \n o
+// \r\n y un BOM UTF-8 al comienzo.
+public final class LectorCsv {
+
+    private final BufferedReader lector;
+    private final char separador;
+    private int lineaActual = 1;
+    private int lineaFila;
+    private boolean inicio = true;
+
+    public LectorCsv(Reader origen, char separador) {
+        this.lector = origen instanceof BufferedReader ? (BufferedReader) origen : new BufferedReader(origen, 64 * 1024);
+        this.separador = separador;
+    }
+
+    // Siguiente fila, o null al llegar al final. Las líneas vacías se saltan.
+    public List<String> leerFila() throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        boolean hayDatos = false;
+        lineaFila = lineaActual;
+        int c;
+        while ((c = lector.read()) != -1) {
+            if (inicio) {
+                inicio = false;
+                if (c == '\uFEFF') {
+                    continue;
+                }
+            }
+            if (entreComillas) {
+                if (c == '"') {
+                    lector.mark(1);
+                    int siguiente = lector.read();
+                    if (siguiente == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        if (siguiente != -1) {
+                            lector.reset();
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineaActual++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.length() == 0) {
+                entreComillas = true;
+                hayDatos = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+                hayDatos = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    lector.mark(1);
+                    if (lector.read() != '\n') {
+                        lector.reset();
+                    }
+                }
+                lineaActual++;
+                if (hayDatos || campo.length() > 0) {
+                    campos.add(campo.toString());
+                    return campos;
+                }
+                lineaFila = lineaActual;
+            } else {
+                campo.append((char) c);
+                hayDatos = true;
+            }
+        }
+        if (hayDatos || campo.length() > 0) {
+            campos.add(campo.toString());
+            return campos;
+        }
+        return null;
+    }
+
+    // Línea del archivo (desde 1) donde empezó la última fila leída.
+    public int getLineaFila() {
+        return lineaFila;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,197 @@
+package SteveJobs.encuestas.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+// Cuenta intentos fallidos por clave en una ventana deslizante y, al llegar al umbral, bloquea
+// la clave con una espera que se duplica en cada bloqueo seguido (hasta esperaMaximaMs). Las
+// claves se reparten en FRANJAS mapas con su propio candado, así dos claves distintas casi
+// nunca compiten por el mismo. Una clave sin fallos durante olvidoMs se elimina, y cada franja
+// guarda a lo sumo MAX_REGISTROS_POR_FRANJA claves: al llenarse se descartan las que llevan más
+// tiempo sin intentos, de modo que probar miles de claves distintas no hace crecer la memoria.
+// Las claves bloqueadas nunca se descartan (la franja puede pasarse del tope mientras duren):
+// si no, llenar la franja con claves nuevas levantaría el bloqueo de la cuenta atacada.
+public final class LimitadorIntentos {
+
+    private static final int FRANJAS = 64;
+    private static final int PURGAR_CADA = 256;
+    private static final int MAX_REGISTROS_POR_FRANJA = 2048;
+
+    private static final class Registro {
+        // Anillo con los instantes de los últimos fallos dentro de la ventana.
+        private final long[] fallos;
+        private int inicio;
+        private int cantidad;
+        private long ultimoFallo;
+        private long bloqueadoHasta;
+        private int bloqueosSeguidos;
+        // Estado previo al bloqueo que provocó el último fallo anotado, para poder deshacerlo.
+        private boolean bloqueoPorUltimoFallo;
+        private int inicioAntesDelBloqueo;
+        private long bloqueadoHastaAntes;
+
+        Registro(int umbral) {
+            this.fallos = new long[umbral];
+        }
+    }
+
+    private static final class Franja {
+        // En orden de acceso: la primera entrada es la que lleva más tiempo sin intentos.
+        private final LinkedHashMap<String, Registro> registros = new LinkedHashMap<>(16, 0.75f, true);
+        private int insercionesDesdePurga;
+    }
+
+    private final int umbral;
+    private final long ventanaMs;
+    private final long esperaBaseMs;
+    private final long esperaMaximaMs;
+    private final long olvidoMs;
+    private final Franja[] franjas = new Franja[FRANJAS];
+
+    public LimitadorIntentos(int umbral, long ventanaMs, long esperaBaseMs, long esperaMaximaMs, long olvidoMs) {
+        this.umbral = Math.max(1, umbral);
+        this.ventanaMs = ventanaMs;
+        this.esperaBaseMs = esperaBaseMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.olvidoMs = Math.max(olvidoMs, ventanaMs);
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Franja();
+        }
+    }
+
+    // Milisegundos que faltan para que la clave pueda volver a intentar; 0 si no está bloqueada.
+    public long milisegundosDeBloqueo(String clave) {
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            Registro registro = franja.registros.get(clave);
+            if (registro == null) {
+                return 0;
+            }
+            return Math.max(0, registro.bloqueadoHasta - System.currentTimeMillis());
+        }
+    }
+
+    // Comprueba y anota el intento bajo el mismo candado: si la clave está bloqueada devuelve los
+    // milisegundos que faltan sin anotar nada; si no, cuenta el intento como fallo y devuelve 0.
+    // Así varios intentos simultáneos no pueden pasar todos la comprobación antes de que se
+    // anote alguno. Si el intento resulta válido se llama a descontarIntento o reiniciar.
+    public long registrarIntento(String clave) {
+        long ahora = System.currentTimeMillis();
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            Registro registro = franja.registros.get(clave);
+            if (registro != null && registro.bloqueadoHasta > ahora) {
+                return registro.bloqueadoHasta - ahora;
+            }
+            anotarFallo(franja, registro, clave, ahora);
+            return 0;
+        }
+    }
+
+    // Devuelve true si este fallo dejó la clave bloqueada.
+    public boolean registrarFallo(String clave) {
+        long ahora = System.currentTimeMillis();
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            return anotarFallo(franja, franja.registros.get(clave), clave, ahora);
+        }
+    }
+
+    // Quita el último intento anotado con registrarIntento, para un intento que al final no
+    // contó como fallo. Si ese intento había bloqueado la clave, el bloqueo se deshace.
+    public void descontarIntento(String clave) {
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            Registro registro = franja.registros.get(clave);
+            if (registro == null) {
+                return;
+            }
+            if (registro.bloqueoPorUltimoFallo) {
+                registro.bloqueoPorUltimoFallo = false;
+                registro.inicio = registro.inicioAntesDelBloqueo;
+                registro.cantidad = umbral - 1;
+                registro.bloqueadoHasta = registro.bloqueadoHastaAntes;
+                registro.bloqueosSeguidos--;
+            } else if (registro.cantidad > 0) {
+                registro.cantidad--;
+            }
+        }
+    }
+
+    public void reiniciar(String clave) {
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            franja.registros.remove(clave);
+        }
+    }
+
+    private boolean anotarFallo(Franja franja, Registro registro, String clave, long ahora) {
+        if (registro == null) {
+            registro = new Registro(umbral);
+            if (++franja.insercionesDesdePurga >= PURGAR_CADA) {
+                purgar(franja, ahora);
+            }
+            if (franja.registros.size() >= MAX_REGISTROS_POR_FRANJA) {
+                descartarAntiguas(franja, ahora, false);
+                descartarAntiguas(franja, ahora, true);
+            }
+            franja.registros.put(clave, registro);
+        }
+        if (ahora - registro.ultimoFallo > olvidoMs) {
+            registro.bloqueosSeguidos = 0;
+        }
+        registro.ultimoFallo = ahora;
+        while (registro.cantidad > 0 && registro.fallos[registro.inicio] <= ahora - ventanaMs) {
+            registro.inicio = (registro.inicio + 1) % umbral;
+            registro.cantidad--;
+        }
+        registro.fallos[(registro.inicio + registro.cantidad) % umbral] = ahora;
+        registro.cantidad++;
+        registro.bloqueoPorUltimoFallo = false;
+        if (registro.cantidad < umbral) {
+            return false;
+        }
+        registro.bloqueoPorUltimoFallo = true;
+        registro.inicioAntesDelBloqueo = registro.inicio;
+        registro.bloqueadoHastaAntes = registro.bloqueadoHasta;
+        registro.cantidad = 0;
+        registro.inicio = 0;
+        int exponente = Math.min(registro.bloqueosSeguidos, 30);
+        registro.bloqueosSeguidos++;
+        long espera = esperaBaseMs << exponente;
+        if (espera <= 0 || espera > esperaMaximaMs) {
+            espera = esperaMaximaMs;
+        }
+        registro.bloqueadoHasta = ahora + espera;
+        return true;
+    }
+
+    private Franja franja(String clave) {
+        int h = clave.hashCode();
+        return franjas[(h ^ (h >>> 16)) & (FRANJAS - 1)];
+    }
+
+    // Elimina las claves olvidadas.
+    private void purgar(Franja franja, long ahora) {
+        franja.insercionesDesdePurga = 0;
+        Iterator<Registro> it = franja.registros.values().iterator();
+        while (it.hasNext()) {
+            Registro registro = it.next();
+            if (registro.bloqueadoHasta <= ahora && ahora - registro.ultimoFallo > olvidoMs) {
+                it.remove();
+            }
+        }
+    }
+
+    // Con la franja llena, descarta las no bloqueadas de acceso más antiguo; primero las que no
+    // tienen bloqueos previos, para no perder la escalada de las que sí.
+    private void descartarAntiguas(Franja franja, long ahora, boolean inclusoConBloqueosPrevios) {
+        Iterator<Registro> masAntiguas = franja.registros.values().iterator();
+        while (franja.registros.size() >= MAX_REGISTROS_POR_FRANJA && masAntiguas.hasNext()) {
+            Registro registro = masAntiguas.next();
+            if (registro.bloqueadoHasta <= ahora && (inclusoConBloqueosPrevios || registro.bloqueosSeguidos == 0)) {
+                masAntiguas.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package SteveJobs.encuestas.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Normalización de texto en español: minúsculas, sin tildes ni diéresis (la ñ queda como n)
+// y sin signos de puntuación, para comparar y buscar textos sin importar cómo se escribieron.
+public final class NormalizadorTexto {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> PALABRAS_VACIAS = new HashSet<>(Arrays.asList(
+            "a", "al", "con", "como", "cual", "de", "del", "el", "en", "es", "esta", "este",
+            "la", "las", "le", "lo", "los", "mas", "me", "mi", "o", "para", "pero", "por",
+            "que", "se", "si", "sin", "su", "sus", "te", "tu", "u", "un", "una", "uno", "y", "ya"
+    ));
+
+    private NormalizadorTexto() {
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinTildes.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return tokens;
+        }
+        for (String token : normalizado.split(" ")) {
+            if (!PALABRAS_VACIAS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,158 @@
+package SteveJobs.encuestas.util;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Validador de una respuesta según el tipo de pregunta, armado una sola vez por pregunta.
+// validar() no crea objetos: recorre los caracteres del valor y, para selección, consulta
+// un conjunto de opciones precalculado. Tipos reconocidos (los mismos de las preguntas de
+// registro): TEXTO_CORTO, NUMERO, FECHA (aaaa-mm-dd) y SELECCION_UNICA_*.
+public final class ValidadorRespuesta {
+
+    public static final int MAX_LONGITUD_TEXTO_CORTO = 255;
+    public static final int MAX_LONGITUD_RESPUESTA = 1000;
+
+    private enum Tipo { TEXTO_CORTO, NUMERO, FECHA, SELECCION, LIBRE }
+
+    private final Tipo tipo;
+    private final String nombreTipo;
+    private final boolean obligatoria;
+    private final Set<String> opciones;
+
+    private ValidadorRespuesta(Tipo tipo, String nombreTipo, boolean obligatoria, Set<String> opciones) {
+        this.tipo = tipo;
+        this.nombreTipo = nombreTipo;
+        this.obligatoria = obligatoria;
+        this.opciones = opciones;
+    }
+
+    // opcionesPosibles va separado por ';'. Si una pregunta de selección no tiene opciones
+    // definidas, se acepta cualquier valor no vacío.
+    public static ValidadorRespuesta compilar(String nombreTipo, String opcionesPosibles, boolean obligatoria) {
+        String nombre = nombreTipo == null ? "" : nombreTipo.trim().toUpperCase(Locale.ROOT);
+        Tipo tipo;
+        if (nombre.equals("TEXTO_CORTO")) {
+            tipo = Tipo.TEXTO_CORTO;
+        } else if (nombre.equals("NUMERO")) {
+            tipo = Tipo.NUMERO;
+        } else if (nombre.equals("FECHA")) {
+            tipo = Tipo.FECHA;
+        } else if (nombre.startsWith("SELECCION")) {
+            tipo = Tipo.SELECCION;
+        } else {
+            tipo = Tipo.LIBRE;
+        }
+        Set<String> opciones = Collections.emptySet();
+        if (tipo == Tipo.SELECCION && opcionesPosibles != null) {
+            Set<String> conjunto = new HashSet<>();
+            for (String opcion : opcionesPosibles.split(";")) {
+                if (!opcion.trim().isEmpty()) {
+                    conjunto.add(opcion.trim());
+                }
+            }
+            opciones = conjunto;
+        }
+        return new ValidadorRespuesta(tipo, nombre, obligatoria, opciones);
+    }
+
+    public boolean validar(String valor) {
+        int inicio = 0;
+        int fin = valor == null ? 0 : valor.length();
+        while (inicio < fin && Character.isWhitespace(valor.charAt(inicio))) inicio++;
+        while (fin > inicio && Character.isWhitespace(valor.charAt(fin - 1))) fin--;
+        if (inicio == fin) {
+            return !obligatoria;
+        }
+        switch (tipo) {
+            case TEXTO_CORTO:
+                return fin - inicio <= MAX_LONGITUD_TEXTO_CORTO && sinCaracteresDeControl(valor, inicio, fin);
+            case NUMERO:
+                return esNumero(valor, inicio, fin);
+            case FECHA:
+                return esFecha(valor, inicio, fin);
+            case SELECCION:
+                // Sin espacios alrededor el valor se busca tal cual; solo si los tiene se recorta.
+                return opciones.isEmpty() || opciones.contains(inicio == 0 && fin == valor.length() ? valor : valor.substring(inicio, fin));
+            default:
+                return fin - inicio <= MAX_LONGITUD_RESPUESTA && sinCaracteresDeControl(valor, inicio, fin);
+        }
+    }
+
+    public String getNombreTipo() {
+        return nombreTipo;
+    }
+
+    public boolean isObligatoria() {
+        return obligatoria;
+    }
+
+    public Set<String> getOpciones() {
+        return Collections.unmodifiableSet(opciones);
+    }
+
+    private static boolean sinCaracteresDeControl(String valor, int inicio, int fin) {
+        for (int i = inicio; i < fin; i++) {
+            char c = valor.charAt(i);
+            if (Character.isISOControl(c) && c != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Entero o decimal con signo opcional; acepta punto o coma decimal.
+    private static boolean esNumero(String valor, int inicio, int fin) {
+        int i = inicio;
+        char primero = valor.charAt(i);
+        if (primero == '-' || primero == '+') i++;
+        boolean hayDigitos = false;
+        boolean haySeparador = false;
+        for (; i < fin; i++) {
+            char c = valor.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hayDigitos = true;
+            } else if ((c == '.' || c == ',') && !haySeparador) {
+                haySeparador = true;
+            } else {
+                return false;
+            }
+        }
+        return hayDigitos && fin - inicio <= 30;
+    }
+
+    private static boolean esFecha(String valor, int inicio, int fin) {
+        if (fin - inicio != 10 || valor.charAt(inicio + 4) != '-' || valor.charAt(inicio + 7) != '-') {
+            return false;
+        }
+        int anio = digitos(valor, inicio, inicio + 4);
+        int mes = digitos(valor, inicio + 5, inicio + 7);
+        int dia = digitos(valor, inicio + 8, inicio + 10);
+        if (anio < 1 || mes < 1 || mes > 12 || dia < 1) {
+            return false;
+        }
+        int diasMes;
+        if (mes == 2) {
+            boolean bisiesto = (anio % 4 == 0 && anio % 100 != 0) || anio % 400 == 0;
+            diasMes = bisiesto ? 29 : 28;
+        } else if (mes == 4 || mes == 6 || mes == 9 || mes == 11) {
+            diasMes = 30;
+        } else {
+            diasMes = 31;
+        }
+        return dia <= diasMes;
+    }
+
+    private static int digitos(String valor, int inicio, int fin) {
+        int resultado = 0;
+        for (int i = inicio; i < fin; i++) {
+            char c = valor.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            resultado = resultado * 10 + (c - '0');
+        }
+        return resultado;
+    }
+}